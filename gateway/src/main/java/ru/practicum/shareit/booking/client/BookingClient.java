@@ -2,28 +2,41 @@ package ru.practicum.shareit.booking.client;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.booking.dto.CreatedBookingDto;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ValidatorCache;
+import ru.practicum.shareit.resilience.ServerCallGuards;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class BookingClient extends BaseClient {
     private static final String API_PREFIX = "/bookings";
 
     @Autowired
-    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public BookingClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                         ClientHttpRequestFactory serverRequestFactory, RequestCoalescer requestCoalescer,
+                         ValidatorCache validatorCache, ServerCallGuards serverCallGuards) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> serverRequestFactory)
+                        .build(),
+                requestCoalescer,
+                validatorCache,
+                serverCallGuards.forClient(API_PREFIX)
         );
     }
 
@@ -31,6 +44,10 @@ public class BookingClient extends BaseClient {
         return post("", creatorId, createdBookingDto);
     }
 
+    public ResponseEntity<Object> createBookings(long creatorId, List<CreatedBookingDto> createdBookingDtos) {
+        return post("/batch", creatorId, createdBookingDtos);
+    }
+
     public ResponseEntity<Object> updateBookingStatus(long userId, long bookingId, boolean approved) {
         Map<String, Object> parameters = Map.of(
                 "approved", approved
@@ -42,11 +59,16 @@ public class BookingClient extends BaseClient {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getBookingListCreatedByUserId(long userId, String state, Long from, Long size) {
+    public ResponseEntity<Object> getBookingListCreatedByUserId(long userId, String state, Long from, Long size,
+                                                 String cursor) {
         Map<String, Object> parameters = new HashMap<>();
         parameters.put("state", state);
 
-        if (from != null && size != null) {
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+            parameters.put("size", size);
+            return get("?state={state}&cursor={cursor}&size={size}", userId, parameters);
+        } else if (from != null && size != null) {
             parameters.put("from", from);
             parameters.put("size", size);
             return get("?state={state}&from={from}&size={size}", userId, parameters);
@@ -55,11 +77,16 @@ public class BookingClient extends BaseClient {
         }
     }
 
-    public ResponseEntity<Object> getBookingListForAllOwnerItems(long userId, String state, Long from, Long size) {
+    public ResponseEntity<Object> getBookingListForAllOwnerItems(long userId, String state, Long from, Long size,
+                                                 String cursor) {
         Map<String, Object> parameters = new HashMap<>();
         parameters.put("state", state);
 
-        if (from != null && size != null) {
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+            parameters.put("size", size);
+            return get("/owner?state={state}&cursor={cursor}&size={size}", userId, parameters);
+        } else if (from != null && size != null) {
             parameters.put("from", from);
             parameters.put("size", size);
             return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
@@ -67,4 +94,14 @@ public class BookingClient extends BaseClient {
             return get("/owner?state={state}", userId, parameters);
         }
     }
+
+    public void exportBookingsCreatedByUserId(long userId, String state, HttpServletResponse response)
+            throws IOException {
+        stream("/export?state={state}", userId, Map.of("state", state), response);
+    }
+
+    public void exportBookingsForAllOwnerItems(long userId, String state, HttpServletResponse response)
+            throws IOException {
+        stream("/owner/export?state={state}", userId, Map.of("state", state), response);
+    }
 }
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.booking.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.dto.CreatedBookingDto;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookingClient extends ReactiveBaseClient {
+
+    private static final String API_PREFIX = "/bookings";
+
+    @Autowired
+    public ReactiveBookingClient(@Value("${shareit-server.url}") String serverUrl, WebClient serverWebClient) {
+        super(serverWebClient.mutate().baseUrl(serverUrl + API_PREFIX).build());
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createBooking(long creatorId, CreatedBookingDto createdBookingDto) {
+        return post("", creatorId, createdBookingDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createBookings(long creatorId,
+                                                                 List<CreatedBookingDto> createdBookingDtos) {
+        return post("/batch", creatorId, createdBookingDtos);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateBookingStatus(long userId, long bookingId,
+                                                                      boolean approved) {
+        Map<String, Object> parameters = Map.of(
+                "approved", approved
+        );
+        return patch("/" + bookingId + "?approved={approved}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> findBookingById(long userId, long bookingId) {
+        return get("/" + bookingId, userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookingListCreatedByUserId(long userId, String state, Long from,
+                                                                                Long size, String cursor) {
+        return getBookingList("", userId, state, from, size, cursor);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getBookingListForAllOwnerItems(long userId, String state, Long from,
+                                                                                 Long size, String cursor) {
+        return getBookingList("/owner", userId, state, from, size, cursor);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportBookingsCreatedByUserId(long userId, String state) {
+        return get("/export?state={state}", userId, Map.of("state", state));
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportBookingsForAllOwnerItems(long userId, String state) {
+        return get("/owner/export?state={state}", userId, Map.of("state", state));
+    }
+
+    private Mono<ResponseEntity<Flux<DataBuffer>>> getBookingList(String path, long userId, String state, Long from,
+                                                                  Long size, String cursor) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("state", state);
+
+        if (cursor != null) {
+            parameters.put("cursor", cursor);
+            parameters.put("size", size);
+            return get(path + "?state={state}&cursor={cursor}&size={size}", userId, parameters);
+        } else if (from != null && size != null) {
+            parameters.put("from", from);
+            parameters.put("size", size);
+            return get(path + "?state={state}&from={from}&size={size}", userId, parameters);
+        } else {
+            return get(path + "?state={state}", userId, parameters);
+        }
+    }
+}
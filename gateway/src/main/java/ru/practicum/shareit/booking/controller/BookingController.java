@@ -2,7 +2,9 @@ package ru.practicum.shareit.booking.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -15,14 +17,23 @@ import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.booking.client.BookingClient;
 import ru.practicum.shareit.booking.dto.CreatedBookingDto;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.util.List;
 
 @Slf4j
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping(path = "/bookings")
 @RequiredArgsConstructor
+@Validated
 public class BookingController {
 
+    static final int MAX_BATCH_SIZE = 100;
+
     private final BookingClient bookingClient;
 
     /**
@@ -40,6 +51,22 @@ public class BookingController {
         return bookingClient.createBooking(creatorId, createdBookingDto);
     }
 
+    /**
+     * Пакетное добавление букингов. Каждая запись проверяется как в createBooking, невалидный пакет отклоняется целиком
+     *
+     * @param creatorId          id создателя
+     * @param createdBookingDtos список createdBookingDto
+     * @return List<BookingBatchResultDto>
+     */
+
+    @PostMapping(path = "/batch")
+    ResponseEntity<Object> createBookings(@RequestHeader("X-Sharer-User-Id") Long creatorId,
+                                          @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                          List<@Valid CreatedBookingDto> createdBookingDtos) {
+        log.debug("Получен пакет из {} броней", createdBookingDtos.size());
+        return bookingClient.createBookings(creatorId, createdBookingDtos);
+    }
+
     /**
      * Обновление статуса букинга
      *
@@ -74,6 +101,9 @@ public class BookingController {
      *
      * @param userId id пользователя запрашивающего букинг
      * @param state  статус, по которому будут отфильтрованы букинги
+     * @param from   индекс, с которого начинается список
+     * @param size   размер списка
+     * @param cursor курсор из заголовка X-Next-Cursor предыдущей страницы (пустой - первая страница)
      * @return List<BookingDto>
      */
 
@@ -81,14 +111,18 @@ public class BookingController {
     ResponseEntity<Object> getBookingListCreatedByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                                    @RequestParam(defaultValue = "ALL") String state,
                                                                    @RequestParam(required = false) Long from,
-                                                                   @RequestParam(required = false) Long size) {
+                                                                   @RequestParam(required = false) Long size,
+                                                                   @RequestParam(required = false) String cursor) {
         if (from != null && from < 0) {
             throw new IllegalStateException("Индекс запроса не может меньше нуля");
         }
         if (size != null && size < 1) {
             throw new IllegalStateException("Размер списка не может быть меньше 1");
         }
-        return bookingClient.getBookingListCreatedByUserId(userId, state, from, size);
+        if (cursor != null && size == null) {
+            throw new IllegalStateException("При постраничном выводе по курсору необходимо указать size");
+        }
+        return bookingClient.getBookingListCreatedByUserId(userId, state, from, size, cursor);
     }
 
     /**
@@ -96,6 +130,9 @@ public class BookingController {
      *
      * @param userId id пользователя запрашивающего букинг
      * @param state  статус, по которому будут отфильтрованы букинги
+     * @param from   индекс, с которого начинается список
+     * @param size   размер списка
+     * @param cursor курсор из заголовка X-Next-Cursor предыдущей страницы (пустой - первая страница)
      * @return List<BookingDto>
      */
 
@@ -103,14 +140,47 @@ public class BookingController {
     ResponseEntity<Object> getBookingListForAllOwnerItems(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                                     @RequestParam(defaultValue = "ALL") String state,
                                                                     @RequestParam(required = false) Long from,
-                                                                    @RequestParam(required = false) Long size) {
+                                                                    @RequestParam(required = false) Long size,
+                                                                    @RequestParam(required = false) String cursor) {
         if (from != null && from < 0) {
             throw new IllegalStateException("Индекс запроса не может быть меньше нуля");
         }
         if (size != null && size < 1) {
             throw new IllegalStateException("Размер списка не может быть меньше 1");
         }
+        if (cursor != null && size == null) {
+            throw new IllegalStateException("При постраничном выводе по курсору необходимо указать size");
+        }
+        return bookingClient.getBookingListForAllOwnerItems(userId, state, from, size, cursor);
+    }
+
+    /**
+     * Выгрузка всех букингов, созданных пользователем, в NDJSON, передается клиенту потоком
+     *
+     * @param userId   id пользователя запрашивающего букинг
+     * @param state    статус, по которому будут отфильтрованы букинги
+     * @param response ответ gateway
+     */
+
+    @GetMapping("/export")
+    void exportBookingsCreatedByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                       @RequestParam(defaultValue = "ALL") String state,
+                                       HttpServletResponse response) throws IOException {
+        bookingClient.exportBookingsCreatedByUserId(userId, state, response);
+    }
+
+    /**
+     * Выгрузка всех букингов для вещей пользователя в NDJSON, передается клиенту потоком
+     *
+     * @param userId   id пользователя запрашивающего букинг
+     * @param state    статус, по которому будут отфильтрованы букинги
+     * @param response ответ gateway
+     */
 
-        return bookingClient.getBookingListForAllOwnerItems(userId, state, from, size);
+    @GetMapping("/owner/export")
+    void exportBookingsForAllOwnerItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                        @RequestParam(defaultValue = "ALL") String state,
+                                        HttpServletResponse response) throws IOException {
+        bookingClient.exportBookingsForAllOwnerItems(userId, state, response);
     }
 }
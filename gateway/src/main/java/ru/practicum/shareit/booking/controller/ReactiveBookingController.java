@@ -0,0 +1,119 @@
+package ru.practicum.shareit.booking.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.client.ReactiveBookingClient;
+import ru.practicum.shareit.booking.dto.CreatedBookingDto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Реактивный аналог BookingController с теми же проверками; ответ сервера передается клиенту потоком
+ */
+
+@Slf4j
+@RestController
+@RequestMapping(path = "/bookings")
+@RequiredArgsConstructor
+@Validated
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveBookingController {
+
+    private final ReactiveBookingClient bookingClient;
+
+    @PostMapping
+    Mono<ResponseEntity<Flux<DataBuffer>>> createBooking(@RequestHeader("X-Sharer-User-Id") Long creatorId,
+                                                         @Valid @RequestBody CreatedBookingDto createdBookingDto) {
+        log.debug("Добавлена новая бронь {}", createdBookingDto);
+        return bookingClient.createBooking(creatorId, createdBookingDto);
+    }
+
+    @PostMapping(path = "/batch")
+    Mono<ResponseEntity<Flux<DataBuffer>>> createBookings(@RequestHeader("X-Sharer-User-Id") Long creatorId,
+                                                          @RequestBody @NotEmpty
+                                                          @Size(max = BookingController.MAX_BATCH_SIZE)
+                                                          List<@Valid CreatedBookingDto> createdBookingDtos) {
+        log.debug("Получен пакет из {} броней", createdBookingDtos.size());
+        return bookingClient.createBookings(creatorId, createdBookingDtos);
+    }
+
+    @PatchMapping(path = "/{bookingId}")
+    Mono<ResponseEntity<Flux<DataBuffer>>> updateBookingStatus(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                               @PathVariable Long bookingId,
+                                                               @RequestParam Boolean approved) {
+        log.debug("Обновлен статус брони с id={}", bookingId);
+        return bookingClient.updateBookingStatus(userId, bookingId, approved);
+    }
+
+    @GetMapping(path = "/{bookingId}")
+    Mono<ResponseEntity<Flux<DataBuffer>>> findBookingById(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                           @PathVariable Long bookingId) {
+        return bookingClient.findBookingById(userId, bookingId);
+    }
+
+    @GetMapping
+    Mono<ResponseEntity<Flux<DataBuffer>>> getBookingListCreatedByUserId(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long size,
+            @RequestParam(required = false) String cursor) {
+        checkPagination(from, size, cursor);
+        return bookingClient.getBookingListCreatedByUserId(userId, state, from, size, cursor);
+    }
+
+    @GetMapping("/owner")
+    Mono<ResponseEntity<Flux<DataBuffer>>> getBookingListForAllOwnerItems(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long size,
+            @RequestParam(required = false) String cursor) {
+        checkPagination(from, size, cursor);
+        return bookingClient.getBookingListForAllOwnerItems(userId, state, from, size, cursor);
+    }
+
+    @GetMapping("/export")
+    Mono<ResponseEntity<Flux<DataBuffer>>> exportBookingsCreatedByUserId(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(defaultValue = "ALL") String state) {
+        return bookingClient.exportBookingsCreatedByUserId(userId, state);
+    }
+
+    @GetMapping("/owner/export")
+    Mono<ResponseEntity<Flux<DataBuffer>>> exportBookingsForAllOwnerItems(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(defaultValue = "ALL") String state) {
+        return bookingClient.exportBookingsForAllOwnerItems(userId, state);
+    }
+
+    private static void checkPagination(Long from, Long size, String cursor) {
+        if (from != null && from < 0) {
+            throw new IllegalStateException("Индекс запроса не может быть меньше нуля");
+        }
+        if (size != null && size < 1) {
+            throw new IllegalStateException("Размер списка не может быть меньше 1");
+        }
+        if (cursor != null && size == null) {
+            throw new IllegalStateException("При постраничном выводе по курсору необходимо указать size");
+        }
+    }
+}
@@ -5,18 +5,53 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.lang.Nullable;
 import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import ru.practicum.shareit.resilience.ServerCallGuard;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
 public class BaseClient {
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     protected final RestTemplate rest;
+    @Nullable
+    private final RequestCoalescer coalescer;
+    @Nullable
+    private final ValidatorCache validatorCache;
+    @Nullable
+    private final ServerCallGuard guard;
 
     public BaseClient(RestTemplate rest) {
+        this(rest, null, null);
+    }
+
+    public BaseClient(RestTemplate rest, @Nullable RequestCoalescer coalescer) {
+        this(rest, coalescer, null);
+    }
+
+    public BaseClient(RestTemplate rest, @Nullable RequestCoalescer coalescer,
+                      @Nullable ValidatorCache validatorCache) {
+        this(rest, coalescer, validatorCache, null);
+    }
+
+    public BaseClient(RestTemplate rest, @Nullable RequestCoalescer coalescer,
+                      @Nullable ValidatorCache validatorCache, @Nullable ServerCallGuard guard) {
         this.rest = rest;
+        this.coalescer = coalescer;
+        this.validatorCache = validatorCache;
+        this.guard = guard;
     }
 
     protected ResponseEntity<Object> get(String path) {
@@ -84,20 +119,127 @@ public class BaseClient {
         return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
     }
 
+    /**
+     * Потоковая выгрузка (NDJSON) копируется в ответ gateway по мере чтения, без ServerResponseBody,
+     * RequestCoalescer и ValidatorCache: память gateway не зависит от размера выгрузки. Через ServerCallGuard
+     * проходит только ожидание заголовков ответа сервера; ответ с ошибкой передается так же, со статусом
+     */
+
+    protected void stream(String path, Long userId, HttpServletResponse target) throws IOException {
+        stream(path, userId, null, target);
+    }
+
+    protected void stream(String path, Long userId, @Nullable Map<String, Object> parameters,
+                          HttpServletResponse target) throws IOException {
+        URI uri = parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+        try (ClientHttpResponse response = guard != null
+                ? guard.call(() -> openStream(uri, userId), BaseClient::rawStatusCode)
+                : openStream(uri, userId)) {
+            target.setStatus(response.getRawStatusCode());
+            PassthroughHeaders.of(response.getHeaders())
+                    .forEach((name, values) -> values.forEach(value -> target.addHeader(name, value)));
+            StreamUtils.copy(response.getBody(), target.getOutputStream());
+        }
+    }
+
+    private ClientHttpResponse openStream(URI uri, Long userId) {
+        try {
+            ClientHttpRequest request = rest.getRequestFactory().createRequest(uri, HttpMethod.GET);
+            request.getHeaders().addAll(defaultHeaders(userId));
+            request.getHeaders().setAccept(List.of(NDJSON, MediaType.APPLICATION_JSON));
+            return request.execute();
+        } catch (IOException e) {
+            throw new ResourceAccessException("I/O error on GET request for \"" + uri + "\": " + e.getMessage(), e);
+        }
+    }
+
+    private static int rawStatusCode(ClientHttpResponse response) {
+        try {
+            return response.getRawStatusCode();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * GET-запросы проходят через RequestCoalescer: одинаковые одновременные запросы делят один вызов сервера,
+     * и через ValidatorCache: сохраненный ответ перепроверяется на сервере по ETag
+     */
+
     private <T> ResponseEntity<Object> makeAndSendRequest(HttpMethod method, String path, Long userId, @Nullable Map<String, Object> parameters, @Nullable T body) {
-        HttpEntity<T> requestEntity = new HttpEntity<>(body, defaultHeaders(userId));
+        if (method != HttpMethod.GET) {
+            return sendRequest(method, path, userId, parameters, body, null);
+        }
+        String key = requestKey(path, userId, parameters);
+        if (coalescer != null) {
+            return coalescer.execute(key, () -> sendGetRequest(key, path, userId, parameters));
+        }
+        return sendGetRequest(key, path, userId, parameters);
+    }
+
+    private ResponseEntity<Object> sendGetRequest(String key, String path, Long userId,
+                                                  @Nullable Map<String, Object> parameters) {
+        if (validatorCache == null) {
+            return sendRequest(HttpMethod.GET, path, userId, parameters, null, null);
+        }
+        ValidatorCache.CachedResponse cached = validatorCache.get(key);
+        ResponseEntity<Object> response = sendRequest(HttpMethod.GET, path, userId, parameters, null,
+                cached != null ? cached.getETag() : null);
+        return validatorCache.update(key, cached, response);
+    }
+
+    /**
+     * Каждый вызов сервера проходит через ServerCallGuard клиента (circuit breaker и bulkhead)
+     */
+
+    private <T> ResponseEntity<Object> sendRequest(HttpMethod method, String path, Long userId,
+                                                   @Nullable Map<String, Object> parameters, @Nullable T body,
+                                                   @Nullable String ifNoneMatch) {
+        if (guard == null) {
+            return exchange(method, path, userId, parameters, body, ifNoneMatch);
+        }
+        return guard.call(() -> exchange(method, path, userId, parameters, body, ifNoneMatch));
+    }
+
+    /**
+     * Ответ сервера не разбирается: тело передается клиенту байтами (ServerResponseBody) вместе с заголовками,
+     * и для успешных ответов, и для ответов с ошибкой
+     */
+
+    private <T> ResponseEntity<Object> exchange(HttpMethod method, String path, Long userId,
+                                                @Nullable Map<String, Object> parameters, @Nullable T body,
+                                                @Nullable String ifNoneMatch) {
+        HttpHeaders headers = defaultHeaders(userId);
+        if (ifNoneMatch != null) {
+            headers.setIfNoneMatch(ifNoneMatch);
+        }
+        HttpEntity<T> requestEntity = new HttpEntity<>(body, headers);
+        RequestCallback requestCallback = rest.httpEntityCallback(requestEntity);
 
-        ResponseEntity<Object> shareitServerResponse;
         try {
             if (parameters != null) {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class, parameters);
+                return rest.execute(path, method, requestCallback, BaseClient::prepareGatewayResponse, parameters);
             } else {
-                shareitServerResponse = rest.exchange(path, method, requestEntity, Object.class);
+                return rest.execute(path, method, requestCallback, BaseClient::prepareGatewayResponse);
             }
         } catch (HttpStatusCodeException e) {
-            return ResponseEntity.status(e.getStatusCode()).body(e.getResponseBodyAsByteArray());
+            return ResponseEntity.status(e.getStatusCode())
+                    .headers(PassthroughHeaders.of(e.getResponseHeaders()))
+                    .body(e.getResponseBodyAsByteArray());
         }
-        return prepareGatewayResponse(shareitServerResponse);
+    }
+
+    /**
+     * Одинаковые запросы - тот же итоговый URI (путь и параметры) от того же пользователя
+     */
+
+    private String requestKey(String path, Long userId, @Nullable Map<String, Object> parameters) {
+        URI uri = parameters != null
+                ? rest.getUriTemplateHandler().expand(path, parameters)
+                : rest.getUriTemplateHandler().expand(path);
+        return uri + " " + userId;
     }
 
     private HttpHeaders defaultHeaders(Long userId) {
@@ -110,15 +252,14 @@ public class BaseClient {
         return headers;
     }
 
-    private static ResponseEntity<Object> prepareGatewayResponse(ResponseEntity<Object> response) {
-        if (response.getStatusCode().is2xxSuccessful()) {
-            return response;
-        }
-
-        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getStatusCode());
+    private static ResponseEntity<Object> prepareGatewayResponse(ClientHttpResponse response) throws IOException {
+        HttpHeaders headers = response.getHeaders();
+        ResponseEntity.BodyBuilder responseBuilder = ResponseEntity.status(response.getRawStatusCode())
+                .headers(PassthroughHeaders.of(headers));
+        ServerResponseBody body = ServerResponseBody.read(response.getBody(), headers.getContentLength());
 
-        if (response.hasBody()) {
-            return responseBuilder.body(response.getBody());
+        if (body.contentLength() > 0) {
+            return responseBuilder.body(body);
         }
 
         return responseBuilder.build();
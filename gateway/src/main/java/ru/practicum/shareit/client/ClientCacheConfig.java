@@ -0,0 +1,28 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Повторное использование GET-ответов сервера в BaseClient: объединение одинаковых одновременных запросов
+ * и перепроверка сохраненных ответов по ETag
+ */
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties({RequestCoalescingProperties.class, ValidatorCacheProperties.class})
+public class ClientCacheConfig {
+
+    @Bean
+    public RequestCoalescer requestCoalescer(RequestCoalescingProperties properties, MeterRegistry meterRegistry) {
+        return new RequestCoalescer(properties, meterRegistry);
+    }
+
+    @Bean
+    public ValidatorCache validatorCache(ValidatorCacheProperties properties, MeterRegistry meterRegistry) {
+        return new ValidatorCache(properties, meterRegistry);
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.Set;
+
+/**
+ * Заголовки ответа сервера, которые gateway передает клиенту как есть. Заголовки соединения gateway -> server
+ * (hop-by-hop) отбрасываются: их выставляет веб-сервер самого gateway
+ */
+
+final class PassthroughHeaders {
+
+    private static final Set<String> HOP_BY_HOP_HEADERS = Set.of(HttpHeaders.CONNECTION, "Keep-Alive",
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.TE, HttpHeaders.TRAILER, HttpHeaders.UPGRADE);
+
+    private PassthroughHeaders() {
+    }
+
+    static HttpHeaders of(HttpHeaders serverHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        if (serverHeaders == null) {
+            return headers;
+        }
+        serverHeaders.forEach((name, values) -> {
+            if (HOP_BY_HOP_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                headers.addAll(name, values);
+            }
+        });
+        return headers;
+    }
+}
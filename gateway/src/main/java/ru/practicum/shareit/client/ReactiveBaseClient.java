@@ -0,0 +1,119 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неблокирующий аналог BaseClient. Тело ответа сервера не разбирается, а передается клиенту потоком буферов
+ * по мере получения; ответы с ошибкой возвращаются с исходными статусом и телом
+ */
+
+public class ReactiveBaseClient {
+
+    protected final WebClient webClient;
+
+    public ReactiveBaseClient(WebClient webClient) {
+        this.webClient = webClient;
+    }
+
+    /**
+     * Готовый ответ с пустым JSON-списком, без обращения к серверу
+     */
+
+    public static Mono<ResponseEntity<Flux<DataBuffer>>> emptyList() {
+        byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+        return Mono.just(ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(body))));
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path) {
+        return get(path, null, null);
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path, long userId) {
+        return get(path, userId, null);
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> get(String path, Long userId,
+                                                          @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.GET, path, userId, parameters, null);
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, T body) {
+        return post(path, null, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, long userId, T body) {
+        return post(path, userId, null, body);
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> post(String path, Long userId,
+                                                               @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.POST, path, userId, parameters, body);
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, long userId, T body) {
+        return patch(path, userId, null, body);
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, long userId,
+                                                            @Nullable Map<String, Object> parameters) {
+        return patch(path, userId, parameters, null);
+    }
+
+    protected <T> Mono<ResponseEntity<Flux<DataBuffer>>> patch(String path, Long userId,
+                                                                @Nullable Map<String, Object> parameters, T body) {
+        return makeAndSendRequest(HttpMethod.PATCH, path, userId, parameters, body);
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> delete(String path) {
+        return delete(path, null, null);
+    }
+
+    protected Mono<ResponseEntity<Flux<DataBuffer>>> delete(String path, Long userId,
+                                                             @Nullable Map<String, Object> parameters) {
+        return makeAndSendRequest(HttpMethod.DELETE, path, userId, parameters, null);
+    }
+
+    private <T> Mono<ResponseEntity<Flux<DataBuffer>>> makeAndSendRequest(HttpMethod method, String path,
+                                                                           Long userId,
+                                                                           @Nullable Map<String, Object> parameters,
+                                                                           @Nullable T body) {
+        WebClient.RequestBodySpec request = webClient.method(method)
+                .uri(path, parameters != null ? parameters : Map.of())
+                .headers(headers -> defaultHeaders(headers, userId));
+        WebClient.RequestHeadersSpec<?> exchange = body != null ? request.bodyValue(body) : request;
+        return exchange.retrieve()
+                .onStatus(HttpStatus::isError, response -> Mono.empty())
+                .toEntityFlux(DataBuffer.class)
+                .map(ReactiveBaseClient::prepareGatewayResponse);
+    }
+
+    private static void defaultHeaders(HttpHeaders headers, Long userId) {
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
+        if (userId != null) {
+            headers.set("X-Sharer-User-Id", String.valueOf(userId));
+        }
+    }
+
+    private static ResponseEntity<Flux<DataBuffer>> prepareGatewayResponse(ResponseEntity<Flux<DataBuffer>> response) {
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(PassthroughHeaders.of(response.getHeaders()))
+                .body(response.getBody());
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.client;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Реактивный режим gateway (spring.main.web-application-type=reactive): WebFlux на Netty и WebClient с общим
+ * пулом соединений к серверу. Ожидание ответа сервера не занимает поток, поэтому число одновременных
+ * запросов ограничено пулом соединений, а не числом потоков веб-сервера
+ */
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(ServerHttpClientProperties.class)
+public class ReactiveServerClientConfig {
+
+    /**
+     * Netty вместо Tomcat, который тоже есть в classpath и иначе был бы выбран для WebFlux
+     */
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Публикует reactor.netty.connection.provider.* с тегом name=shareit-server
+     */
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider serverConnectionProvider(ServerHttpClientProperties properties) {
+        return ConnectionProvider.builder(ServerHttpClientConfig.POOL_NAME)
+                .maxConnections(properties.getMaxPerRoute())
+                .pendingAcquireTimeout(properties.getConnectionRequestTimeout())
+                .maxIdleTime(properties.getIdleTimeout())
+                .evictInBackground(properties.getIdleTimeout())
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient serverWebClient(WebClient.Builder builder, ConnectionProvider serverConnectionProvider,
+                                     ServerHttpClientProperties properties) {
+        HttpClient httpClient = HttpClient.create(serverConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getReadTimeout());
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
@@ -0,0 +1,87 @@
+package ru.practicum.shareit.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight для идемпотентных запросов: одновременные одинаковые запросы (тот же URI и X-Sharer-User-Id)
+ * ждут один вызов сервера и получают его ответ. После ответа ключ освобождается сразу или по истечении окна.
+ * Ошибки соединения не запоминаются и передаются всем ожидавшим
+ */
+
+public class RequestCoalescer {
+
+    public static final String METRIC = "shareit.gateway.coalescing.requests";
+
+    private final ConcurrentMap<String, CompletableFuture<ResponseEntity<Object>>> inFlight =
+            new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final Duration window;
+    private final Counter upstream;
+    private final Counter collapsed;
+
+    public RequestCoalescer(RequestCoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.window = properties.getWindow();
+        this.upstream = Counter.builder(METRIC)
+                .description("GET-запросы, отправленные на сервер")
+                .tag("result", "upstream")
+                .register(meterRegistry);
+        this.collapsed = Counter.builder(METRIC)
+                .description("GET-запросы, получившие ответ чужого вызова сервера")
+                .tag("result", "collapsed")
+                .register(meterRegistry);
+    }
+
+    public ResponseEntity<Object> execute(String key, Supplier<ResponseEntity<Object>> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        CompletableFuture<ResponseEntity<Object>> leader = new CompletableFuture<>();
+        CompletableFuture<ResponseEntity<Object>> existing = inFlight.putIfAbsent(key, leader);
+        if (existing != null) {
+            collapsed.increment();
+            return await(existing);
+        }
+        upstream.increment();
+        try {
+            ResponseEntity<Object> response = call.get();
+            leader.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            leader.completeExceptionally(e);
+            throw e;
+        } finally {
+            release(key, leader);
+        }
+    }
+
+    private void release(String key, CompletableFuture<ResponseEntity<Object>> leader) {
+        if (window.isZero() || leader.isCompletedExceptionally()) {
+            inFlight.remove(key, leader);
+        } else {
+            CompletableFuture.delayedExecutor(window.toMillis(), TimeUnit.MILLISECONDS)
+                    .execute(() -> inFlight.remove(key, leader));
+        }
+    }
+
+    private static ResponseEntity<Object> await(CompletableFuture<ResponseEntity<Object>> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки объединения одинаковых GET-запросов к серверу (RequestCoalescer)
+ */
+
+@Data
+@ConfigurationProperties(prefix = "shareit-server.coalescing")
+public class RequestCoalescingProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Сколько полученный ответ остается общим для новых одинаковых запросов. 0 - только для одновременных
+     */
+
+    private Duration window = Duration.ZERO;
+}
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.client;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.util.FastByteArrayOutputStream;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Тело ответа сервера в том виде, в каком оно пришло. Байты копируются из сокета один раз в цепочку блоков
+ * (без перевыделения при росте) и отдаются клиенту ResourceHttpMessageConverter'ом без разбора JSON.
+ * Каждый getInputStream читает те же блоки заново, поэтому тело можно отдать несколько раз
+ */
+
+public class ServerResponseBody extends AbstractResource {
+
+    private static final int DEFAULT_BLOCK_SIZE = 8192;
+
+    private final FastByteArrayOutputStream bytes;
+
+    private ServerResponseBody(FastByteArrayOutputStream bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Читает тело целиком. При известном Content-Length тело помещается в один блок нужного размера
+     */
+
+    public static ServerResponseBody read(InputStream body, long contentLength) throws IOException {
+        FastByteArrayOutputStream bytes = new FastByteArrayOutputStream(
+                contentLength > 0 && contentLength <= Integer.MAX_VALUE ? (int) contentLength : DEFAULT_BLOCK_SIZE);
+        StreamUtils.copy(body, bytes);
+        return new ServerResponseBody(bytes);
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return bytes.getInputStream();
+    }
+
+    @Override
+    public long contentLength() {
+        return bytes.size();
+    }
+
+    @Override
+    public boolean exists() {
+        return true;
+    }
+
+    @Override
+    public String getDescription() {
+        return "Ответ сервера ShareIt, байт: " + bytes.size();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other;
+    }
+
+    @Override
+    public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+    @Override
+    public String toString() {
+        // toByteArray склеивает блоки буфера, а тело может одновременно читаться другими запросами
+        try {
+            return StreamUtils.copyToString(bytes.getInputStream(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
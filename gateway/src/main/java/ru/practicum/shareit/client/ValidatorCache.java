@@ -0,0 +1,110 @@
+package ru.practicum.shareit.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+
+/**
+ * Последние ответы сервера с ETag по ключу "URI + X-Sharer-User-Id". Повторный GET уходит на сервер
+ * с If-None-Match, и на 304 клиенту отдается сохраненное тело: сервер не строит DTO, а по сети
+ * между gateway и сервером идут только заголовки. Ответ всегда перепроверяется на сервере, поэтому
+ * устаревшее тело не может быть отдано
+ */
+
+public class ValidatorCache {
+
+    public static final String METRIC = "shareit.gateway.etag-cache.requests";
+
+    @Nullable
+    private final Cache<String, CachedResponse> responses;
+    private final Counter revalidated;
+    private final Counter downloaded;
+
+    public ValidatorCache(ValidatorCacheProperties properties, MeterRegistry meterRegistry) {
+        this.responses = properties.isEnabled() ? newCache(properties) : null;
+        this.revalidated = Counter.builder(METRIC)
+                .description("GET-запросы, на которые сервер ответил 304 и тело взято из кэша gateway")
+                .tag("result", "not-modified")
+                .register(meterRegistry);
+        this.downloaded = Counter.builder(METRIC)
+                .description("GET-запросы, на которые сервер вернул тело")
+                .tag("result", "downloaded")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Сохраненный ответ, ETag которого отправляется в If-None-Match; null, если ответа нет
+     */
+
+    @Nullable
+    public CachedResponse get(String key) {
+        return responses != null ? responses.getIfPresent(key) : null;
+    }
+
+    /**
+     * Разбирает ответ сервера на запрос, отправленный с ETag ответа cached: 304 заменяется сохраненным ответом,
+     * новый ответ с ETag сохраняется, любой другой ответ удаляет сохраненный
+     */
+
+    public ResponseEntity<Object> update(String key, @Nullable CachedResponse cached,
+                                         ResponseEntity<Object> response) {
+        if (responses == null) {
+            return response;
+        }
+        if (response.getStatusCode() == HttpStatus.NOT_MODIFIED && cached != null) {
+            revalidated.increment();
+            return ResponseEntity.ok()
+                    .headers(revalidatedHeaders(cached.getHeaders(), response.getHeaders()))
+                    .body(cached.getBody());
+        }
+        downloaded.increment();
+        if (response.getStatusCode() == HttpStatus.OK && response.getHeaders().getETag() != null
+                && response.getBody() instanceof ServerResponseBody) {
+            responses.put(key, new CachedResponse(response.getHeaders(), (ServerResponseBody) response.getBody()));
+        } else {
+            responses.invalidate(key);
+        }
+        return response;
+    }
+
+    /**
+     * Заголовки 304 (Date, ETag и т.п.) заменяют сохраненные, кроме описывающих тело
+     */
+
+    private static HttpHeaders revalidatedHeaders(HttpHeaders cached, HttpHeaders notModified) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(cached);
+        notModified.forEach((name, values) -> {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)
+                    && !HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+                headers.put(name, values);
+            }
+        });
+        return headers;
+    }
+
+    private static Cache<String, CachedResponse> newCache(ValidatorCacheProperties properties) {
+        return Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumSize().toBytes())
+                .weigher((String key, CachedResponse response) ->
+                        key.length() + (int) response.getBody().contentLength())
+                .expireAfterAccess(properties.getExpireAfterAccess())
+                .build();
+    }
+
+    @Value
+    public static class CachedResponse {
+        HttpHeaders headers;
+        ServerResponseBody body;
+
+        public String getETag() {
+            return headers.getETag();
+        }
+    }
+}
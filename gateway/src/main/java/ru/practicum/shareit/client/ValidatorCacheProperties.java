@@ -0,0 +1,25 @@
+package ru.practicum.shareit.client;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша валидаторов ответов сервера (ValidatorCache)
+ */
+
+@Data
+@ConfigurationProperties(prefix = "shareit-server.etag-cache")
+public class ValidatorCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Суммарный размер сохраненных тел ответов
+     */
+
+    private DataSize maximumSize = DataSize.ofMegabytes(32);
+    private Duration expireAfterAccess = Duration.ofMinutes(10);
+}
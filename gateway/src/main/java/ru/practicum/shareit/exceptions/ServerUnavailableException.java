@@ -0,0 +1,19 @@
+package ru.practicum.shareit.exceptions;
+
+import lombok.Getter;
+
+/**
+ * Вызов сервера не выполнен: разомкнут circuit breaker, занят bulkhead клиента или сервер не ответил.
+ * retryAfterSeconds - значение заголовка Retry-After
+ */
+
+@Getter
+public class ServerUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServerUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
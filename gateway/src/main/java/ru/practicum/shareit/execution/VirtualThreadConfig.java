@@ -0,0 +1,51 @@
+package ru.practicum.shareit.execution;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Режим выполнения shareit.execution.mode=virtual: каждый запрос Tomcat обрабатывается в своем виртуальном потоке.
+ * Ожидание ответа сервера в RestTemplate паркует виртуальный поток и освобождает поток-носитель, поэтому число
+ * одновременных запросов ограничено пулом соединений к серверу, а не server.tomcat.threads.max. Пул Apache HttpClient
+ * синхронизируется через ReentrantLock и не закрепляет поток на носителе. Требует запуска на Java 21+
+ */
+
+@Configuration
+@ConditionalOnProperty(name = "shareit.execution.mode", havingValue = "virtual")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class VirtualThreadConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        return newVirtualThreadPerTaskExecutor();
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(
+            ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() через рефлексию: сборка остается на Java 11,
+     * а на более старой JVM режим virtual не запустится с понятной ошибкой
+     */
+
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Виртуальные потоки требуют Java 21+, текущая версия: "
+                    + Runtime.version());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Не удалось создать исполнитель на виртуальных потоках", e);
+        }
+    }
+}
@@ -2,31 +2,44 @@ package ru.practicum.shareit.item.client;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ValidatorCache;
 import ru.practicum.shareit.item.dto.CreatedCommentDto;
 import ru.practicum.shareit.item.dto.CreatedItemDto;
 import ru.practicum.shareit.item.dto.UpdatedItemDto;
+import ru.practicum.shareit.resilience.ServerCallGuards;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class ItemClient extends BaseClient {
 
     private static final String API_PREFIX = "/items";
 
     @Autowired
-    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public ItemClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory serverRequestFactory, RequestCoalescer requestCoalescer,
+                      ValidatorCache validatorCache, ServerCallGuards serverCallGuards) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> serverRequestFactory)
+                        .build(),
+                requestCoalescer,
+                validatorCache,
+                serverCallGuards.forClient(API_PREFIX)
         );
     }
 
@@ -53,6 +66,10 @@ public class ItemClient extends BaseClient {
         }
     }
 
+    public void exportItems(long userId, HttpServletResponse response) throws IOException {
+        stream("/export", userId, response);
+    }
+
     public ResponseEntity<Object> searchItemsByText(long userId, String text, Long from, Long size) {
         Map<String, Object> parameters = new HashMap<>();
         parameters.put("text", text);
@@ -66,6 +83,15 @@ public class ItemClient extends BaseClient {
         }
     }
 
+    public void getItemAvailability(long userId, long itemId, LocalDateTime from, LocalDateTime to,
+                                    HttpServletResponse response) throws IOException {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        stream("/" + itemId + "/availability?from={from}&to={to}", userId, parameters, response);
+    }
+
     public ResponseEntity<Object> addComment(Long userId, Long itemId, CreatedCommentDto createdCommentDto) {
         return post("/" + itemId + "/comment", userId, createdCommentDto);
     }
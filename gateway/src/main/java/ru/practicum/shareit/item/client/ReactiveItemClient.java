@@ -0,0 +1,86 @@
+package ru.practicum.shareit.item.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.item.dto.CreatedCommentDto;
+import ru.practicum.shareit.item.dto.CreatedItemDto;
+import ru.practicum.shareit.item.dto.UpdatedItemDto;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemClient extends ReactiveBaseClient {
+
+    private static final String API_PREFIX = "/items";
+
+    @Autowired
+    public ReactiveItemClient(@Value("${shareit-server.url}") String serverUrl, WebClient serverWebClient) {
+        super(serverWebClient.mutate().baseUrl(serverUrl + API_PREFIX).build());
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createItem(long ownerId, CreatedItemDto createdItemDto) {
+        return post("", ownerId, createdItemDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateItem(long ownerId, long itemId,
+                                                             UpdatedItemDto updatedItemDto) {
+        return patch("/" + itemId, ownerId, updatedItemDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemById(long userId, long itemId) {
+        return get("/" + itemId, userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemListByUserId(long userId, Long from, Long size) {
+        Map<String, Object> parameters = new HashMap<>();
+        if (from != null && size != null) {
+            parameters.put("from", from);
+            parameters.put("size", size);
+            return get("?from={from}&size={size}", userId, parameters);
+        } else {
+            return get("", userId);
+        }
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportItems(long userId) {
+        return get("/export", userId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> searchItemsByText(long userId, String text, Long from, Long size) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("text", text);
+
+        if (from != null && size != null) {
+            parameters.put("from", from);
+            parameters.put("size", size);
+            return get("/search?text={text}&from={from}&size={size}", userId, parameters);
+        } else {
+            return get("/search?text={text}", userId, parameters);
+        }
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemAvailability(long userId, long itemId,
+                                                                      LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from,
+                "to", to
+        );
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> addComment(Long userId, Long itemId,
+                                                             CreatedCommentDto createdCommentDto) {
+        return post("/" + itemId + "/comment", userId, createdCommentDto);
+    }
+}
@@ -2,6 +2,8 @@ package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -18,12 +20,16 @@ import ru.practicum.shareit.item.dto.CreatedCommentDto;
 import ru.practicum.shareit.item.dto.CreatedItemDto;
 import ru.practicum.shareit.item.dto.UpdatedItemDto;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.Collections;
 
 
 @Slf4j
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/items")
 @RequiredArgsConstructor
 public class ItemController {
@@ -100,6 +106,19 @@ public class ItemController {
         return itemClient.getItemListByUserId(ownerId, from, size);
     }
 
+    /**
+     * Выгрузка всех вещей собственника в NDJSON, передается клиенту потоком
+     *
+     * @param ownerId  id собственника
+     * @param response ответ gateway
+     */
+
+    @GetMapping("/export")
+    void exportItems(@RequestHeader("X-Sharer-User-Id") Long ownerId, HttpServletResponse response)
+            throws IOException {
+        itemClient.exportItems(ownerId, response);
+    }
+
     /**
      * Поиск вещи по имени/описанию
      *
@@ -125,6 +144,32 @@ public class ItemController {
         return itemClient.searchItemsByText(userId, text, from, size);
     }
 
+    /**
+     * Календарь доступности вещи в NDJSON, передается клиенту потоком
+     *
+     * @param userId   id пользователя, делающего запрос
+     * @param itemId   id вещи
+     * @param from     начало периода (включительно)
+     * @param to       конец периода (не включительно)
+     * @param response ответ gateway
+     */
+
+    @GetMapping("/{itemId}/availability")
+    void getItemAvailability(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @PathVariable long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) throws IOException {
+        if (itemId <= 0) {
+            throw new NotFoundException("Id вещи должен быть положительным числом");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalStateException("Начало периода должно быть раньше его окончания");
+        }
+        itemClient.getItemAvailability(userId, itemId, from, to, response);
+    }
+
     /**
      * Добавление комментария
      *
@@ -0,0 +1,130 @@
+package ru.practicum.shareit.item.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.client.ReactiveItemClient;
+import ru.practicum.shareit.item.dto.CreatedCommentDto;
+import ru.practicum.shareit.item.dto.CreatedItemDto;
+import ru.practicum.shareit.item.dto.UpdatedItemDto;
+
+import javax.validation.Valid;
+import java.time.LocalDateTime;
+
+/**
+ * Реактивный аналог ItemController с теми же проверками; ответ сервера передается клиенту потоком
+ */
+
+@Slf4j
+@RestController
+@RequestMapping("/items")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemController {
+
+    private final ReactiveItemClient itemClient;
+
+    @PostMapping
+    Mono<ResponseEntity<Flux<DataBuffer>>> addItem(@RequestHeader("X-Sharer-User-Id") Long ownerId,
+                                                   @Valid @RequestBody CreatedItemDto createdItemDto) {
+        log.debug("Добавлена новая вещь {}", createdItemDto);
+        return itemClient.createItem(ownerId, createdItemDto);
+    }
+
+    @PatchMapping(path = "/{itemId}")
+    Mono<ResponseEntity<Flux<DataBuffer>>> updateItem(@RequestHeader("X-Sharer-User-Id") Long ownerId,
+                                                      @PathVariable long itemId,
+                                                      @Valid @RequestBody UpdatedItemDto updatedItemDto) {
+        if (itemId <= 0) {
+            throw new NotFoundException("Id вещи должен быть положительным числом");
+        }
+        log.debug("Обновлена вещь {}", updatedItemDto);
+        return itemClient.updateItem(ownerId, itemId, updatedItemDto);
+    }
+
+    @GetMapping(path = "/{itemId}")
+    Mono<ResponseEntity<Flux<DataBuffer>>> getItemById(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                       @PathVariable long itemId) {
+        if (itemId <= 0) {
+            throw new NotFoundException("Id вещи должен быть положительным числом");
+        }
+        return itemClient.getItemById(userId, itemId);
+    }
+
+    @GetMapping
+    Mono<ResponseEntity<Flux<DataBuffer>>> getItemListByUserId(@RequestHeader("X-Sharer-User-Id") Long ownerId,
+                                                               @RequestParam(required = false) Long from,
+                                                               @RequestParam(required = false) Long size) {
+        if (from != null && from < 0) {
+            throw new IllegalStateException("Индекс запроса не может быть меньше нуля");
+        }
+        if (size != null && size < 1) {
+            throw new IllegalStateException("Размер списка не может быть меньше 1");
+        }
+        return itemClient.getItemListByUserId(ownerId, from, size);
+    }
+
+    @GetMapping("/export")
+    Mono<ResponseEntity<Flux<DataBuffer>>> exportItems(@RequestHeader("X-Sharer-User-Id") Long ownerId) {
+        return itemClient.exportItems(ownerId);
+    }
+
+    @GetMapping("/search")
+    Mono<ResponseEntity<Flux<DataBuffer>>> searchItemsByText(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                             @RequestParam String text,
+                                                             @RequestParam(required = false) Long from,
+                                                             @RequestParam(required = false) Long size) {
+        if (text.isEmpty()) {
+            return ReactiveBaseClient.emptyList();
+        }
+        if (from != null && from < 0) {
+            throw new IllegalStateException("Индекс запроса не может быть меньше нуля");
+        }
+        if (size != null && size < 1) {
+            throw new IllegalStateException("Размер списка не может быть меньше 1");
+        }
+        return itemClient.searchItemsByText(userId, text, from, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    Mono<ResponseEntity<Flux<DataBuffer>>> getItemAvailability(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @PathVariable long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        if (itemId <= 0) {
+            throw new NotFoundException("Id вещи должен быть положительным числом");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalStateException("Начало периода должно быть раньше его окончания");
+        }
+        return itemClient.getItemAvailability(userId, itemId, from, to);
+    }
+
+    @PostMapping(path = "/{itemId}/comment")
+    Mono<ResponseEntity<Flux<DataBuffer>>> addComment(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                      @PathVariable Long itemId,
+                                                      @Valid @RequestBody CreatedCommentDto createdCommentDto) {
+        if (itemId == null) {
+            throw new NotFoundException("Не указан id вещи, к которой добавляется отзыв");
+        }
+        log.debug("Добавлен новый комментарий {} от пользователя {}", createdCommentDto, userId);
+        return itemClient.addComment(userId, itemId, createdCommentDto);
+    }
+}
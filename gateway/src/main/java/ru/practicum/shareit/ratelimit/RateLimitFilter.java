@@ -0,0 +1,54 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ru.practicum.shareit.error.ErrorResponse;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Допуск запросов через RateLimiter до контроллеров: отказ - 429 с Retry-After и ErrorResponse в теле
+ */
+
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    public RateLimitFilter(RateLimiter rateLimiter, ObjectMapper objectMapper) {
+        this.rateLimiter = rateLimiter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String group = rateLimiter.groupOf(request.getRequestURI());
+        if (group == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        RateLimiter.Admission admission = rateLimiter.tryAcquire(group,
+                RateLimiter.clientKey(request.getHeader(RateLimiter.USER_ID_HEADER), request.getRemoteAddr()));
+        if (!admission.isAdmitted()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admission.getRetryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            objectMapper.writeValue(response.getOutputStream(), new ErrorResponse(RateLimiter.REJECTED_MESSAGE));
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            rateLimiter.release();
+        }
+    }
+}
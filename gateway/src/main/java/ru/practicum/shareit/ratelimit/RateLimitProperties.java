@@ -0,0 +1,45 @@
+package ru.practicum.shareit.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки ограничения нагрузки на gateway (RateLimiter). Группы соответствуют первому сегменту пути:
+ * users, items, bookings, requests
+ */
+
+@Data
+@ConfigurationProperties(prefix = "shareit.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Сколько запросов gateway обрабатывает одновременно по всем группам
+     */
+
+    private int maxConcurrentRequests = 200;
+
+    /**
+     * Через сколько после последнего запроса пользователя его ведра удаляются
+     */
+
+    private Duration idleBucketExpiry = Duration.ofMinutes(10);
+
+    private Map<String, Limit> groups = new HashMap<>();
+
+    /**
+     * Ведро на одного пользователя в группе: capacity запросов подряд, затем requestsPerSecond
+     */
+
+    @Data
+    public static class Limit {
+
+        private int capacity = 50;
+        private double requestsPerSecond = 20;
+    }
+}
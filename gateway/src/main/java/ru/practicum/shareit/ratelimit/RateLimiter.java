@@ -0,0 +1,144 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import org.springframework.lang.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * Допуск запросов в gateway: token bucket на пользователя (X-Sharer-User-Id) в каждой группе эндпоинтов
+ * и общий предел одновременных запросов. Ведра лежат в Caffeine (конкурентная хеш-таблица, ведра бездействующих
+ * пользователей вытесняются), сами ведра и счетчик одновременных запросов изменяются только через CAS
+ */
+
+public class RateLimiter {
+
+    public static final String METRIC = "shareit.gateway.rate-limit.rejected";
+    public static final String USER_ID_HEADER = "X-Sharer-User-Id";
+    public static final String REJECTED_MESSAGE = "Слишком много запросов, повторите позже";
+
+    private static final Admission ADMITTED = new Admission(true, 0);
+
+    private final boolean enabled;
+    private final int maxConcurrentRequests;
+    private final Map<String, Group> groups = new HashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongSupplier nanoTime;
+    private final MeterRegistry meterRegistry;
+
+    public RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    RateLimiter(RateLimitProperties properties, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.enabled = properties.isEnabled();
+        this.maxConcurrentRequests = properties.getMaxConcurrentRequests();
+        this.nanoTime = nanoTime;
+        this.meterRegistry = meterRegistry;
+        properties.getGroups().forEach((name, limit) -> groups.put(name, new Group(name, limit,
+                properties.getIdleBucketExpiry().toNanos())));
+    }
+
+    /**
+     * Группа запроса по первому сегменту пути; null, если путь не относится ни к одной группе
+     */
+
+    @Nullable
+    public String groupOf(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int end = path.indexOf('/', start);
+        String group = end < 0 ? path.substring(start) : path.substring(start, end);
+        return groups.containsKey(group) ? group : null;
+    }
+
+    /**
+     * Ключ ведра: X-Sharer-User-Id, для запросов без него (создание пользователя и т.п.) - адрес клиента
+     */
+
+    public static String clientKey(@Nullable String userId, String remoteAddress) {
+        return userId != null ? userId : "ip:" + remoteAddress;
+    }
+
+    /**
+     * Пропускает запрос или возвращает отказ со временем до повтора. Пропущенный запрос должен вызвать release
+     */
+
+    public Admission tryAcquire(String group, String key) {
+        if (!enabled) {
+            return ADMITTED;
+        }
+        Group limits = groups.get(group);
+        long waitNanos = limits.bucket(key).tryAcquire(nanoTime.getAsLong());
+        if (waitNanos > 0) {
+            limits.rateRejected.increment();
+            return new Admission(false, TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1);
+        }
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= maxConcurrentRequests) {
+                limits.concurrencyRejected.increment();
+                return new Admission(false, 1);
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return ADMITTED;
+    }
+
+    public void release() {
+        if (enabled) {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Результат допуска; retryAfterSeconds - значение заголовка Retry-After для отказа
+     */
+
+    @Value
+    public static class Admission {
+        boolean admitted;
+        long retryAfterSeconds;
+    }
+
+    private class Group {
+
+        private final RateLimitProperties.Limit limit;
+        private final Cache<String, TokenBucket> buckets;
+        private final Counter rateRejected;
+        private final Counter concurrencyRejected;
+
+        Group(String name, RateLimitProperties.Limit limit, long idleExpiryNanos) {
+            this.limit = limit;
+            this.buckets = Caffeine.newBuilder()
+                    .expireAfterAccess(idleExpiryNanos, TimeUnit.NANOSECONDS)
+                    .build();
+            this.rateRejected = Counter.builder(METRIC)
+                    .description("Запросы, отклоненные ограничением частоты пользователя")
+                    .tag("group", name)
+                    .tag("reason", "rate")
+                    .register(meterRegistry);
+            this.concurrencyRejected = Counter.builder(METRIC)
+                    .description("Запросы, отклоненные ограничением одновременных запросов")
+                    .tag("group", name)
+                    .tag("reason", "concurrency")
+                    .register(meterRegistry);
+        }
+
+        TokenBucket bucket(String key) {
+            return buckets.get(key, k -> new TokenBucket(limit.getCapacity(), limit.getRequestsPerSecond(),
+                    nanoTime.getAsLong()));
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.shareit.ratelimit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.error.ErrorResponse;
+
+import java.net.InetSocketAddress;
+
+/**
+ * Реактивный аналог RateLimitFilter: запрос занимает место среди одновременных до завершения ответа
+ */
+
+public class ReactiveRateLimitFilter implements WebFilter {
+
+    private final RateLimiter rateLimiter;
+    private final byte[] rejectedBody;
+
+    public ReactiveRateLimitFilter(RateLimiter rateLimiter, ObjectMapper objectMapper) throws JsonProcessingException {
+        this.rateLimiter = rateLimiter;
+        this.rejectedBody = objectMapper.writeValueAsBytes(new ErrorResponse(RateLimiter.REJECTED_MESSAGE));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String group = rateLimiter.groupOf(request.getPath().value());
+        if (group == null) {
+            return chain.filter(exchange);
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        RateLimiter.Admission admission = rateLimiter.tryAcquire(group,
+                RateLimiter.clientKey(request.getHeaders().getFirst(RateLimiter.USER_ID_HEADER),
+                        remoteAddress != null ? remoteAddress.getHostString() : "unknown"));
+        if (!admission.isAdmitted()) {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(admission.getRetryAfterSeconds()));
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(rejectedBody)));
+        }
+        return chain.filter(exchange)
+                .doFinally(signal -> rateLimiter.release());
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.shareit.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket в форме GCRA: все состояние ведра - теоретическое время следующего запроса в одном AtomicLong,
+ * поэтому захват токена - одна операция compareAndSet без блокировок. Ведро полно, пока это время не опережает
+ * текущее больше чем на (capacity - 1) интервалов между токенами
+ */
+
+class TokenBucket {
+
+    private final long intervalNanos;
+    private final long toleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    TokenBucket(int capacity, double requestsPerSecond, long nowNanos) {
+        this.intervalNanos = (long) (1_000_000_000L / requestsPerSecond);
+        this.toleranceNanos = intervalNanos * (capacity - 1);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Забирает токен. Возвращает 0, если токен выдан, иначе - через сколько наносекунд он появится
+     */
+
+    long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = arrival - nowNanos > 0 ? arrival : nowNanos;
+            long waitNanos = next - nowNanos - toleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package ru.practicum.shareit.request.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.request.dto.CreatedItemRequestDto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemRequestClient extends ReactiveBaseClient {
+
+    private static final String API_PREFIX = "/requests";
+
+    @Autowired
+    public ReactiveItemRequestClient(@Value("${shareit-server.url}") String serverUrl, WebClient serverWebClient) {
+        super(serverWebClient.mutate().baseUrl(serverUrl + API_PREFIX).build());
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> addItemRequest(long userId,
+                                                                 CreatedItemRequestDto createdItemRequestDto) {
+        return post("", userId, createdItemRequestDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getItemRequestListByUserId(long ownerId) {
+        return get("", ownerId);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getAllItemRequestList(long userId, Long from, Long size) {
+        Map<String, Object> parameters = new HashMap<>();
+        if (from != null && size != null) {
+            parameters.put("from", from);
+            parameters.put("size", size);
+            return get("/all?from={from}&size={size}", userId, parameters);
+        } else {
+            return get("/all", userId);
+        }
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getRequestByItemRequestId(long userId, long requestId) {
+        return get("/" + requestId, userId);
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -19,6 +20,7 @@ import javax.validation.constraints.NotNull;
 
 @Slf4j
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping(path = "/requests")
 @RequiredArgsConstructor
 public class ItemRequestController {
@@ -39,8 +41,7 @@ public class ItemRequestController {
             @Valid @RequestBody CreatedItemRequestDto createdItemRequestDto
     ) {
         ResponseEntity<Object> responseEntity = itemRequestClient.addItemRequest(userId, createdItemRequestDto);
-        String responseBodyAsString = (responseEntity.getBody() != null) ? responseEntity.getBody().toString() : "null";
-        log.debug("Добавлен новый запрос с id={}", responseBodyAsString);
+        log.debug("Добавлен новый запрос от пользователя {}, статус {}", userId, responseEntity.getStatusCode());
         return responseEntity;
     }
 
@@ -56,8 +57,7 @@ public class ItemRequestController {
             @RequestHeader("X-Sharer-User-Id") @NotNull(message = "Не указан id пользователя") Long ownerId
     ) {
         ResponseEntity<Object> responseEntity = itemRequestClient.getItemRequestListByUserId(ownerId);
-        String responseBodyAsString = (responseEntity.getBody() != null) ? responseEntity.getBody().toString() : "null";
-        log.debug("Получен список запросов по id={}, список={}", ownerId, responseBodyAsString);
+        log.debug("Получен список запросов по id={}, статус {}", ownerId, responseEntity.getStatusCode());
         return responseEntity;
     }
 
@@ -83,8 +83,8 @@ public class ItemRequestController {
             throw new IllegalStateException("Размер списка не может быть меньше 1");
         }
         ResponseEntity<Object> responseEntity = itemRequestClient.getAllItemRequestList(userId, from, size);
-        String responseBodyAsString = (responseEntity.getBody() != null) ? responseEntity.getBody().toString() : "null";
-        log.debug("Получен список всех запросов с from={}, size={}, список={}", from, size, responseBodyAsString);
+        log.debug("Получен список всех запросов с from={}, size={}, статус {}", from, size,
+                responseEntity.getStatusCode());
         return responseEntity;
     }
 
@@ -102,8 +102,7 @@ public class ItemRequestController {
             @PathVariable @NotNull(message = "Не указан id запроса") Long requestId
     ) {
         ResponseEntity<Object> responseEntity = itemRequestClient.getRequestByItemRequestId(userId, requestId);
-        String responseBodyAsString = (responseEntity.getBody() != null) ? responseEntity.getBody().toString() : "null";
-        log.debug("Найден запрос с id={}, запрос={}", userId, responseBodyAsString);
+        log.debug("Найден запрос с id={}, статус {}", requestId, responseEntity.getStatusCode());
         return responseEntity;
     }
 }
@@ -0,0 +1,78 @@
+package ru.practicum.shareit.request.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.request.client.ReactiveItemRequestClient;
+import ru.practicum.shareit.request.dto.CreatedItemRequestDto;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+
+/**
+ * Реактивный аналог ItemRequestController. Тело ответа не разбирается, поэтому в лог попадают только параметры
+ */
+
+@Slf4j
+@RestController
+@RequestMapping(path = "/requests")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveItemRequestController {
+
+    private final ReactiveItemRequestClient itemRequestClient;
+
+    @PostMapping
+    Mono<ResponseEntity<Flux<DataBuffer>>> addItemRequest(
+            @RequestHeader("X-Sharer-User-Id") @NotNull(message = "Не указан id пользователя") Long userId,
+            @Valid @RequestBody CreatedItemRequestDto createdItemRequestDto
+    ) {
+        log.debug("Добавлен новый запрос {} от пользователя {}", createdItemRequestDto, userId);
+        return itemRequestClient.addItemRequest(userId, createdItemRequestDto);
+    }
+
+    @GetMapping
+    Mono<ResponseEntity<Flux<DataBuffer>>> getItemRequestListByUserId(
+            @RequestHeader("X-Sharer-User-Id") @NotNull(message = "Не указан id пользователя") Long ownerId
+    ) {
+        log.debug("Получен список запросов по id={}", ownerId);
+        return itemRequestClient.getItemRequestListByUserId(ownerId);
+    }
+
+    @GetMapping("/all")
+    Mono<ResponseEntity<Flux<DataBuffer>>> getAllItemRequestList(
+            @RequestHeader("X-Sharer-User-Id") @NotNull(message = "Не указан id пользователя") Long userId,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long size
+    ) {
+        if (from != null && from < 0) {
+            throw new IllegalStateException("Индекс запроса не может быть меньше нуля");
+        }
+        if (size != null && size < 1) {
+            throw new IllegalStateException("Размер списка не может быть меньше 1");
+        }
+        log.debug("Получен список всех запросов с from={}, size={}", from, size);
+        return itemRequestClient.getAllItemRequestList(userId, from, size);
+    }
+
+    @GetMapping("/{requestId}")
+    Mono<ResponseEntity<Flux<DataBuffer>>> getRequestByItemRequestId(
+            @RequestHeader("X-Sharer-User-Id") @NotNull(message = "Не указан id пользователя") Long userId,
+            @PathVariable @NotNull(message = "Не указан id запроса") Long requestId
+    ) {
+        log.debug("Найден запрос с id={}", requestId);
+        return itemRequestClient.getRequestByItemRequestId(userId, requestId);
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.resilience;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Предел одновременных вызовов сервера одного клиента: медленные ответы на запросы к одному ресурсу
+ * занимают только его пул, а не все потоки gateway
+ */
+
+class Bulkhead {
+
+    private final int maxConcurrentCalls;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+
+    Bulkhead(ResilienceProperties.Pool pool) {
+        this.maxConcurrentCalls = pool.getMaxConcurrentCalls();
+        this.maxWaitNanos = pool.getMaxWait().toNanos();
+        this.permits = new Semaphore(maxConcurrentCalls);
+    }
+
+    boolean tryAcquire() {
+        if (maxWaitNanos <= 0) {
+            return permits.tryAcquire();
+        }
+        try {
+            return permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    void release() {
+        permits.release();
+    }
+
+    int activeCalls() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+}
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.resilience;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker по скользящему окну последних вызовов. CLOSED: вызовы идут на сервер, при доле неудач
+ * не меньше порога цепь размыкается. OPEN: вызовы отклоняются без обращения к серверу до истечения
+ * open-duration. HALF_OPEN: пропускается half-open-calls пробных вызовов; все успешны - цепь замыкается,
+ * любая неудача - снова OPEN
+ */
+
+class CircuitBreaker {
+
+    enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoTime;
+
+    private final boolean[] window;
+    private int next;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    CircuitBreaker(ResilienceProperties.Breaker breaker, LongSupplier nanoTime) {
+        this.failureRateThreshold = breaker.getFailureRateThreshold();
+        this.minimumCalls = Math.min(breaker.getMinimumCalls(), breaker.getSlidingWindowSize());
+        this.openNanos = breaker.getOpenDuration().toNanos();
+        this.halfOpenCalls = breaker.getHalfOpenCalls();
+        this.nanoTime = nanoTime;
+        this.window = new boolean[breaker.getSlidingWindowSize()];
+    }
+
+    /**
+     * Разрешение на вызов сервера; после разрешенного вызова должен быть вызван onResult или releasePermission
+     */
+
+    synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (nanoTime.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermits = halfOpenCalls;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits == 0) {
+                return false;
+            }
+            halfOpenPermits--;
+        }
+        return true;
+    }
+
+    /**
+     * Разрешение не использовано: вызов не состоялся по другой причине
+     */
+
+    synchronized void releasePermission() {
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    synchronized void onResult(boolean failed) {
+        switch (state) {
+            case HALF_OPEN:
+                if (failed) {
+                    open();
+                } else if (++halfOpenSuccesses == halfOpenCalls) {
+                    close();
+                }
+                break;
+            case CLOSED:
+                record(failed);
+                if (recorded >= minimumCalls && failures * 100 >= failureRateThreshold * recorded) {
+                    open();
+                }
+                break;
+            default:
+                // вызов начался до размыкания цепи
+                break;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    /**
+     * Сколько еще цепь будет отклонять вызовы; 0, если не разомкнута
+     */
+
+    synchronized long remainingOpenNanos() {
+        return state == State.OPEN ? Math.max(openNanos - (nanoTime.getAsLong() - openedAt), 0) : 0;
+    }
+
+    private void record(boolean failed) {
+        if (recorded == window.length) {
+            if (window[next]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failed;
+        if (failed) {
+            failures++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoTime.getAsLong();
+        resetWindow();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        resetWindow();
+    }
+
+    private void resetWindow() {
+        next = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,18 @@
+package ru.practicum.shareit.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties(ResilienceProperties.class)
+public class ResilienceConfig {
+
+    @Bean
+    public ServerCallGuards serverCallGuards(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        return new ServerCallGuards(properties, meterRegistry);
+    }
+}
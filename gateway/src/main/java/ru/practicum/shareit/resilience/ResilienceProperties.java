@@ -0,0 +1,82 @@
+package ru.practicum.shareit.resilience;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки защиты вызовов сервера (ServerCallGuard): пул одновременных вызовов (bulkhead) для каждого клиента
+ * и circuit breaker
+ */
+
+@Data
+@ConfigurationProperties(prefix = "shareit-server.resilience")
+public class ResilienceProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Пул клиента, для которого нет отдельных настроек в pools
+     */
+
+    private Pool pool = new Pool();
+
+    /**
+     * Пулы по имени клиента: bookings, items, users, requests
+     */
+
+    private Map<String, Pool> pools = new HashMap<>();
+
+    private Breaker breaker = new Breaker();
+
+    public Pool poolOf(String client) {
+        return pools.getOrDefault(client, pool);
+    }
+
+    @Data
+    public static class Pool {
+
+        private int maxConcurrentCalls = 50;
+
+        /**
+         * Сколько вызов ждет места в занятом пуле. 0 - отказ сразу
+         */
+
+        private Duration maxWait = Duration.ZERO;
+    }
+
+    @Data
+    public static class Breaker {
+
+        /**
+         * Доля неудачных вызовов среди последних sliding-window-size, при которой цепь размыкается
+         */
+
+        private int failureRateThreshold = 50;
+
+        private int slidingWindowSize = 20;
+
+        /**
+         * Меньше вызовов в окне - доля неудач не оценивается
+         */
+
+        private int minimumCalls = 10;
+
+        /**
+         * Вызов дольше считается неудачным, даже если сервер ответил успешно
+         */
+
+        private Duration slowCallDuration = Duration.ofSeconds(5);
+
+        /**
+         * Сколько разомкнутая цепь отклоняет вызовы, прежде чем пропустить пробные
+         */
+
+        private Duration openDuration = Duration.ofSeconds(10);
+
+        private int halfOpenCalls = 3;
+    }
+}
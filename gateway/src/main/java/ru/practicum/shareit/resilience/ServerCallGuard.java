@@ -0,0 +1,125 @@
+package ru.practicum.shareit.resilience;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+import ru.practicum.shareit.exceptions.ServerUnavailableException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Защита вызовов сервера одного клиента: circuit breaker и bulkhead. Неудачный вызов - ответ 5xx, ошибка
+ * соединения или таймаут, а также ответ дольше slow-call-duration. Отклоненный или не получивший ответа вызов
+ * завершается ServerUnavailableException (503 с Retry-After), поток запроса не ждет сервер
+ */
+
+public class ServerCallGuard {
+
+    public static final String CALLS_METRIC = "shareit.gateway.server-calls";
+    public static final String REJECTED_METRIC = "shareit.gateway.server-calls.rejected";
+    public static final String BULKHEAD_METRIC = "shareit.gateway.bulkhead.active";
+    public static final String STATE_METRIC = "shareit.gateway.circuit-breaker.state";
+
+    public static final String CIRCUIT_OPEN_MESSAGE = "Сервер временно недоступен, повторите позже";
+    public static final String BULKHEAD_FULL_MESSAGE = "Сервер перегружен, повторите позже";
+    public static final String NO_RESPONSE_MESSAGE = "Сервер не ответил: ";
+
+    private final String client;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final long slowCallNanos;
+    private final LongSupplier nanoTime;
+    private final Counter successful;
+    private final Counter failed;
+    private final Counter bulkheadRejected;
+    private final Counter circuitRejected;
+
+    ServerCallGuard(String client, ResilienceProperties properties, MeterRegistry meterRegistry,
+                    LongSupplier nanoTime) {
+        this.client = client;
+        this.bulkhead = new Bulkhead(properties.poolOf(client));
+        this.circuitBreaker = new CircuitBreaker(properties.getBreaker(), nanoTime);
+        this.slowCallNanos = properties.getBreaker().getSlowCallDuration().toNanos();
+        this.nanoTime = nanoTime;
+        this.successful = callCounter(meterRegistry, "success", "Успешные вызовы сервера");
+        this.failed = callCounter(meterRegistry, "failure", "Неудачные и медленные вызовы сервера");
+        this.bulkheadRejected = rejectedCounter(meterRegistry, "bulkhead", "Вызовы, отклоненные занятым пулом клиента");
+        this.circuitRejected = rejectedCounter(meterRegistry, "circuit-open", "Вызовы, отклоненные разомкнутой цепью");
+        Gauge.builder(BULKHEAD_METRIC, bulkhead, Bulkhead::activeCalls)
+                .description("Одновременные вызовы сервера клиента")
+                .tag("client", client)
+                .register(meterRegistry);
+        Gauge.builder(STATE_METRIC, circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("Состояние circuit breaker: 0 - замкнута, 1 - пробные вызовы, 2 - разомкнута")
+                .tag("client", client)
+                .register(meterRegistry);
+    }
+
+    public ResponseEntity<Object> call(Supplier<ResponseEntity<Object>> call) {
+        return call(call, ResponseEntity::getStatusCodeValue);
+    }
+
+    /**
+     * Вызов с ответом любого типа; statusCode - код ответа сервера, 5xx считается неудачей
+     */
+
+    public <T> T call(Supplier<T> call, ToIntFunction<T> statusCode) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            circuitRejected.increment();
+            throw new ServerUnavailableException(CIRCUIT_OPEN_MESSAGE,
+                    retryAfterSeconds(circuitBreaker.remainingOpenNanos()));
+        }
+        if (!bulkhead.tryAcquire()) {
+            circuitBreaker.releasePermission();
+            bulkheadRejected.increment();
+            throw new ServerUnavailableException(BULKHEAD_FULL_MESSAGE, 1);
+        }
+        long start = nanoTime.getAsLong();
+        boolean failure = true;
+        try {
+            T response = call.get();
+            failure = statusCode.applyAsInt(response) >= 500;
+            return response;
+        } catch (ResourceAccessException e) {
+            throw new ServerUnavailableException(NO_RESPONSE_MESSAGE + e.getMessage(), 1);
+        } finally {
+            bulkhead.release();
+            failure |= nanoTime.getAsLong() - start >= slowCallNanos;
+            circuitBreaker.onResult(failure);
+            (failure ? failed : successful).increment();
+        }
+    }
+
+    public String getClient() {
+        return client;
+    }
+
+    CircuitBreaker.State state() {
+        return circuitBreaker.state();
+    }
+
+    private static long retryAfterSeconds(long nanos) {
+        return Math.max(TimeUnit.NANOSECONDS.toSeconds(nanos - 1) + 1, 1);
+    }
+
+    private Counter callCounter(MeterRegistry meterRegistry, String result, String description) {
+        return Counter.builder(CALLS_METRIC)
+                .description(description)
+                .tag("client", client)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter rejectedCounter(MeterRegistry meterRegistry, String reason, String description) {
+        return Counter.builder(REJECTED_METRIC)
+                .description(description)
+                .tag("client", client)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.shareit.resilience;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Отдельный ServerCallGuard на каждого клиента сервера: занятый пул или разомкнутая цепь одного клиента
+ * не мешают остальным
+ */
+
+public class ServerCallGuards {
+
+    private final ResilienceProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoTime;
+    private final ConcurrentMap<String, ServerCallGuard> guards = new ConcurrentHashMap<>();
+
+    public ServerCallGuards(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::nanoTime);
+    }
+
+    ServerCallGuards(ResilienceProperties properties, MeterRegistry meterRegistry, LongSupplier nanoTime) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Защита клиента с префиксом API (например, /bookings); null, если защита выключена
+     */
+
+    @Nullable
+    public ServerCallGuard forClient(String apiPrefix) {
+        if (!properties.isEnabled()) {
+            return null;
+        }
+        String client = apiPrefix.startsWith("/") ? apiPrefix.substring(1) : apiPrefix;
+        return guards.computeIfAbsent(client, name -> new ServerCallGuard(name, properties, meterRegistry, nanoTime));
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.shareit.user.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.client.ReactiveBaseClient;
+import ru.practicum.shareit.user.dto.CreatedUserDto;
+import ru.practicum.shareit.user.dto.UpdatedUserDto;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserClient extends ReactiveBaseClient {
+
+    private static final String API_PREFIX = "/users";
+
+    @Autowired
+    public ReactiveUserClient(@Value("${shareit-server.url}") String serverUrl, WebClient serverWebClient) {
+        super(serverWebClient.mutate().baseUrl(serverUrl + API_PREFIX).build());
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> createUser(CreatedUserDto createdUserDto) {
+        return post("", createdUserDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> updateUser(long id, UpdatedUserDto updatedUserDto) {
+        return patch("/" + id, id, updatedUserDto);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUserById(long id) {
+        return get("/" + id);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> removeUserById(long id) {
+        return delete("/" + id);
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getUserList(Long from, Long size) {
+        Map<String, Object> parameters = new HashMap<>();
+        if (from != null && size != null) {
+            parameters.put("from", from);
+            parameters.put("size", size);
+            return get("?from={from}&size={size}", null, parameters);
+        } else {
+            return get("");
+        }
+    }
+
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportUsers() {
+        return get("/export");
+    }
+}
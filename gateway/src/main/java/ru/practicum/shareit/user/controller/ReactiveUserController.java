@@ -0,0 +1,87 @@
+package ru.practicum.shareit.user.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.dto.CreatedUserDto;
+import ru.practicum.shareit.user.dto.UpdatedUserDto;
+
+import javax.validation.Valid;
+
+/**
+ * Реактивный аналог UserController с теми же проверками; ответ сервера передается клиенту потоком
+ */
+
+@Slf4j
+@RestController
+@RequestMapping(path = "/users")
+@RequiredArgsConstructor
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveUserController {
+
+    private final ReactiveUserClient userClient;
+
+    @PostMapping
+    Mono<ResponseEntity<Flux<DataBuffer>>> createUser(@Valid @RequestBody CreatedUserDto createdUserDto) {
+        log.debug("Добавлен новый пользователь {}", createdUserDto);
+        return userClient.createUser(createdUserDto);
+    }
+
+    @PatchMapping(path = "/{id}")
+    Mono<ResponseEntity<Flux<DataBuffer>>> updateUser(@PathVariable long id,
+                                                      @Valid @RequestBody UpdatedUserDto updatedUserDto) {
+        if (id <= 0) {
+            throw new NotFoundException("Id пользователя должен быть положительным числом");
+        }
+        log.debug("Обновлен пользователь {}", updatedUserDto);
+        return userClient.updateUser(id, updatedUserDto);
+    }
+
+    @GetMapping(path = "/{id}")
+    Mono<ResponseEntity<Flux<DataBuffer>>> getUserById(@PathVariable long id) {
+        if (id <= 0) {
+            throw new NotFoundException("Id пользователя должен быть положительным числом");
+        }
+        return userClient.getUserById(id);
+    }
+
+    @DeleteMapping(path = "/{id}")
+    Mono<ResponseEntity<Flux<DataBuffer>>> deleteUserById(@PathVariable long id) {
+        if (id <= 0) {
+            throw new NotFoundException("Id пользователя должен быть положительным числом");
+        }
+        log.debug("Удален пользователь с id={}", id);
+        return userClient.removeUserById(id);
+    }
+
+    @GetMapping
+    Mono<ResponseEntity<Flux<DataBuffer>>> getUserList(@RequestParam(required = false) Long from,
+                                                       @RequestParam(required = false) Long size) {
+        if (from != null && from < 0) {
+            throw new IllegalStateException("Индекс запроса не может быть меньше нуля");
+        }
+        if (size != null && size < 1) {
+            throw new IllegalStateException("Размер списка не может быть меньше 1");
+        }
+        return userClient.getUserList(from, size);
+    }
+
+    @GetMapping("/export")
+    Mono<ResponseEntity<Flux<DataBuffer>>> exportUsers() {
+        return userClient.exportUsers();
+    }
+}
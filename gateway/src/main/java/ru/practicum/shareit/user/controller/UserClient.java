@@ -2,27 +2,42 @@ package ru.practicum.shareit.user.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.ResponseEntity;
-import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.client.RequestCoalescer;
+import ru.practicum.shareit.client.ValidatorCache;
+import ru.practicum.shareit.resilience.ServerCallGuards;
 import ru.practicum.shareit.user.dto.CreatedUserDto;
 import ru.practicum.shareit.user.dto.UpdatedUserDto;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class UserClient extends BaseClient {
 
     private static final String API_PREFIX = "/users";
 
     @Autowired
-    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder) {
+    public UserClient(@Value("${shareit-server.url}") String serverUrl, RestTemplateBuilder builder,
+                      ClientHttpRequestFactory serverRequestFactory, RequestCoalescer requestCoalescer,
+                      ValidatorCache validatorCache, ServerCallGuards serverCallGuards) {
         super(
                 builder
                         .uriTemplateHandler(new DefaultUriBuilderFactory(serverUrl + API_PREFIX))
-                        .requestFactory(HttpComponentsClientHttpRequestFactory::new)
-                        .build()
+                        .requestFactory(() -> serverRequestFactory)
+                        .build(),
+                requestCoalescer,
+                validatorCache,
+                serverCallGuards.forClient(API_PREFIX)
         );
     }
 
@@ -42,8 +57,19 @@ public class UserClient extends BaseClient {
         return delete("/" + id);
     }
 
-    public ResponseEntity<Object> getUserList() {
-        return get("");
+    public ResponseEntity<Object> getUserList(Long from, Long size) {
+        Map<String, Object> parameters = new HashMap<>();
+        if (from != null && size != null) {
+            parameters.put("from", from);
+            parameters.put("size", size);
+            return get("?from={from}&size={size}", null, parameters);
+        } else {
+            return get("");
+        }
+    }
+
+    public void exportUsers(HttpServletResponse response) throws IOException {
+        stream("/export", null, response);
     }
 
 }
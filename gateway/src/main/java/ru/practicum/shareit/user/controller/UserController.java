@@ -2,6 +2,7 @@ package ru.practicum.shareit.user.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,15 +11,19 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.user.dto.CreatedUserDto;
 import ru.practicum.shareit.user.dto.UpdatedUserDto;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 
 @Slf4j
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping(path = "/users")
 @RequiredArgsConstructor
 public class UserController {
@@ -88,13 +93,33 @@ public class UserController {
     }
 
     /**
-     * Поиск пользователя по id
+     * Список пользователей, не больше одной страницы
      *
+     * @param from индекс первого элемента
+     * @param size размер страницы
      * @return List<UserDto>
      */
 
     @GetMapping
-    ResponseEntity<Object> getUserList() {
-        return userClient.getUserList();
+    ResponseEntity<Object> getUserList(@RequestParam(required = false) Long from,
+                                       @RequestParam(required = false) Long size) {
+        if (from != null && from < 0) {
+            throw new IllegalStateException("Индекс запроса не может быть меньше нуля");
+        }
+        if (size != null && size < 1) {
+            throw new IllegalStateException("Размер списка не может быть меньше 1");
+        }
+        return userClient.getUserList(from, size);
+    }
+
+    /**
+     * Выгрузка всех пользователей в NDJSON, передается клиенту потоком
+     *
+     * @param response ответ gateway
+     */
+
+    @GetMapping("/export")
+    void exportUsers(HttpServletResponse response) throws IOException {
+        userClient.exportUsers(response);
     }
 }
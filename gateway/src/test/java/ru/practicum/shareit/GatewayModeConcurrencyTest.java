@@ -0,0 +1,126 @@
+package ru.practicum.shareit;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ * Сравнение режимов gateway под нагрузкой: заглушка сервера держит каждый запрос, считается максимум
+ * одновременно дошедших до нее запросов. В блокирующем режиме он равен числу потоков Tomcat,
+ * в реактивном ограничен только пулом соединений к серверу (точное значение зависит от того, как быстро
+ * клиенты успевают открыть соединения, поэтому проверяется с запасом)
+ */
+
+class GatewayModeConcurrencyTest {
+
+    private static final int CLIENTS = 128;
+    private static final int SERVLET_THREADS = 16;
+    private static final long RESPONSE_DELAY_MILLIS = 1_500;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), CLIENTS);
+        serverExecutor = Executors.newFixedThreadPool(CLIENTS);
+        server.setExecutor(serverExecutor);
+        server.createContext("/users", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(RESPONSE_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void servletMode_whenConcurrentLoad_thenLimitedByServerThreads() throws Exception {
+        try (ConfigurableApplicationContext gateway = startGateway(WebApplicationType.SERVLET)) {
+            runConcurrently(gateway);
+        }
+
+        assertThat(maxInFlight.get(), equalTo(SERVLET_THREADS));
+    }
+
+    @Test
+    void reactiveMode_whenConcurrentLoad_thenNotLimitedByServerThreads() throws Exception {
+        try (ConfigurableApplicationContext gateway = startGateway(WebApplicationType.REACTIVE)) {
+            runConcurrently(gateway);
+        }
+
+        assertThat(maxInFlight.get(), greaterThan(SERVLET_THREADS * 4));
+    }
+
+    private ConfigurableApplicationContext startGateway(WebApplicationType type) {
+        return new SpringApplicationBuilder(ShareItGateway.class)
+                .web(type)
+                .run("--server.port=0",
+                        "--server.tomcat.threads.max=" + SERVLET_THREADS,
+                        "--shareit-server.url=http://localhost:" + server.getAddress().getPort(),
+                        "--shareit-server.http-client.max-total=" + CLIENTS,
+                        "--shareit-server.http-client.max-per-route=" + CLIENTS,
+                        "--shareit-server.coalescing.enabled=false",
+                        "--shareit.rate-limit.enabled=false",
+                        "--shareit-server.resilience.enabled=false");
+    }
+
+    private void runConcurrently(ConfigurableApplicationContext gateway) throws Exception {
+        URI uri = URI.create("http://localhost:" + gateway.getEnvironment().getProperty("local.server.port")
+                + "/users");
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            responses.add(httpClient.sendAsync(HttpRequest.newBuilder(uri).GET().build(),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            HttpResponse<String> result = response.get(60, TimeUnit.SECONDS);
+            assertThat(result.statusCode(), equalTo(200));
+            assertThat(result.body(), equalTo("[]"));
+        }
+    }
+}
@@ -21,13 +21,19 @@ import java.time.LocalDateTime;
 import java.time.Month;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -60,8 +66,8 @@ public class BookingControllerTest {
 
     CreatedBookingDto createdBookingDto = CreatedBookingDto.builder()
             .itemId(1L)
-            .start(LocalDateTime.of(2025, Month.FEBRUARY, 5, 15, 30))
-            .end(LocalDateTime.of(2026, Month.FEBRUARY, 10, 12, 0))
+            .start(LocalDateTime.now().plusDays(1).withNano(0))
+            .end(LocalDateTime.now().plusDays(5).withNano(0))
             .build();
 
     BookingDto bookingDto = BookingDto.builder()
@@ -82,6 +88,53 @@ public class BookingControllerTest {
             .status(Status.APPROVED)
             .build();
 
+    @SneakyThrows
+    @Test
+    void createBookings_whenValidRequest_thenForwardsToServer() {
+        Long creatorId = 1L;
+        List<CreatedBookingDto> createdBookingDtos = List.of(createdBookingDto, createdBookingDto);
+
+        when(bookingClient.createBookings(creatorId, createdBookingDtos))
+                .thenReturn(new ResponseEntity<>(List.of(Map.of("index", 0), Map.of("index", 1)), HttpStatus.OK));
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", creatorId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createdBookingDtos)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(2));
+    }
+
+    @SneakyThrows
+    @Test
+    void createBookings_whenEntryHasInvalidDates_thenReturnsBadRequest() {
+        CreatedBookingDto invalidDto = CreatedBookingDto.builder()
+                .itemId(1L)
+                .start(createdBookingDto.getEnd())
+                .end(createdBookingDto.getStart())
+                .build();
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(createdBookingDto, invalidDto))))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).createBookings(anyLong(), any());
+    }
+
+    @SneakyThrows
+    @Test
+    void createBookings_whenEmptyList_thenReturnsBadRequest() {
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingClient, never()).createBookings(anyLong(), any());
+    }
+
     @SneakyThrows
     @Test
     void createBooking_whenValidRequest_thenReturnStatusOkWithBookingDtoInBody() {
@@ -249,7 +302,7 @@ public class BookingControllerTest {
 
         List<BookingDto> bookingList = Arrays.asList(bookingDto1, bookingDto2);
 
-        when(bookingClient.getBookingListCreatedByUserId(eq(userId), eq(state), eq(from), eq(size)))
+        when(bookingClient.getBookingListCreatedByUserId(eq(userId), eq(state), eq(from), eq(size), isNull()))
                 .thenReturn(new ResponseEntity<>(bookingList, HttpStatus.OK));
 
         mockMvc.perform(get("/bookings")
@@ -308,7 +361,7 @@ public class BookingControllerTest {
         List<BookingDto> bookingList = Arrays.asList(bookingDto1, bookingDto2);
 
 
-        when(bookingClient.getBookingListForAllOwnerItems(eq(userId), eq(state), eq(from), eq(size)))
+        when(bookingClient.getBookingListForAllOwnerItems(eq(userId), eq(state), eq(from), eq(size), isNull()))
                 .thenReturn(new ResponseEntity<>(bookingList, HttpStatus.OK));
 
         mockMvc.perform(get("/bookings/owner")
@@ -337,4 +390,33 @@ public class BookingControllerTest {
                         .param("size", "0"))
                 .andExpect(status().isBadRequest());
     }
+
+    @SneakyThrows
+    @Test
+    void getBookingListCreatedByUserId_whenCursorGiven_thenForwardCursorToClient() {
+        Long userId = 1L;
+        String state = "ALL";
+        Long size = 10L;
+        String cursor = "MjAyNC0wMi0wNVQxNTozMF81";
+
+        when(bookingClient.getBookingListCreatedByUserId(eq(userId), eq(state), isNull(), eq(size), eq(cursor)))
+                .thenReturn(ResponseEntity.ok().header("X-Next-Cursor", "next").body(List.of()));
+
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("state", state)
+                        .param("cursor", cursor)
+                        .param("size", String.valueOf(size)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"));
+    }
+
+    @SneakyThrows
+    @Test
+    void getBookingListForAllOwnerItems_whenCursorWithoutSize_thenReturnBadRequest() {
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", ""))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.booking.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.practicum.shareit.booking.client.ReactiveBookingClient;
+import ru.practicum.shareit.booking.dto.CreatedBookingDto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveBookingController.class)
+public class ReactiveBookingControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveBookingClient bookingClient;
+
+    CreatedBookingDto createdBookingDto = CreatedBookingDto.builder()
+            .itemId(1L)
+            .start(LocalDateTime.now().plusDays(1).withNano(0))
+            .end(LocalDateTime.now().plusDays(5).withNano(0))
+            .build();
+
+    @Test
+    void createBooking_whenValidRequest_thenStreamsServerResponse() {
+        when(bookingClient.createBooking(eq(1L), any(CreatedBookingDto.class)))
+                .thenReturn(serverResponse(HttpStatus.OK, "{\"id\":1,\"status\":\"WAITING\"}"));
+
+        webTestClient.post().uri("/bookings")
+                .header("X-Sharer-User-Id", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createdBookingDto)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.status").isEqualTo("WAITING");
+    }
+
+    @Test
+    void createBooking_whenServerRespondsWithError_thenStatusAndBodyPassedThrough() {
+        when(bookingClient.createBooking(eq(1L), any(CreatedBookingDto.class)))
+                .thenReturn(serverResponse(HttpStatus.NOT_FOUND, "{\"error\":\"Вещь не найдена\"}"));
+
+        webTestClient.post().uri("/bookings")
+                .header("X-Sharer-User-Id", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createdBookingDto)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Вещь не найдена");
+    }
+
+    @Test
+    void createBooking_whenEndBeforeStart_thenReturnStatusBadRequest() {
+        CreatedBookingDto dto = CreatedBookingDto.builder()
+                .itemId(1L)
+                .start(createdBookingDto.getEnd())
+                .end(createdBookingDto.getStart())
+                .build();
+
+        webTestClient.post().uri("/bookings")
+                .header("X-Sharer-User-Id", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(dto)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(bookingClient, never()).createBooking(anyLong(), any());
+    }
+
+    @Test
+    void createBooking_whenUserIdHeaderMissing_thenReturnStatusBadRequest() {
+        webTestClient.post().uri("/bookings")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(createdBookingDto)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(bookingClient, never()).createBooking(anyLong(), any());
+    }
+
+    @Test
+    void createBookings_whenEmptyList_thenReturnsBadRequest() {
+        webTestClient.post().uri("/bookings/batch")
+                .header("X-Sharer-User-Id", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of())
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(bookingClient, never()).createBookings(anyLong(), any());
+    }
+
+    @Test
+    void getBookingListCreatedByUserId_whenCursorWithoutSize_thenReturnsBadRequest() {
+        webTestClient.get().uri("/bookings?cursor=abc")
+                .header("X-Sharer-User-Id", "1")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verify(bookingClient, never()).getBookingListCreatedByUserId(anyLong(), any(), any(), any(), any());
+    }
+
+    private static Mono<ResponseEntity<Flux<DataBuffer>>> serverResponse(HttpStatus status, String body) {
+        DataBuffer buffer = DefaultDataBufferFactory.sharedInstance.wrap(body.getBytes(StandardCharsets.UTF_8));
+        return Mono.just(ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(Flux.just(buffer)));
+    }
+}
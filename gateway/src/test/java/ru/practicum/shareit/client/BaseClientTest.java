@@ -0,0 +1,168 @@
+package ru.practicum.shareit.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.header;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Ответ сервера передается клиенту байтами без разбора в Object и повторной сериализации.
+ * Замер аллокаций заменяет JMH-бенчмарк: сравниваются байты, выделенные потоком на один проксируемый
+ * вызов /bookings со списком из 1000 броней (~270 КБ), при прежнем разборе в Object с повторной сериализацией
+ * и при передаче байтов
+ */
+
+class BaseClientTest {
+
+    private static final String SERVER_URL = "http://shareit-server/bookings";
+    private static final int BOOKINGS = 1000;
+    private static final int WARMUP_CALLS = 50;
+    private static final int MEASURED_CALLS = 100;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private RestTemplate rest;
+    private MockRestServiceServer server;
+    private BaseClient client;
+
+    @BeforeEach
+    void setUp() {
+        rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory(SERVER_URL));
+        server = MockRestServiceServer.bindTo(rest).build();
+        client = new BaseClient(rest);
+    }
+
+    @Test
+    void get_whenServerRespondsOk_thenBodyAndHeadersPassedThroughAsBytes() {
+        String body = "[{\"id\":1}]";
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Next-Cursor", "abc");
+        server.expect(requestTo(SERVER_URL))
+                .andExpect(header("X-Sharer-User-Id", "1"))
+                .andRespond(withSuccess(body, MediaType.APPLICATION_JSON).headers(headers));
+
+        ResponseEntity<Object> response = client.get("", 1L);
+
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(response.getBody(), instanceOf(ServerResponseBody.class));
+        assertThat(response.getBody().toString(), equalTo(body));
+        assertThat(response.getHeaders().getContentType(), equalTo(MediaType.APPLICATION_JSON));
+        assertThat(response.getHeaders().getFirst("X-Next-Cursor"), equalTo("abc"));
+    }
+
+    @Test
+    void get_whenServerRespondsWithError_thenStatusBodyAndHeadersPassedThrough() {
+        byte[] body = "{\"error\":\"Бронь не найдена\"}".getBytes(StandardCharsets.UTF_8);
+        server.expect(requestTo(SERVER_URL + "/99"))
+                .andRespond(withStatus(HttpStatus.NOT_FOUND)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(body));
+
+        ResponseEntity<Object> response = client.get("/99", 1L);
+
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.NOT_FOUND));
+        assertThat(response.getBody(), equalTo(body));
+        assertThat(response.getHeaders().getContentType(), equalTo(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void get_whenServerRespondsWithTransferEncoding_thenHopByHopHeadersDropped() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.TRANSFER_ENCODING, "chunked");
+        headers.set(HttpHeaders.CONNECTION, "keep-alive");
+        server.expect(requestTo(SERVER_URL))
+                .andRespond(withSuccess("[]", MediaType.APPLICATION_JSON).headers(headers));
+
+        ResponseEntity<Object> response = client.get("", 1L);
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.TRANSFER_ENCODING), nullValue());
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONNECTION), nullValue());
+    }
+
+    @Test
+    void get_whenThousandBookings_thenPassthroughAllocatesLessThanObjectRoundTrip() throws Exception {
+        byte[] bookings = objectMapper.writeValueAsBytes(bookingList());
+        server.expect(ExpectedCount.manyTimes(), requestTo(SERVER_URL))
+                .andRespond(withSuccess(bookings, MediaType.APPLICATION_JSON));
+        HttpEntity<Void> request = new HttpEntity<>(null);
+
+        long objectRoundTrip = allocatedPerCall(() -> {
+            Object body = rest.exchange("", HttpMethod.GET, request, Object.class).getBody();
+            objectMapper.writeValueAsBytes(body);
+        });
+        long passthrough = allocatedPerCall(() -> client.get("", 1L));
+
+        assertThat(passthrough * 2, lessThan(objectRoundTrip));
+    }
+
+    private long allocatedPerCall(ProxiedCall call) throws Exception {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            call.run();
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            call.run();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / MEASURED_CALLS;
+    }
+
+    private static List<Map<String, Object>> bookingList() {
+        List<Map<String, Object>> bookings = new ArrayList<>();
+        for (long id = 1; id <= BOOKINGS; id++) {
+            Map<String, Object> booker = new LinkedHashMap<>();
+            booker.put("id", id);
+            booker.put("name", "user" + id);
+            booker.put("email", "user" + id + "@user.com");
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", id);
+            item.put("name", "Дрель");
+            item.put("description", "Электрическая дрель");
+            item.put("available", true);
+            item.put("ownerId", 1L);
+            Map<String, Object> booking = new LinkedHashMap<>();
+            booking.put("id", id);
+            booking.put("start", "2024-02-05T15:30:00");
+            booking.put("end", "2024-02-10T12:00:00");
+            booking.put("status", "APPROVED");
+            booking.put("booker", booker);
+            booking.put("item", item);
+            bookings.add(booking);
+        }
+        return bookings;
+    }
+
+    @FunctionalInterface
+    private interface ProxiedCall {
+        void run() throws Exception;
+    }
+}
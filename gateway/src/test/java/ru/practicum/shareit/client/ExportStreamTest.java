@@ -0,0 +1,161 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Потоковая выгрузка через BaseClient: заглушка сервера отдает NDJSON по частям и держит ответ
+ * незавершенным, первая строка должна дойти до ответа gateway раньше, чем сервер закончит выгрузку
+ */
+
+class ExportStreamTest {
+
+    private static final String FIRST_ROW = "{\"id\":1,\"name\":\"user1\"}\n";
+    private static final String SECOND_ROW = "{\"id\":2,\"name\":\"user2\"}\n";
+
+    private final CountDownLatch finishExport = new CountDownLatch(1);
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/users/export", this::export);
+        server.createContext("/items/export", exchange -> {
+            byte[] body = "{\"error\":\"Пользователь не найден\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, "application/json");
+            exchange.sendResponseHeaders(HttpStatus.NOT_FOUND.value(), body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/bookings/owner/export", exchange -> {
+            byte[] body = ("{\"query\":\"" + exchange.getRequestURI().getQuery() + "\",\"userId\":"
+                    + exchange.getRequestHeaders().getFirst("X-Sharer-User-Id") + "}\n")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, BaseClient.NDJSON.toString());
+            exchange.sendResponseHeaders(HttpStatus.OK.value(), body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        finishExport.countDown();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void stream_whenServerStillWriting_thenRowsPassedThroughBeforeExportEnds() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        CompletableFuture<Void> export = CompletableFuture.runAsync(() -> stream(client("/users"), 1L, response));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!response.getContentAsString().equals(FIRST_ROW) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        String beforeEnd = response.getContentAsString();
+        finishExport.countDown();
+        export.get(10, TimeUnit.SECONDS);
+
+        assertThat(beforeEnd, equalTo(FIRST_ROW));
+        assertThat(response.getStatus(), equalTo(HttpStatus.OK.value()));
+        assertThat(response.getContentType(), equalTo(BaseClient.NDJSON.toString()));
+        assertThat(response.getHeader(HttpHeaders.TRANSFER_ENCODING), nullValue());
+        assertThat(response.getContentAsString(), equalTo(FIRST_ROW + SECOND_ROW));
+    }
+
+    @Test
+    void stream_whenServerRespondsWithError_thenStatusAndBodyPassedThrough() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        stream(client("/items"), 1L, response);
+
+        assertThat(response.getStatus(), equalTo(HttpStatus.NOT_FOUND.value()));
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8),
+                equalTo("{\"error\":\"Пользователь не найден\"}"));
+    }
+
+    @Test
+    void stream_whenParametersGiven_thenExpandedIntoServerUri() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        client("/bookings").exportOwnerBookings(2L, "WAITING", response);
+
+        assertThat(response.getContentAsString(), equalTo("{\"query\":\"state=WAITING\",\"userId\":2}\n"));
+    }
+
+    private void export(HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, BaseClient.NDJSON.toString());
+        exchange.sendResponseHeaders(HttpStatus.OK.value(), 0);
+        OutputStream body = exchange.getResponseBody();
+        body.write(FIRST_ROW.getBytes(StandardCharsets.UTF_8));
+        body.flush();
+        try {
+            finishExport.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        body.write(SECOND_ROW.getBytes(StandardCharsets.UTF_8));
+        exchange.close();
+    }
+
+    private TestClient client(String prefix) {
+        RestTemplate rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:"
+                + server.getAddress().getPort() + prefix));
+        return new TestClient(rest);
+    }
+
+    private static void stream(TestClient client, long userId, HttpServletResponse response) {
+        try {
+            client.export(userId, response);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class TestClient extends BaseClient {
+
+        TestClient(RestTemplate rest) {
+            super(rest, null, null);
+        }
+
+        void export(long userId, HttpServletResponse response) throws IOException {
+            stream("/export", userId, response);
+        }
+
+        void exportOwnerBookings(long userId, String state, HttpServletResponse response) throws IOException {
+            stream("/owner/export?state={state}", userId, Map.of("state", state), response);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Объединение одинаковых GET-запросов на заглушке сервера, которая держит каждый запрос и считает вызовы
+ */
+
+class RequestCoalescerTest {
+
+    private static final int CLIENTS = 16;
+    private static final long RESPONSE_DELAY_MILLIS = 300;
+
+    private final AtomicInteger serverCalls = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), CLIENTS);
+        serverExecutor = Executors.newFixedThreadPool(CLIENTS);
+        server.setExecutor(serverExecutor);
+        server.createContext("/items", exchange -> {
+            int call = serverCalls.incrementAndGet();
+            try {
+                Thread.sleep(RESPONSE_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = ("{\"call\":" + call + "}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void get_whenIdenticalConcurrentRequests_thenOneServerCall() throws Exception {
+        TestClient client = client(Duration.ZERO);
+
+        List<String> bodies = runConcurrently(i -> client.getItem(1L, 1L));
+
+        assertThat(serverCalls.get(), equalTo(1));
+        bodies.forEach(body -> assertThat(body, equalTo("{\"call\":1}")));
+        assertThat(count("upstream"), equalTo(1.0));
+        assertThat(count("collapsed"), equalTo((double) CLIENTS - 1));
+    }
+
+    @Test
+    void get_whenDifferentUsersOrParameters_thenNotCollapsed() throws Exception {
+        TestClient client = client(Duration.ZERO);
+
+        runConcurrently(i -> i % 2 == 0 ? client.getItem(i, 1L) : client.search(1L, "text" + i));
+
+        assertThat(serverCalls.get(), equalTo(CLIENTS));
+        assertThat(count("collapsed"), equalTo(0.0));
+    }
+
+    @Test
+    void get_whenSequentialRequestsWithoutWindow_thenEachCallsServer() {
+        TestClient client = client(Duration.ZERO);
+
+        client.getItem(1L, 1L);
+        client.getItem(1L, 1L);
+
+        assertThat(serverCalls.get(), equalTo(2));
+    }
+
+    @Test
+    void get_whenSequentialRequestsWithinWindow_thenResponseShared() {
+        TestClient client = client(Duration.ofSeconds(30));
+
+        ResponseEntity<Object> first = client.getItem(1L, 1L);
+        ResponseEntity<Object> second = client.getItem(1L, 1L);
+
+        assertThat(serverCalls.get(), equalTo(1));
+        assertThat(second.getBody().toString(), equalTo(first.getBody().toString()));
+        assertThat(count("collapsed"), equalTo(1.0));
+    }
+
+    @Test
+    void get_whenCoalescingDisabled_thenEachRequestCallsServer() throws Exception {
+        RequestCoalescingProperties properties = new RequestCoalescingProperties();
+        properties.setEnabled(false);
+        TestClient client = new TestClient(rest(), new RequestCoalescer(properties, meterRegistry));
+
+        runConcurrently(i -> client.getItem(1L, 1L));
+
+        assertThat(serverCalls.get(), equalTo(CLIENTS));
+    }
+
+    private TestClient client(Duration window) {
+        RequestCoalescingProperties properties = new RequestCoalescingProperties();
+        properties.setWindow(window);
+        return new TestClient(rest(), new RequestCoalescer(properties, meterRegistry));
+    }
+
+    private RestTemplate rest() {
+        RestTemplate rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:"
+                + server.getAddress().getPort() + "/items"));
+        return rest;
+    }
+
+    private double count(String result) {
+        return meterRegistry.get(RequestCoalescer.METRIC).tag("result", result).counter().count();
+    }
+
+    private List<String> runConcurrently(Call call) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<String>> responses = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                long index = i;
+                responses.add(clients.submit(() -> {
+                    startGate.await();
+                    return call.get(index).getBody().toString();
+                }));
+            }
+            startGate.countDown();
+            List<String> bodies = new ArrayList<>();
+            for (Future<String> response : responses) {
+                bodies.add(response.get(30, TimeUnit.SECONDS));
+            }
+            return bodies;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        ResponseEntity<Object> get(long index);
+    }
+
+    private static class TestClient extends BaseClient {
+
+        TestClient(RestTemplate rest, RequestCoalescer coalescer) {
+            super(rest, coalescer);
+        }
+
+        ResponseEntity<Object> getItem(long userId, long itemId) {
+            return get("/" + itemId, userId);
+        }
+
+        ResponseEntity<Object> search(long userId, String text) {
+            return get("/search?text={text}", userId, Map.of("text", text));
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Нагрузка на заглушку сервера, которая держит каждый запрос: число одновременно обслуживаемых запросов
+ * упирается в лимит пула на маршрут. Фабрика по умолчанию (HttpClients.createSystem) дает 5 соединений
+ */
+
+class ServerHttpClientConfigTest {
+
+    private static final int CLIENTS = 32;
+    private static final long RESPONSE_DELAY_MILLIS = 200;
+
+    private final ServerHttpClientConfig config = new ServerHttpClientConfig();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), CLIENTS);
+        serverExecutor = Executors.newFixedThreadPool(CLIENTS);
+        server.setExecutor(serverExecutor);
+        server.createContext("/users", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(RESPONSE_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void defaultRequestFactory_whenConcurrentLoad_thenFiveConnectionsPerRoute() throws Exception {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
+        try {
+            runConcurrently(new RestTemplate(requestFactory));
+        } finally {
+            requestFactory.destroy();
+        }
+
+        assertThat(maxInFlight.get(), equalTo(5));
+    }
+
+    @Test
+    void sharedPool_whenConcurrentLoad_thenLimitedByConfiguredPerRoute() throws Exception {
+        ServerHttpClientProperties properties = new ServerHttpClientProperties();
+        properties.setMaxPerRoute(16);
+        PoolingHttpClientConnectionManager connectionManager = config.serverConnectionManager(properties);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        config.serverConnectionPoolMetrics(connectionManager).bindTo(meterRegistry);
+        try (CloseableHttpClient httpClient = config.serverHttpClient(connectionManager, properties)) {
+            runConcurrently(new RestTemplate(config.serverRequestFactory(httpClient)));
+
+            assertThat(maxInFlight.get(), equalTo(16));
+            assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                    .tag("httpclient", ServerHttpClientConfig.POOL_NAME)
+                    .tag("state", "available")
+                    .gauge().value(), equalTo(16.0));
+        }
+    }
+
+    private void runConcurrently(RestTemplate restTemplate) throws Exception {
+        String url = "http://localhost:" + server.getAddress().getPort() + "/users";
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<String>> responses = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                responses.add(clients.submit(() -> {
+                    startGate.await();
+                    return restTemplate.getForObject(url, String.class);
+                }));
+            }
+            startGate.countDown();
+            for (Future<String> response : responses) {
+                assertThat(response.get(30, TimeUnit.SECONDS), equalTo("[]"));
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package ru.practicum.shareit.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Перепроверка сохраненных ответов по ETag на заглушке сервера, которая отвечает 304 на совпавший
+ * If-None-Match и передает тело со скоростью медленного канала. Replay-бенчмарк проигрывает один журнал
+ * запросов без кэша валидаторов и с ним и сравнивает байты, полученные от сервера, и общее время
+ */
+
+class ValidatorCacheTest {
+
+    private static final int BODY_SIZE = 32 * 1024;
+    private static final long BYTES_PER_MILLI = 4 * 1024;
+    private static final int ITEMS = 10;
+    private static final int USERS = 3;
+    private static final int REPLAY_ROUNDS = 5;
+
+    private final Map<Long, Long> versions = new ConcurrentHashMap<>();
+    private final List<String> ifNoneMatch = new ArrayList<>();
+    private final AtomicLong sentBytes = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        serverExecutor = Executors.newSingleThreadExecutor();
+        server.setExecutor(serverExecutor);
+        server.createContext("/items", this::handle);
+        server.start();
+        for (long itemId = 1; itemId <= ITEMS; itemId++) {
+            versions.put(itemId, 0L);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void get_whenRepeated_thenRevalidatedAndCachedBodyReturned() {
+        TestClient client = client(true);
+
+        ResponseEntity<Object> first = client.getItem(1L, 1L);
+        ResponseEntity<Object> second = client.getItem(1L, 1L);
+
+        assertThat(ifNoneMatch, contains(null, "\"item-1-0\""));
+        assertThat(second.getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(second.getBody(), instanceOf(ServerResponseBody.class));
+        assertThat(second.getBody().toString(), equalTo(first.getBody().toString()));
+        assertThat(second.getHeaders().getETag(), equalTo("\"item-1-0\""));
+        assertThat(sentBytes.get(), equalTo((long) BODY_SIZE));
+        assertThat(count("not-modified"), equalTo(1.0));
+        assertThat(count("downloaded"), equalTo(1.0));
+    }
+
+    @Test
+    void get_whenVersionChanged_thenNewBodyDownloadedAndCached() {
+        TestClient client = client(true);
+        client.getItem(1L, 1L);
+        versions.put(1L, 1L);
+
+        ResponseEntity<Object> changed = client.getItem(1L, 1L);
+        client.getItem(1L, 1L);
+
+        assertThat(changed.getHeaders().getETag(), equalTo("\"item-1-1\""));
+        assertThat(changed.getBody().toString(), equalTo(body(1L, 1L)));
+        assertThat(ifNoneMatch, contains(null, "\"item-1-0\"", "\"item-1-1\""));
+    }
+
+    @Test
+    void get_whenDifferentUsers_thenValidatorsNotShared() {
+        TestClient client = client(true);
+
+        client.getItem(1L, 1L);
+        client.getItem(2L, 1L);
+
+        assertThat(ifNoneMatch, contains(nullValue(), nullValue()));
+    }
+
+    @Test
+    void get_whenItemNotFound_thenCachedResponseDropped() {
+        TestClient client = client(true);
+        client.getItem(1L, 1L);
+        versions.remove(1L);
+
+        ResponseEntity<Object> notFound = client.getItem(1L, 1L);
+        versions.put(1L, 0L);
+        client.getItem(1L, 1L);
+
+        assertThat(notFound.getStatusCode(), equalTo(HttpStatus.NOT_FOUND));
+        assertThat(ifNoneMatch, contains(null, "\"item-1-0\"", null));
+    }
+
+    @Test
+    void replay_whenValidatorCacheEnabled_thenLessBytesAndTimeThanWithout() {
+        long startWithout = System.nanoTime();
+        replay(client(false));
+        long timeWithout = System.nanoTime() - startWithout;
+        long bytesWithout = sentBytes.getAndSet(0);
+
+        long startWith = System.nanoTime();
+        replay(client(true));
+        long timeWith = System.nanoTime() - startWith;
+        long bytesWith = sentBytes.get();
+
+        assertThat(bytesWithout, equalTo((long) BODY_SIZE * ITEMS * USERS * REPLAY_ROUNDS));
+        assertThat(bytesWith, equalTo((long) BODY_SIZE * ITEMS * USERS));
+        assertThat(timeWith * 2, lessThan(timeWithout));
+    }
+
+    /**
+     * Каждый пользователь несколько раз просматривает одни и те же неизменные вещи
+     */
+
+    private void replay(TestClient client) {
+        for (int round = 0; round < REPLAY_ROUNDS; round++) {
+            for (long userId = 1; userId <= USERS; userId++) {
+                for (long itemId = 1; itemId <= ITEMS; itemId++) {
+                    client.getItem(userId, itemId);
+                }
+            }
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long itemId = Long.parseLong(exchange.getRequestURI().getPath().substring("/items/".length()));
+        String requestTag = exchange.getRequestHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        synchronized (ifNoneMatch) {
+            ifNoneMatch.add(requestTag);
+        }
+        Long version = versions.get(itemId);
+        if (version == null) {
+            exchange.sendResponseHeaders(HttpStatus.NOT_FOUND.value(), -1);
+            exchange.close();
+            return;
+        }
+        String eTag = "\"item-" + itemId + "-" + version + "\"";
+        exchange.getResponseHeaders().add(HttpHeaders.ETAG, eTag);
+        if (eTag.equals(requestTag)) {
+            exchange.sendResponseHeaders(HttpStatus.NOT_MODIFIED.value(), -1);
+            exchange.close();
+            return;
+        }
+        byte[] body = body(itemId, version).getBytes(StandardCharsets.UTF_8);
+        try {
+            Thread.sleep(body.length / BYTES_PER_MILLI);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        sentBytes.addAndGet(body.length);
+        exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, "application/json");
+        exchange.sendResponseHeaders(HttpStatus.OK.value(), body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private static String body(long itemId, long version) {
+        StringBuilder description = new StringBuilder();
+        String prefix = "{\"id\":" + itemId + ",\"version\":" + version + ",\"description\":\"";
+        while (description.length() < BODY_SIZE - prefix.length() - 2) {
+            description.append('x');
+        }
+        return prefix + description + "\"}";
+    }
+
+    private TestClient client(boolean validatorCacheEnabled) {
+        RestTemplate rest = new RestTemplate();
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:"
+                + server.getAddress().getPort() + "/items"));
+        ValidatorCacheProperties properties = new ValidatorCacheProperties();
+        properties.setEnabled(validatorCacheEnabled);
+        return new TestClient(rest, new ValidatorCache(properties, meterRegistry));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get(ValidatorCache.METRIC).tag("result", result).counter().count();
+    }
+
+    private static class TestClient extends BaseClient {
+
+        TestClient(RestTemplate rest, ValidatorCache validatorCache) {
+            super(rest, null, validatorCache);
+        }
+
+        ResponseEntity<Object> getItem(long userId, long itemId) {
+            return get("/" + itemId, userId);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package ru.practicum.shareit.execution;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIf;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.NestedExceptionUtils;
+import ru.practicum.shareit.ShareItGateway;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Режимы выполнения platform и virtual под нагрузкой 10 000 одновременных соединений: заглушка сервера держит
+ * каждый запрос, считается максимум одновременно дошедших до нее запросов. Нагрузочные тесты выполняются только
+ * на Java 21+ (и требуют ulimit -n больше 20 000), на более старой JVM проверяется отказ запуска режима virtual
+ */
+
+class VirtualThreadModeTest {
+
+    private static final int CONNECTIONS = 10_000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final long RESPONSE_DELAY_MILLIS = 2_000;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+
+    static boolean virtualThreadsAvailable() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    @BeforeEach
+    void setUp() throws IOException {
+        if (!virtualThreadsAvailable()) {
+            return;
+        }
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), CONNECTIONS);
+        serverExecutor = VirtualThreadConfig.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(serverExecutor);
+        server.createContext("/users", exchange -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(RESPONSE_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+            serverExecutor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisabledIf("virtualThreadsAvailable")
+    void virtualMode_whenJvmWithoutVirtualThreads_thenStartupFails() {
+        RuntimeException e = assertThrows(RuntimeException.class, () ->
+                new SpringApplicationBuilder(ShareItGateway.class)
+                        .run("--server.port=0", "--shareit.execution.mode=virtual")
+                        .close());
+
+        assertThat(NestedExceptionUtils.getMostSpecificCause(e), instanceOf(IllegalStateException.class));
+    }
+
+    @Test
+    @EnabledIf("virtualThreadsAvailable")
+    void platformMode_whenTenThousandConnections_thenLimitedByTomcatThreads() throws Exception {
+        try (ConfigurableApplicationContext gateway = startGateway("platform")) {
+            runConcurrently(gateway);
+        }
+
+        assertThat(maxInFlight.get(), lessThanOrEqualTo(PLATFORM_THREADS));
+    }
+
+    @Test
+    @EnabledIf("virtualThreadsAvailable")
+    void virtualMode_whenTenThousandConnections_thenNotLimitedByTomcatThreads() throws Exception {
+        try (ConfigurableApplicationContext gateway = startGateway("virtual")) {
+            runConcurrently(gateway);
+        }
+
+        assertThat(maxInFlight.get(), greaterThan(PLATFORM_THREADS * 10));
+    }
+
+    private ConfigurableApplicationContext startGateway(String executionMode) {
+        return new SpringApplicationBuilder(ShareItGateway.class)
+                .run("--server.port=0",
+                        "--shareit.execution.mode=" + executionMode,
+                        "--server.tomcat.threads.max=" + PLATFORM_THREADS,
+                        "--server.tomcat.max-connections=" + CONNECTIONS,
+                        "--server.tomcat.accept-count=" + CONNECTIONS,
+                        "--shareit-server.url=http://localhost:" + server.getAddress().getPort(),
+                        "--shareit-server.http-client.max-total=" + CONNECTIONS,
+                        "--shareit-server.http-client.max-per-route=" + CONNECTIONS,
+                        "--shareit-server.http-client.connection-request-timeout=60s",
+                        "--shareit-server.http-client.read-timeout=60s",
+                        "--shareit-server.coalescing.enabled=false",
+                        "--shareit.rate-limit.enabled=false",
+                        "--shareit-server.resilience.enabled=false");
+    }
+
+    private void runConcurrently(ConfigurableApplicationContext gateway) throws Exception {
+        URI uri = URI.create("http://localhost:" + gateway.getEnvironment().getProperty("local.server.port")
+                + "/users");
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < CONNECTIONS; i++) {
+            responses.add(httpClient.sendAsync(HttpRequest.newBuilder(uri).GET().build(),
+                    HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertThat(response.get(5, TimeUnit.MINUTES).statusCode(), equalTo(200));
+        }
+    }
+}
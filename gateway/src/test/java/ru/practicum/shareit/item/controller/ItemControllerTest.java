@@ -17,6 +17,7 @@ import ru.practicum.shareit.item.dto.CreatedItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.UpdatedItemDto;
 
+import javax.servlet.http.HttpServletResponse;
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.util.Arrays;
@@ -25,6 +26,8 @@ import java.util.List;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
@@ -338,4 +341,34 @@ public class ItemControllerTest {
                         .content(objectMapper.writeValueAsString(createdCommentDto)))
                 .andExpect(status().isNotFound());
     }
+
+    @SneakyThrows
+    @Test
+    void getItemAvailability_whenValidInput_thenStreamsServerResponse() {
+        Long userId = 1L;
+        long itemId = 1L;
+        LocalDateTime from = LocalDateTime.of(2030, Month.JANUARY, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, Month.JANUARY, 2, 0, 0);
+
+        mockMvc.perform(get("/items/{itemId}/availability", itemId)
+                        .header("X-Sharer-User-Id", userId)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-02T00:00:00"))
+                .andExpect(status().isOk());
+
+        verify(itemClient).getItemAvailability(eq(userId), eq(itemId), eq(from), eq(to),
+                any(HttpServletResponse.class));
+    }
+
+    @SneakyThrows
+    @Test
+    void getItemAvailability_whenFromNotBeforeTo_thenReturnsBadRequest() {
+        mockMvc.perform(get("/items/{itemId}/availability", 1L)
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("from", "2030-01-02T00:00:00")
+                        .param("to", "2030-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemClient, never()).getItemAvailability(anyLong(), anyLong(), any(), any(), any());
+    }
 }
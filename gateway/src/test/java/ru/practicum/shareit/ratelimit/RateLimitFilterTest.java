@@ -0,0 +1,80 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.client.BookingClient;
+import ru.practicum.shareit.booking.controller.BookingController;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Фильтр допуска перед контроллерами: пользователь, превысивший лимит группы, получает 429 с Retry-After,
+ * а запрос не доходит до клиента сервера
+ */
+
+@WebMvcTest(BookingController.class)
+@Import({RateLimitConfig.class, RateLimitFilterTest.MetricsConfig.class})
+@TestPropertySource(properties = {
+        "shareit.rate-limit.groups.bookings.capacity=3",
+        "shareit.rate-limit.groups.bookings.requests-per-second=0.1"
+})
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BookingClient bookingClient;
+
+    @SneakyThrows
+    @Test
+    void getBookings_whenUserExceedsGroupLimit_thenTooManyRequestsWithRetryAfter() {
+        when(bookingClient.getBookingListCreatedByUserId(anyLong(), anyString(), any(), any(), any()))
+                .thenReturn(ResponseEntity.ok(List.of()));
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/bookings").header("X-Sharer-User-Id", 1L))
+                    .andExpect(status().isOk());
+        }
+        mockMvc.perform(get("/bookings").header("X-Sharer-User-Id", 1L))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"))
+                .andExpect(jsonPath("$.error").value(RateLimiter.REJECTED_MESSAGE));
+        mockMvc.perform(get("/bookings").header("X-Sharer-User-Id", 2L))
+                .andExpect(status().isOk());
+
+        verify(bookingClient, times(4)).getBookingListCreatedByUserId(anyLong(), anyString(), any(), any(), any());
+    }
+
+    @TestConfiguration
+    static class MetricsConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package ru.practicum.shareit.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Token bucket и предел одновременных запросов на управляемых часах
+ */
+
+class RateLimiterTest {
+
+    private static final int CAPACITY = 5;
+    private static final double REQUESTS_PER_SECOND = 2;
+    private static final int THREADS = 16;
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void tryAcquire_whenBurstExceedsCapacity_thenRejectedWithRetryAfter() {
+        RateLimiter rateLimiter = rateLimiter(100);
+
+        for (int i = 0; i < CAPACITY; i++) {
+            assertThat(acquire(rateLimiter, "bookings", "1").isAdmitted(), equalTo(true));
+        }
+        RateLimiter.Admission rejected = rateLimiter.tryAcquire("bookings", "1");
+
+        assertThat(rejected.isAdmitted(), equalTo(false));
+        assertThat(rejected.getRetryAfterSeconds(), equalTo(1L));
+        assertThat(rejected("bookings", "rate"), equalTo(1.0));
+    }
+
+    @Test
+    void tryAcquire_whenTimePasses_thenTokensRefilledAtConfiguredRate() {
+        RateLimiter rateLimiter = rateLimiter(100);
+        for (int i = 0; i < CAPACITY; i++) {
+            acquire(rateLimiter, "bookings", "1");
+        }
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+        assertThat(acquire(rateLimiter, "bookings", "1").isAdmitted(), equalTo(true));
+        assertThat(rateLimiter.tryAcquire("bookings", "1").isAdmitted(), equalTo(false));
+    }
+
+    @Test
+    void tryAcquire_whenDifferentUsersOrGroups_thenSeparateBuckets() {
+        RateLimiter rateLimiter = rateLimiter(100);
+        for (int i = 0; i < CAPACITY; i++) {
+            acquire(rateLimiter, "bookings", "1");
+        }
+
+        assertThat(acquire(rateLimiter, "bookings", "2").isAdmitted(), equalTo(true));
+        assertThat(acquire(rateLimiter, "items", "1").isAdmitted(), equalTo(true));
+    }
+
+    @Test
+    void tryAcquire_whenConcurrencyLimitReached_thenRejectedUntilRelease() {
+        RateLimiter rateLimiter = rateLimiter(2);
+
+        assertThat(rateLimiter.tryAcquire("items", "1").isAdmitted(), equalTo(true));
+        assertThat(rateLimiter.tryAcquire("items", "2").isAdmitted(), equalTo(true));
+        RateLimiter.Admission rejected = rateLimiter.tryAcquire("items", "3");
+        rateLimiter.release();
+
+        assertThat(rejected.isAdmitted(), equalTo(false));
+        assertThat(rejected.getRetryAfterSeconds(), equalTo(1L));
+        assertThat(rejected("items", "concurrency"), equalTo(1.0));
+        assertThat(rateLimiter.tryAcquire("items", "3").isAdmitted(), equalTo(true));
+    }
+
+    @Test
+    void tryAcquire_whenManyThreadsShareBucket_thenExactlyCapacityAdmitted() throws Exception {
+        RateLimiter rateLimiter = rateLimiter(1000);
+        ExecutorService threads = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> admitted = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                admitted.add(threads.submit(() -> {
+                    startGate.await();
+                    int count = 0;
+                    for (int j = 0; j < 1000; j++) {
+                        if (acquire(rateLimiter, "bookings", "1").isAdmitted()) {
+                            count++;
+                        }
+                    }
+                    return count;
+                }));
+            }
+            startGate.countDown();
+            int total = 0;
+            for (Future<Integer> count : admitted) {
+                total += count.get(30, TimeUnit.SECONDS);
+            }
+
+            assertThat(total, equalTo(CAPACITY));
+            assertThat(rateLimiter.inFlight(), equalTo(0));
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void groupOf_whenPathOutsideGroups_thenNull() {
+        RateLimiter rateLimiter = rateLimiter(100);
+
+        assertThat(rateLimiter.groupOf("/bookings/owner"), equalTo("bookings"));
+        assertThat(rateLimiter.groupOf("/items"), equalTo("items"));
+        assertThat(rateLimiter.groupOf("/actuator/health"), nullValue());
+    }
+
+    @Test
+    void tryAcquire_whenDisabled_thenAlwaysAdmitted() {
+        RateLimitProperties properties = properties(1);
+        properties.setEnabled(false);
+        RateLimiter rateLimiter = new RateLimiter(properties, meterRegistry, now::get);
+
+        for (int i = 0; i < CAPACITY * 10; i++) {
+            assertThat(rateLimiter.tryAcquire("bookings", "1").isAdmitted(), equalTo(true));
+        }
+    }
+
+    private RateLimiter rateLimiter(int maxConcurrentRequests) {
+        return new RateLimiter(properties(maxConcurrentRequests), meterRegistry, now::get);
+    }
+
+    private static RateLimitProperties properties(int maxConcurrentRequests) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxConcurrentRequests(maxConcurrentRequests);
+        for (String group : List.of("users", "items", "bookings", "requests")) {
+            RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+            limit.setCapacity(CAPACITY);
+            limit.setRequestsPerSecond(REQUESTS_PER_SECOND);
+            properties.getGroups().put(group, limit);
+        }
+        return properties;
+    }
+
+    /**
+     * Допуск с немедленным завершением запроса
+     */
+
+    private static RateLimiter.Admission acquire(RateLimiter rateLimiter, String group, String key) {
+        RateLimiter.Admission admission = rateLimiter.tryAcquire(group, key);
+        if (admission.isAdmitted()) {
+            rateLimiter.release();
+        }
+        return admission;
+    }
+
+    private double rejected(String group, String reason) {
+        return meterRegistry.get(RateLimiter.METRIC).tag("group", group).tag("reason", reason).counter().count();
+    }
+}
@@ -0,0 +1,115 @@
+package ru.practicum.shareit.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Переходы circuit breaker CLOSED - OPEN - HALF_OPEN на управляемых часах
+ */
+
+class CircuitBreakerTest {
+
+    private static final long OPEN_SECONDS = 10;
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @Test
+    void onResult_whenFailureRateReachesThreshold_thenOpened() {
+        CircuitBreaker circuitBreaker = circuitBreaker();
+
+        call(circuitBreaker, false, false, false, false, true, true, true);
+        assertThat(circuitBreaker.state(), equalTo(CircuitBreaker.State.CLOSED));
+        call(circuitBreaker, true);
+
+        assertThat(circuitBreaker.state(), equalTo(CircuitBreaker.State.OPEN));
+        assertThat(circuitBreaker.tryAcquirePermission(), equalTo(false));
+        assertThat(circuitBreaker.remainingOpenNanos(), equalTo(TimeUnit.SECONDS.toNanos(OPEN_SECONDS)));
+    }
+
+    @Test
+    void onResult_whenFewerThanMinimumCalls_thenNotOpened() {
+        CircuitBreaker circuitBreaker = circuitBreaker();
+
+        call(circuitBreaker, true, true, true);
+
+        assertThat(circuitBreaker.state(), equalTo(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    void onResult_whenRecentCallsFail_thenEarlierSuccessesLeftWindow() {
+        CircuitBreaker circuitBreaker = circuitBreaker();
+        call(circuitBreaker, false, false, false, false, false, false, false, false);
+
+        call(circuitBreaker, true, true, true);
+        assertThat(circuitBreaker.state(), equalTo(CircuitBreaker.State.CLOSED));
+        call(circuitBreaker, true);
+
+        assertThat(circuitBreaker.state(), equalTo(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    void tryAcquirePermission_whenOpenDurationPassed_thenLimitedTrialCalls() {
+        CircuitBreaker circuitBreaker = openCircuitBreaker();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(OPEN_SECONDS));
+
+        assertThat(circuitBreaker.tryAcquirePermission(), equalTo(true));
+        assertThat(circuitBreaker.tryAcquirePermission(), equalTo(true));
+        assertThat(circuitBreaker.tryAcquirePermission(), equalTo(false));
+        assertThat(circuitBreaker.state(), equalTo(CircuitBreaker.State.HALF_OPEN));
+
+        circuitBreaker.releasePermission();
+        assertThat(circuitBreaker.tryAcquirePermission(), equalTo(true));
+    }
+
+    @Test
+    void onResult_whenTrialCallsSucceed_thenClosed() {
+        CircuitBreaker circuitBreaker = openCircuitBreaker();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(OPEN_SECONDS));
+
+        call(circuitBreaker, false, false);
+
+        assertThat(circuitBreaker.state(), equalTo(CircuitBreaker.State.CLOSED));
+        call(circuitBreaker, true, true, true);
+        assertThat(circuitBreaker.state(), equalTo(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    void onResult_whenTrialCallFails_thenOpenedAgain() {
+        CircuitBreaker circuitBreaker = openCircuitBreaker();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(OPEN_SECONDS));
+
+        call(circuitBreaker, false, true);
+
+        assertThat(circuitBreaker.state(), equalTo(CircuitBreaker.State.OPEN));
+        assertThat(circuitBreaker.tryAcquirePermission(), equalTo(false));
+    }
+
+    private CircuitBreaker circuitBreaker() {
+        ResilienceProperties.Breaker breaker = new ResilienceProperties.Breaker();
+        breaker.setFailureRateThreshold(50);
+        breaker.setSlidingWindowSize(8);
+        breaker.setMinimumCalls(4);
+        breaker.setOpenDuration(Duration.ofSeconds(OPEN_SECONDS));
+        breaker.setHalfOpenCalls(2);
+        return new CircuitBreaker(breaker, now::get);
+    }
+
+    private CircuitBreaker openCircuitBreaker() {
+        CircuitBreaker circuitBreaker = circuitBreaker();
+        call(circuitBreaker, true, true, true, true);
+        return circuitBreaker;
+    }
+
+    private static void call(CircuitBreaker circuitBreaker, boolean... failures) {
+        for (boolean failed : failures) {
+            assertThat(circuitBreaker.tryAcquirePermission(), equalTo(true));
+            circuitBreaker.onResult(failed);
+        }
+    }
+}
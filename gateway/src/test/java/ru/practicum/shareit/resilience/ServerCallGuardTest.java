@@ -0,0 +1,291 @@
+package ru.practicum.shareit.resilience;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.ShareItGateway;
+import ru.practicum.shareit.client.BaseClient;
+import ru.practicum.shareit.exceptions.ServerUnavailableException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Внесение отказов на заглушке сервера: задержка ответа, ответ 5xx и удержание запросов. Занятый пул одного
+ * клиента не мешает другим, медленные и неудачные вызовы размыкают цепь, после чего вызовы отклоняются
+ * без обращения к серверу, а после open-duration пробные вызовы снова замыкают цепь
+ */
+
+class ServerCallGuardTest {
+
+    private static final int BOOKINGS_POOL = 2;
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(500);
+    private static final Duration SLOW_CALL = Duration.ofMillis(200);
+    private static final Duration OPEN_DURATION = Duration.ofMillis(300);
+    private static final int WINDOW = 4;
+    private static final int HALF_OPEN_CALLS = 2;
+
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final AtomicInteger held = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private volatile long latencyMillis;
+    private volatile int status = HttpStatus.OK.value();
+    private volatile CountDownLatch hold;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ServerCallGuards guards;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 16);
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server.setExecutor(serverExecutor);
+        server.createContext("/bookings", this::handle);
+        server.createContext("/users", this::handle);
+        server.start();
+        guards = new ServerCallGuards(properties(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (hold != null) {
+            hold.countDown();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void call_whenBookingsPoolBusy_thenRejectedAndUsersUnaffected() throws Exception {
+        TestClient bookings = client("/bookings");
+        TestClient users = client("/users");
+        hold = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(BOOKINGS_POOL);
+        try {
+            Future<ResponseEntity<Object>> first = callers.submit(bookings::getAll);
+            Future<ResponseEntity<Object>> second = callers.submit(bookings::getAll);
+            awaitHeld(BOOKINGS_POOL);
+
+            ServerUnavailableException rejected = assertThrows(ServerUnavailableException.class, bookings::getAll);
+            assertThat(rejected.getMessage(), equalTo(ServerCallGuard.BULKHEAD_FULL_MESSAGE));
+            assertThat(meterRegistry.get(ServerCallGuard.BULKHEAD_METRIC).tag("client", "bookings").gauge().value(),
+                    equalTo((double) BOOKINGS_POOL));
+            hold.countDown();
+            hold = null;
+            assertThat(users.getAll().getStatusCode(), equalTo(HttpStatus.OK));
+
+            assertThat(first.get(5, TimeUnit.SECONDS).getStatusCode(), equalTo(HttpStatus.OK));
+            assertThat(second.get(5, TimeUnit.SECONDS).getStatusCode(), equalTo(HttpStatus.OK));
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertThat(hits("/bookings"), equalTo(BOOKINGS_POOL));
+        assertThat(rejected("bookings", "bulkhead"), equalTo(1.0));
+        assertThat(bookings.getAll().getStatusCode(), equalTo(HttpStatus.OK));
+    }
+
+    @Test
+    void call_whenServerSlowsDown_thenCircuitOpensAndFailsFast() {
+        TestClient bookings = client("/bookings");
+        TestClient users = client("/users");
+        latencyMillis = SLOW_CALL.toMillis() + 100;
+
+        for (int i = 0; i < WINDOW; i++) {
+            assertThat(bookings.getAll().getStatusCode(), equalTo(HttpStatus.OK));
+        }
+        long start = System.nanoTime();
+        ServerUnavailableException rejected = assertThrows(ServerUnavailableException.class, bookings::getAll);
+        long rejectedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        latencyMillis = 0;
+
+        assertThat(rejected.getMessage(), equalTo(ServerCallGuard.CIRCUIT_OPEN_MESSAGE));
+        assertThat(rejected.getRetryAfterSeconds(), equalTo(1L));
+        assertThat(rejectedMillis, lessThan(SLOW_CALL.toMillis()));
+        assertThat(hits("/bookings"), equalTo(WINDOW));
+        assertThat(state("bookings"), equalTo((double) CircuitBreaker.State.OPEN.ordinal()));
+        assertThat(calls("bookings", "failure"), equalTo((double) WINDOW));
+        assertThat(rejected("bookings", "circuit-open"), equalTo(1.0));
+        assertThat(users.getAll().getStatusCode(), equalTo(HttpStatus.OK));
+        assertThat(state("users"), equalTo((double) CircuitBreaker.State.CLOSED.ordinal()));
+    }
+
+    @Test
+    void call_whenServerRecoversAfterOpenDuration_thenTrialCallsCloseCircuit() throws Exception {
+        TestClient bookings = client("/bookings");
+        status = HttpStatus.INTERNAL_SERVER_ERROR.value();
+        for (int i = 0; i < WINDOW; i++) {
+            assertThat(bookings.getAll().getStatusCode(), equalTo(HttpStatus.INTERNAL_SERVER_ERROR));
+        }
+        assertThrows(ServerUnavailableException.class, bookings::getAll);
+
+        status = HttpStatus.OK.value();
+        Thread.sleep(OPEN_DURATION.toMillis());
+        for (int i = 0; i < HALF_OPEN_CALLS; i++) {
+            assertThat(bookings.getAll().getStatusCode(), equalTo(HttpStatus.OK));
+        }
+
+        assertThat(state("bookings"), equalTo((double) CircuitBreaker.State.CLOSED.ordinal()));
+        assertThat(hits("/bookings"), equalTo(WINDOW + HALF_OPEN_CALLS));
+        assertThat(calls("bookings", "success"), equalTo((double) HALF_OPEN_CALLS));
+    }
+
+    @Test
+    void call_whenServerDoesNotAnswerInTime_thenServerUnavailable() {
+        TestClient bookings = client("/bookings");
+        latencyMillis = READ_TIMEOUT.toMillis() * 2;
+
+        ServerUnavailableException e = assertThrows(ServerUnavailableException.class, bookings::getAll);
+
+        assertThat(e.getMessage(), startsWith(ServerCallGuard.NO_RESPONSE_MESSAGE));
+        assertThat(calls("bookings", "failure"), equalTo(1.0));
+    }
+
+    @Test
+    void gateway_whenCircuitOpen_thenServiceUnavailableErrorResponse() throws Exception {
+        status = HttpStatus.INTERNAL_SERVER_ERROR.value();
+        try (ConfigurableApplicationContext gateway = new SpringApplicationBuilder(ShareItGateway.class)
+                .run("--server.port=0",
+                        "--shareit-server.url=http://localhost:" + server.getAddress().getPort(),
+                        "--shareit-server.resilience.breaker.sliding-window-size=2",
+                        "--shareit-server.resilience.breaker.minimum-calls=2",
+                        "--shareit-server.resilience.breaker.open-duration=10s")) {
+            URI uri = URI.create("http://localhost:" + gateway.getEnvironment().getProperty("local.server.port")
+                    + "/users");
+            HttpClient httpClient = HttpClient.newHttpClient();
+            for (int i = 0; i < 2; i++) {
+                assertThat(httpClient.send(HttpRequest.newBuilder(uri).GET().build(),
+                        HttpResponse.BodyHandlers.ofString()).statusCode(), equalTo(500));
+            }
+
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(uri).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertThat(response.statusCode(), equalTo(HttpStatus.SERVICE_UNAVAILABLE.value()));
+            assertThat(response.headers().firstValue(HttpHeaders.RETRY_AFTER).orElse(null), equalTo("10"));
+            assertThat(response.body(), containsString(ServerCallGuard.CIRCUIT_OPEN_MESSAGE));
+        }
+
+        assertThat(hits("/users"), equalTo(2));
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        hits.computeIfAbsent(exchange.getHttpContext().getPath(), path -> new AtomicInteger()).incrementAndGet();
+        CountDownLatch currentHold = hold;
+        try {
+            if (currentHold != null) {
+                held.incrementAndGet();
+                currentHold.await(10, TimeUnit.SECONDS);
+            }
+            Thread.sleep(latencyMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, "application/json");
+        try {
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (IOException e) {
+            // клиент не дождался ответа
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void awaitHeld(int requests) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (held.get() < requests && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(held.get(), equalTo(requests));
+    }
+
+    private static ResilienceProperties properties() {
+        ResilienceProperties properties = new ResilienceProperties();
+        ResilienceProperties.Pool bookings = new ResilienceProperties.Pool();
+        bookings.setMaxConcurrentCalls(BOOKINGS_POOL);
+        properties.getPools().put("bookings", bookings);
+        ResilienceProperties.Breaker breaker = properties.getBreaker();
+        breaker.setSlidingWindowSize(WINDOW);
+        breaker.setMinimumCalls(WINDOW);
+        breaker.setFailureRateThreshold(50);
+        breaker.setSlowCallDuration(SLOW_CALL);
+        breaker.setOpenDuration(OPEN_DURATION);
+        breaker.setHalfOpenCalls(HALF_OPEN_CALLS);
+        return properties;
+    }
+
+    private TestClient client(String apiPrefix) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory();
+        requestFactory.setReadTimeout((int) READ_TIMEOUT.toMillis());
+        RestTemplate rest = new RestTemplate(requestFactory);
+        rest.setUriTemplateHandler(new DefaultUriBuilderFactory("http://localhost:"
+                + server.getAddress().getPort() + apiPrefix));
+        return new TestClient(rest, guards.forClient(apiPrefix));
+    }
+
+    private int hits(String path) {
+        AtomicInteger count = hits.get(path);
+        return count != null ? count.get() : 0;
+    }
+
+    private double calls(String client, String result) {
+        return meterRegistry.get(ServerCallGuard.CALLS_METRIC).tag("client", client).tag("result", result)
+                .counter().count();
+    }
+
+    private double rejected(String client, String reason) {
+        return meterRegistry.get(ServerCallGuard.REJECTED_METRIC).tag("client", client).tag("reason", reason)
+                .counter().count();
+    }
+
+    private double state(String client) {
+        return meterRegistry.get(ServerCallGuard.STATE_METRIC).tag("client", client).gauge().value();
+    }
+
+    private static class TestClient extends BaseClient {
+
+        TestClient(RestTemplate rest, ServerCallGuard guard) {
+            super(rest, null, null, guard);
+        }
+
+        ResponseEntity<Object> getAll() {
+            return get("", 1L);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -29,6 +30,8 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -150,6 +153,20 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.name").value(userDto.getName()));
     }
 
+    @SneakyThrows
+    @Test
+    void getUserById_whenIfNoneMatchEqualsServerETag_thenResponseStatusNotModified() {
+        String eTag = "\"user-1-1-cbf29ce484222325\"";
+        when(userClient.getUserById(1L))
+                .thenReturn(ResponseEntity.ok().eTag(eTag).body(userDto));
+
+        mockMvc.perform(get("/users/{id}", 1L)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
     @SneakyThrows
     @Test
     void getUserById_whenGetUserByIdWithInvalidUserId_thenResponseStatusNotFound() {
@@ -194,7 +211,7 @@ public class UserControllerTest {
 
         List<UserDto> userList = Arrays.asList(userDto1, userDto2);
 
-        when(userClient.getUserList())
+        when(userClient.getUserList(null, null))
                 .thenReturn(new ResponseEntity<>(userList, HttpStatus.OK));
 
         mockMvc.perform(get("/users")
@@ -204,4 +221,15 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$[0].id").value(userDto1.getId()))
                 .andExpect(jsonPath("$[1].id").value(userDto2.getId()));
     }
+
+    @SneakyThrows
+    @Test
+    void getUserList_whenSizeLessThanOne_thenReturnStatusBadRequest() {
+        mockMvc.perform(get("/users")
+                        .param("from", "0")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(userClient, never()).getUserList(any(), any());
+    }
 }
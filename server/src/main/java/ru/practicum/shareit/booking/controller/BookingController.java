@@ -1,5 +1,6 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -12,10 +13,15 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreatedBookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.export.NdjsonWriter;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.List;
 
 @Slf4j
@@ -24,7 +30,10 @@ import java.util.List;
 @RequiredArgsConstructor
 public class BookingController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Добавление букинга
@@ -42,6 +51,22 @@ public class BookingController {
         return ResponseEntity.ok(bookingDto);
     }
 
+    /**
+     * Пакетное добавление букингов
+     *
+     * @param creatorId          id создателя
+     * @param createdBookingDtos список createdBookingDto
+     * @return List<BookingBatchResultDto> в порядке исходного списка
+     */
+
+    @PostMapping(path = "/batch")
+    ResponseEntity<List<BookingBatchResultDto>> createBookings(@RequestHeader("X-Sharer-User-Id") Long creatorId,
+                                                               @RequestBody List<CreatedBookingDto> createdBookingDtos) {
+        List<BookingBatchResultDto> results = bookingService.createBookings(creatorId, createdBookingDtos);
+        log.debug("Обработан пакет из {} броней", results.size());
+        return ResponseEntity.ok(results);
+    }
+
     /**
      * Обновление статуса букинга
      *
@@ -77,6 +102,9 @@ public class BookingController {
      *
      * @param userId id пользователя запрашивающего букинг
      * @param state  статус, по которому будут отфильтрованы букинги
+     * @param from   индекс, с которого начинается список
+     * @param size   размер списка
+     * @param cursor курсор из заголовка X-Next-Cursor предыдущей страницы (пустой - первая страница)
      * @return List<BookingDto>
      */
 
@@ -84,7 +112,14 @@ public class BookingController {
     ResponseEntity<List<BookingDto>> getBookingListCreatedByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                                    @RequestParam(defaultValue = "ALL") String state,
                                                                    @RequestParam(required = false) Long from,
-                                                                   @RequestParam(required = false) Long size) {
+                                                                   @RequestParam(required = false) Long size,
+                                                                   @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            long pageSize = requireCursorPageSize(size);
+            List<BookingDto> bookingList = bookingService.getBookingListCreatedByUserIdAfterCursor(userId, state,
+                    BookingCursor.decode(cursor), pageSize);
+            return toCursorPage(bookingList, pageSize);
+        }
         List<BookingDto> bookingList = bookingService.getBookingListCreatedByUserId(userId, state, from, size);
         return ResponseEntity.ok(bookingList);
     }
@@ -94,6 +129,9 @@ public class BookingController {
      *
      * @param userId id пользователя запрашивающего букинг
      * @param state  статус, по которому будут отфильтрованы букинги
+     * @param from   индекс, с которого начинается список
+     * @param size   размер списка
+     * @param cursor курсор из заголовка X-Next-Cursor предыдущей страницы (пустой - первая страница)
      * @return List<BookingDto>
      */
 
@@ -101,7 +139,70 @@ public class BookingController {
     ResponseEntity<List<BookingDto>> getBookingListForAllOwnerItems(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                                     @RequestParam(defaultValue = "ALL") String state,
                                                                     @RequestParam(required = false) Long from,
-                                                                    @RequestParam(required = false) Long size) {
+                                                                    @RequestParam(required = false) Long size,
+                                                                    @RequestParam(required = false) String cursor) {
+        if (cursor != null) {
+            long pageSize = requireCursorPageSize(size);
+            List<BookingDto> bookingList = bookingService.getBookingListForAllOwnerItemsAfterCursor(userId, state,
+                    BookingCursor.decode(cursor), pageSize);
+            return toCursorPage(bookingList, pageSize);
+        }
         return ResponseEntity.ok(bookingService.getBookingListForAllOwnerItems(userId, state, from, size));
     }
+
+    /**
+     * Выгрузка всех букингов, созданных пользователем, в NDJSON потоком, без ограничения размера страницы
+     *
+     * @param userId   id пользователя запрашивающего букинг
+     * @param state    статус, по которому будут отфильтрованы букинги
+     * @param response ответ, в который пишутся строки
+     */
+
+    @GetMapping("/export")
+    void exportBookingsCreatedByUserId(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                       @RequestParam(defaultValue = "ALL") String state,
+                                       HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response)) {
+            bookingService.exportBookingsCreatedByUserId(userId, state, writer::write);
+            writer.flush();
+        }
+    }
+
+    /**
+     * Выгрузка всех букингов для вещей пользователя в NDJSON потоком, без ограничения размера страницы
+     *
+     * @param userId   id пользователя запрашивающего букинг
+     * @param state    статус, по которому будут отфильтрованы букинги
+     * @param response ответ, в который пишутся строки
+     */
+
+    @GetMapping("/owner/export")
+    void exportBookingsForAllOwnerItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                        @RequestParam(defaultValue = "ALL") String state,
+                                        HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response)) {
+            bookingService.exportBookingsForAllOwnerItems(userId, state, writer::write);
+            writer.flush();
+        }
+    }
+
+    private long requireCursorPageSize(Long size) {
+        if (size == null) {
+            throw new IllegalArgumentException("При постраничном выводе по курсору необходимо указать size");
+        }
+        return size;
+    }
+
+    /**
+     * Заголовок X-Next-Cursor добавляется только к полной странице: по нему клиент запрашивает следующую
+     */
+
+    private ResponseEntity<List<BookingDto>> toCursorPage(List<BookingDto> bookingList, long size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (!bookingList.isEmpty() && bookingList.size() == size) {
+            BookingDto lastBooking = bookingList.get(bookingList.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, BookingCursor.of(lastBooking).encode());
+        }
+        return response.body(bookingList);
+    }
 }
@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Результат создания одной брони из пакета: созданная бронь либо причина отказа.
+ * index - позиция записи в исходном запросе
+ */
+
+@Data
+@Builder
+@AllArgsConstructor
+public class BookingBatchResultDto {
+
+    private int index;
+    private BookingDto booking;
+    private String error;
+}
@@ -0,0 +1,56 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * BookingCursor - позиция в списке букингов, отсортированном по (start DESC, id DESC).
+ * Передается клиенту в непрозрачном виде (base64) в заголовке X-Next-Cursor
+ */
+
+@Data
+@AllArgsConstructor
+public class BookingCursor {
+
+    private static final String SEPARATOR = "_";
+
+    private final LocalDateTime start;
+    private final Long id;
+
+    /**
+     * Время обрезается до микросекунд - с такой точностью start_date хранится в БД
+     */
+
+    public static BookingCursor of(BookingDto bookingDto) {
+        return new BookingCursor(bookingDto.getStart().truncatedTo(ChronoUnit.MICROS), bookingDto.getId());
+    }
+
+    /**
+     * Разбор курсора, пустой курсор означает первую страницу
+     */
+
+    public static BookingCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = decoded.lastIndexOf(SEPARATOR);
+            return new BookingCursor(LocalDateTime.parse(decoded.substring(0, separatorIndex)),
+                    Long.parseLong(decoded.substring(separatorIndex + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + cursor);
+        }
+    }
+
+    public String encode() {
+        String raw = start + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * BookingInterval - проекция периода брони без загрузки вещи и букера
+ */
+
+public interface BookingInterval {
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * ItemBookingInfo - проекция последнего/следующего букинга вещи, возвращаемая пакетными запросами
+ * BookingRepository. Поле itemId позволяет разложить результат по вещам
+ */
+
+public interface ItemBookingInfo {
+
+    Long getItemId();
+
+    Long getId();
+
+    Long getBookerId();
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * ItemBookingInterval - период брони с id вещи для пакетной загрузки периодов нескольких вещей
+ */
+
+@Data
+@AllArgsConstructor
+public class ItemBookingInterval implements BookingInterval {
+
+    private Long itemId;
+    private LocalDateTime start;
+    private LocalDateTime end;
+}
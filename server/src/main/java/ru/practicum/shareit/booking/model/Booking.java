@@ -19,7 +19,10 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.NamedAttributeNode;
 import javax.persistence.NamedEntityGraph;
+import javax.persistence.PrePersist;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.Version;
 import java.time.LocalDateTime;
 
 /**
@@ -43,7 +46,8 @@ import java.time.LocalDateTime;
 public class Booking {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     @Column(name = "booking_id", nullable = false)
     private Long id;
     @Column(name = "start_date", nullable = false)
@@ -56,9 +60,23 @@ public class Booking {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id", nullable = false)
     private User booker;
+    @Column(name = "owner_id", nullable = false, updatable = false)
+    private Long ownerId;
     @Enumerated(EnumType.STRING)
     @Column(name = "booking_status", nullable = false)
     private Status status;
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    /**
+     * Копия владельца вещи для списков броней владельца; владелец у вещи не меняется
+     */
+
+    @PrePersist
+    protected void onCreate() {
+        ownerId = item.getOwnerId();
+    }
 }
 
 
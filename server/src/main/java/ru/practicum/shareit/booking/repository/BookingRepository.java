@@ -1,32 +1,64 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.data.repository.query.Param;
-import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.ItemBookingInfo;
+import ru.practicum.shareit.booking.dto.ItemBookingInterval;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface BookingRepository extends JpaRepository<Booking, Long>, QuerydslPredicateExecutor<Booking> {
 
     @EntityGraph(value = "booking-with-item-and-user", type = EntityGraph.EntityGraphType.LOAD)
     Optional<Booking> findById(Long id);
 
-    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingInfoDto(b.id, b.booker.id) FROM Booking b " +
-            "WHERE b.item.id = :itemId AND b.start < CURRENT_TIMESTAMP AND b.status = 'APPROVED' ORDER BY b.end DESC")
-    Page<BookingInfoDto> findLastBookingByItemId(@Param("itemId") Long itemId, Pageable pageable);
+    @Query(value = "SELECT b.item_id AS \"itemId\", b.booking_id AS \"id\", b.booker_id AS \"bookerId\" FROM (" +
+            "SELECT bk.item_id, bk.booking_id, bk.booker_id, ROW_NUMBER() OVER " +
+            "(PARTITION BY bk.item_id ORDER BY bk.end_date DESC, bk.booking_id DESC) AS rn FROM bookings bk " +
+            "WHERE bk.item_id IN (:itemIds) AND bk.start_date < CURRENT_TIMESTAMP " +
+            "AND bk.booking_status = 'APPROVED') b WHERE b.rn = 1", nativeQuery = true)
+    List<ItemBookingInfo> findLastBookingsByItemIds(@Param("itemIds") Collection<Long> itemIds);
 
-    @Query("SELECT new ru.practicum.shareit.booking.dto.BookingInfoDto(b.id, b.booker.id) FROM Booking b " +
-            "WHERE b.item.id = :itemId AND b.start > CURRENT_TIMESTAMP AND b.status = 'APPROVED' ORDER BY b.start ASC")
-    Page<BookingInfoDto> findNextBookingByItemId(@Param("itemId") Long itemId, Pageable pageable);
+    @Query(value = "SELECT b.item_id AS \"itemId\", b.booking_id AS \"id\", b.booker_id AS \"bookerId\" FROM (" +
+            "SELECT bk.item_id, bk.booking_id, bk.booker_id, ROW_NUMBER() OVER " +
+            "(PARTITION BY bk.item_id ORDER BY bk.start_date ASC, bk.booking_id ASC) AS rn FROM bookings bk " +
+            "WHERE bk.item_id IN (:itemIds) AND bk.start_date > CURRENT_TIMESTAMP " +
+            "AND bk.booking_status = 'APPROVED') b WHERE b.rn = 1", nativeQuery = true)
+    List<ItemBookingInfo> findNextBookingsByItemIds(@Param("itemIds") Collection<Long> itemIds);
 
     @Query("SELECT COUNT(b) > 0 FROM Booking b " +
             "WHERE b.booker.id = :userId AND b.item.id = :itemId AND " +
             "b.status = 'APPROVED' AND b.end < CURRENT_TIMESTAMP")
     boolean checkIfCompletedBookingExistsForItemByUserId(@Param("userId") Long userId, @Param("itemId") Long itemId);
+
+    List<BookingInterval> findByItemIdAndStatus(Long itemId, Status status);
+
+    @Query("SELECT new ru.practicum.shareit.booking.dto.ItemBookingInterval(b.item.id, b.start, b.end) " +
+            "FROM Booking b WHERE b.item.id IN :itemIds AND b.status = :status")
+    List<ItemBookingInterval> findIntervalsByItemIdsAndStatus(@Param("itemIds") Collection<Long> itemIds,
+                                                              @Param("status") Status status);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    Stream<BookingInterval> findByItemIdAndStatusAndStartBeforeAndEndAfterOrderByStartAsc(Long itemId, Status status,
+                                                                                          LocalDateTime to,
+                                                                                          LocalDateTime from);
+
+    @Query("SELECT COUNT(b) > 0 FROM Booking b " +
+            "WHERE b.item.id = :itemId AND b.id <> :bookingId AND b.status = 'APPROVED' " +
+            "AND b.start < :end AND b.end > :start")
+    boolean checkIfOtherApprovedBookingOverlaps(@Param("itemId") Long itemId, @Param("bookingId") Long bookingId,
+                                                @Param("start") LocalDateTime start,
+                                                @Param("end") LocalDateTime end);
 }
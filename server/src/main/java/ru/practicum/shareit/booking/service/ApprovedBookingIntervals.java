@@ -0,0 +1,146 @@
+package ru.practicum.shareit.booking.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.ItemBookingInterval;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Кэш занятых периодов вещей для быстрой предварительной проверки пересечения при создании брони.
+ * Периоды одобренных броней хранятся объединенными, поэтому проверка - один поиск в TreeMap.
+ * Окончательная проверка выполняется при одобрении брони под блокировкой вещи
+ */
+
+@Component
+@RequiredArgsConstructor
+public class ApprovedBookingIntervals {
+
+    private static final long MAX_CACHED_ITEMS = 10_000;
+    private static final Duration EXPIRE_AFTER_ACCESS = Duration.ofMinutes(10);
+
+    private final BookingRepository bookingRepository;
+
+    private final Cache<Long, IntervalSet> intervalsByItemId = Caffeine.newBuilder()
+            .maximumSize(MAX_CACHED_ITEMS)
+            .expireAfterAccess(EXPIRE_AFTER_ACCESS)
+            .build();
+
+    public boolean overlaps(long itemId, LocalDateTime start, LocalDateTime end) {
+        return intervalsByItemId.get(itemId, this::load).overlaps(start, end);
+    }
+
+    /**
+     * Загружает в кэш периоды нескольких вещей одним запросом, чтобы последующие overlaps не обращались к БД
+     */
+
+    public void preload(Collection<Long> itemIds) {
+        intervalsByItemId.getAll(itemIds, this::loadAll);
+    }
+
+    /**
+     * Добавляет период одобренной брони после коммита транзакции
+     */
+
+    public void addAfterCommit(long itemId, LocalDateTime start, LocalDateTime end) {
+        afterCommit(() -> intervalsByItemId.asMap().computeIfPresent(itemId, (id, intervals) -> {
+            intervals.add(start, end);
+            return intervals;
+        }));
+    }
+
+    /**
+     * Объединенные периоды нельзя разделить обратно, поэтому при снятии одобрения вещь перечитывается из БД
+     */
+
+    public void invalidateAfterCommit(long itemId) {
+        afterCommit(() -> intervalsByItemId.invalidate(itemId));
+    }
+
+    private IntervalSet load(long itemId) {
+        IntervalSet intervals = new IntervalSet();
+        for (BookingInterval interval : bookingRepository.findByItemIdAndStatus(itemId, Status.APPROVED)) {
+            intervals.add(interval.getStart(), interval.getEnd());
+        }
+        return intervals;
+    }
+
+    private Map<Long, IntervalSet> loadAll(Iterable<? extends Long> itemIds) {
+        List<Long> ids = new ArrayList<>();
+        Map<Long, IntervalSet> intervalsById = new HashMap<>();
+        for (Long itemId : itemIds) {
+            ids.add(itemId);
+            intervalsById.put(itemId, new IntervalSet());
+        }
+        for (ItemBookingInterval interval : bookingRepository.findIntervalsByItemIdsAndStatus(ids, Status.APPROVED)) {
+            intervalsById.get(interval.getItemId()).add(interval.getStart(), interval.getEnd());
+        }
+        return intervalsById;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Множество непересекающихся полуинтервалов [start, end), упорядоченных по началу
+     */
+
+    static final class IntervalSet {
+
+        private final TreeMap<LocalDateTime, LocalDateTime> endByStart = new TreeMap<>();
+
+        synchronized boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> before = endByStart.lowerEntry(end);
+            return before != null && before.getValue().isAfter(start);
+        }
+
+        synchronized void add(LocalDateTime start, LocalDateTime end) {
+            LocalDateTime mergedStart = start;
+            LocalDateTime mergedEnd = end;
+            Map.Entry<LocalDateTime, LocalDateTime> before = endByStart.floorEntry(start);
+            if (before != null && !before.getValue().isBefore(start)) {
+                mergedStart = before.getKey();
+                if (before.getValue().isAfter(mergedEnd)) {
+                    mergedEnd = before.getValue();
+                }
+            }
+            Map.Entry<LocalDateTime, LocalDateTime> next = endByStart.ceilingEntry(mergedStart);
+            while (next != null && !next.getKey().isAfter(mergedEnd)) {
+                if (next.getValue().isAfter(mergedEnd)) {
+                    mergedEnd = next.getValue();
+                }
+                endByStart.remove(next.getKey());
+                next = endByStart.higherEntry(next.getKey());
+            }
+            endByStart.put(mergedStart, mergedEnd);
+        }
+
+        synchronized int size() {
+            return endByStart.size();
+        }
+    }
+}
@@ -1,20 +1,35 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreatedBookingDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingDto createBooking(long creatorId, CreatedBookingDto createdBookingDto);
 
+    List<BookingBatchResultDto> createBookings(long creatorId, List<CreatedBookingDto> createdBookingDtos);
+
     BookingDto updateBookingStatus(long userId, long bookingId, boolean status);
 
     BookingDto findBookingById(long userId, long bookingId);
 
     List<BookingDto> getBookingListCreatedByUserId(long userId, String state, Long from, Long size);
 
+    List<BookingDto> getBookingListCreatedByUserIdAfterCursor(long userId, String state, BookingCursor cursor,
+                                                              long size);
+
     List<BookingDto> getBookingListForAllOwnerItems(long userId, String state, Long from, Long size);
 
+    List<BookingDto> getBookingListForAllOwnerItemsAfterCursor(long userId, String state, BookingCursor cursor,
+                                                               long size);
+
+    void exportBookingsCreatedByUserId(long userId, String state, Consumer<BookingDto> rows);
+
+    void exportBookingsForAllOwnerItems(long userId, String state, Consumer<BookingDto> rows);
+
 
 }
@@ -1,10 +1,14 @@
 package ru.practicum.shareit.booking.service;
 
+import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreatedBookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
@@ -15,22 +19,37 @@ import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.exceptions.ForbiddenUserException;
 import ru.practicum.shareit.exceptions.ItemNotAvailableException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.QItem;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.paging.PageLimit;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.QUser;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
 
+    private static final int EXPORT_FETCH_SIZE = 500;
+
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -38,6 +57,9 @@ public class BookingServiceImpl implements BookingService {
     private final BookingMapper bookingMapper;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final ApprovedBookingIntervals approvedBookingIntervals;
+    private final UserExistenceChecker userExistenceChecker;
+    private final PageLimit pageLimit;
 
     @Transactional
     @Override
@@ -47,54 +69,87 @@ public class BookingServiceImpl implements BookingService {
         Item item = itemRepository.findById(createdBookingDto.getItemId()).orElseThrow(() ->
                 new NotFoundException("Вещь с id: " + createdBookingDto.getItemId() + " не найдена"));
 
-        if (item.getOwnerId() == creatorId) {
-            throw new ForbiddenUserException("Вы не можете забронировать вашу вещь");
-        }
+        checkBookingAllowed(creatorId, item, createdBookingDto);
+        Booking booking = toNewBooking(createdBookingDto, booker, item);
 
-        if (!item.getAvailable()) {
-            throw new ItemNotAvailableException("Вещь с id: " + item.getId() + " недоступна для брони в данный момент");
-        }
+        return bookingMapper.bookingToBookingDto(bookingRepository.save(booking));
+    }
 
-        Booking booking = bookingMapper.createdBookingDtoToBooking(createdBookingDto);
-        booking.setBooker(booker);
-        booking.setItem(item);
-        booking.setStatus(Status.WAITING);
+    /**
+     * Пакетное создание броней: пользователь и все вещи загружаются двумя запросами, периоды одобренных броней -
+     * одним, а вставка идет JDBC-пакетами. Ошибка отдельной записи не отменяет остальные
+     */
 
-        Booking savedBooking = bookingRepository.save(booking);
+    @Transactional
+    @Override
+    public List<BookingBatchResultDto> createBookings(long creatorId, List<CreatedBookingDto> createdBookingDtos) {
+        User booker = userRepository.findById(creatorId).orElseThrow(() ->
+                new NotFoundException("Пользователь с id: " + creatorId + " не найден"));
+        Set<Long> itemIds = createdBookingDtos.stream()
+                .map(CreatedBookingDto::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, Item> itemsById = itemRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        approvedBookingIntervals.preload(itemsById.keySet());
 
-        Booking loadedBooking = bookingRepository.findById(savedBooking.getId())
-                .orElseThrow(() -> new IllegalStateException("Ошибка при загрузке Booking. Метод вернул null."));
+        BookingBatchResultDto[] results = new BookingBatchResultDto[createdBookingDtos.size()];
+        Map<Integer, Booking> bookingsByIndex = new LinkedHashMap<>();
+        for (int i = 0; i < createdBookingDtos.size(); i++) {
+            CreatedBookingDto createdBookingDto = createdBookingDtos.get(i);
+            Item item = itemsById.get(createdBookingDto.getItemId());
+            try {
+                if (item == null) {
+                    throw new NotFoundException("Вещь с id: " + createdBookingDto.getItemId() + " не найдена");
+                }
+                checkBookingAllowed(creatorId, item, createdBookingDto);
+                bookingsByIndex.put(i, toNewBooking(createdBookingDto, booker, item));
+            } catch (NotFoundException | ForbiddenUserException | ItemNotAvailableException e) {
+                results[i] = BookingBatchResultDto.builder()
+                        .index(i)
+                        .error(e.getMessage())
+                        .build();
+            }
+        }
 
-        return bookingMapper.bookingToBookingDto(loadedBooking);
+        bookingRepository.saveAll(bookingsByIndex.values());
+        bookingsByIndex.forEach((index, booking) -> results[index] = BookingBatchResultDto.builder()
+                .index(index)
+                .booking(bookingMapper.bookingToBookingDto(booking))
+                .build());
+        return Arrays.asList(results);
     }
 
     @Transactional
     @Override
     public BookingDto updateBookingStatus(long userId, long bookingId, boolean status) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Вещь с id: " + userId + " не найдена"));
+        userExistenceChecker.checkExists(userId);
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Бронь с id: " + bookingId + " не найдена"));
         Item item = booking.getItem();
         if (userId != item.getOwnerId()) {
             throw new ForbiddenUserException("Изменить статус брони может только владелец вещи");
         }
+        lockItem(item.getId());
+        entityManager.refresh(booking);
         Status expectedStatus = status ? Status.APPROVED : Status.REJECTED;
         if (booking.getStatus().equals(expectedStatus)) {
             throw new IllegalStateException("Бронь уже имеет текущий статус");
         }
+        if (status) {
+            checkNoApprovedOverlap(booking);
+            approvedBookingIntervals.addAfterCommit(item.getId(), booking.getStart(), booking.getEnd());
+        } else if (booking.getStatus() == Status.APPROVED) {
+            approvedBookingIntervals.invalidateAfterCommit(item.getId());
+        }
         booking.setStatus(status ? Status.APPROVED : Status.REJECTED);
         bookingRepository.save(booking);
-        Booking updatedBooking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new IllegalStateException("Ошибка при загрузке Booking. Метод вернул null."));
 
-        return bookingMapper.bookingToBookingDto(updatedBooking);
+        return bookingMapper.bookingToBookingDto(booking);
     }
 
     @Override
     public BookingDto findBookingById(long userId, long bookingId) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Вещь с id: " + userId + " не найдена"));
+        userExistenceChecker.checkExists(userId);
         Booking loadedBooking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new NotFoundException("Бронь с id: " + bookingId + " не найдена"));
         User booker = loadedBooking.getBooker();
@@ -110,106 +165,188 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     public List<BookingDto> getBookingListCreatedByUserId(long userId, String state, Long from, Long size) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с id: " + userId + " не найден"));
+        userExistenceChecker.checkExists(userId);
         QBooking booking = QBooking.booking;
-        JPAQuery<?> query = new JPAQuery<Void>(entityManager);
+        return findBookings(booking.booker.id.eq(userId), state, from, size);
+    }
 
-        BooleanExpression predicate = booking.booker.id.eq(userId);
-        switch (state) {
-            case "ALL":
-                break;
-            case "CURRENT":
-                predicate = predicate.and(booking.start.loe(LocalDateTime.now())
-                        .and(booking.end.goe(LocalDateTime.now())));
-                break;
-            case "PAST":
-                predicate = predicate.and(booking.end.lt(LocalDateTime.now()));
-                break;
-            case "FUTURE":
-                predicate = predicate.and(booking.start.gt(LocalDateTime.now()));
-                break;
-            case "REJECTED":
-                predicate = predicate.and(booking.status.eq(Status.REJECTED));
-                break;
-            case "WAITING":
-                predicate = predicate.and(booking.status.eq(Status.WAITING));
-                break;
-            default:
-                throw new IllegalStateException("Unknown state: " + state);
-        }
+    @Override
+    public List<BookingDto> getBookingListCreatedByUserIdAfterCursor(long userId, String state,
+                                                                     BookingCursor cursor, long size) {
+        userExistenceChecker.checkExists(userId);
+        QBooking booking = QBooking.booking;
+        return findBookingsAfterCursor(booking.booker.id.eq(userId), state, cursor, size);
+    }
 
-        JPAQuery<Booking> finalQuery = query.select(booking)
-                .from(booking)
-                .leftJoin(booking.item).fetchJoin()
-                .leftJoin(booking.booker).fetchJoin()
-                .where(predicate)
-                .orderBy(booking.start.desc());
+    @Override
+    public List<BookingDto> getBookingListForAllOwnerItems(long userId, String state, Long from, Long size) {
+        userExistenceChecker.checkExists(userId);
+        checkIfUserHasItems(userId);
+        QBooking booking = QBooking.booking;
+        return findBookings(booking.ownerId.eq(userId), state, from, size);
+    }
+
+    @Override
+    public List<BookingDto> getBookingListForAllOwnerItemsAfterCursor(long userId, String state,
+                                                                      BookingCursor cursor, long size) {
+        userExistenceChecker.checkExists(userId);
+        checkIfUserHasItems(userId);
+        QBooking booking = QBooking.booking;
+        return findBookingsAfterCursor(booking.ownerId.eq(userId), state, cursor, size);
+    }
+
+    @Override
+    public void exportBookingsCreatedByUserId(long userId, String state, Consumer<BookingDto> rows) {
+        userExistenceChecker.checkExists(userId);
+        QBooking booking = QBooking.booking;
+        exportBookings(booking.booker.id.eq(userId), state, rows);
+    }
 
+    @Override
+    public void exportBookingsForAllOwnerItems(long userId, String state, Consumer<BookingDto> rows) {
+        userExistenceChecker.checkExists(userId);
+        checkIfUserHasItems(userId);
+        QBooking booking = QBooking.booking;
+        exportBookings(booking.ownerId.eq(userId), state, rows);
+    }
+
+    /**
+     * Выгрузка читается однонаправленным курсором (fetch size 500), память не зависит от длины истории букингов
+     */
+
+    private void exportBookings(BooleanExpression predicate, String state, Consumer<BookingDto> rows) {
+        JPAQuery<BookingDto> query = createBookingListQuery(predicate.and(stateToPredicate(state)))
+                .setHint(QueryHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE);
+        try (Stream<BookingDto> bookings = query.stream()) {
+            bookings.forEach(rows);
+        }
+    }
+
+    private List<BookingDto> findBookings(BooleanExpression predicate, String state, Long from, Long size) {
+        JPAQuery<BookingDto> query = createBookingListQuery(predicate.and(stateToPredicate(state)));
         if (from != null && size != null) {
-            finalQuery.offset(from).limit(size);
+            query.offset(from).limit(pageLimit.size(size));
+        } else {
+            query.limit(pageLimit.getMaxSize());
         }
+        return query.fetch();
+    }
 
-        List<Booking> bookings = finalQuery.fetch();
+    /**
+     * Keyset-пагинация: вместо offset выбираются букинги, идущие в порядке (start DESC, id DESC) после курсора,
+     * поэтому стоимость страницы не зависит от ее глубины. Порядок дают индексы (booker_id, start_date, booking_id)
+     * и (owner_id, start_date, booking_id): владелец скопирован в бронь, и брони всех его вещей идут одним индексом
+     */
 
-        return bookings.stream()
-                .map(bookingMapper::bookingToBookingDto)
-                .collect(Collectors.toList());
+    private List<BookingDto> findBookingsAfterCursor(BooleanExpression predicate, String state,
+                                                     BookingCursor cursor, long size) {
+        QBooking booking = QBooking.booking;
+        BooleanExpression finalPredicate = predicate.and(stateToPredicate(state));
+        if (cursor != null) {
+            finalPredicate = finalPredicate.and(booking.start.lt(cursor.getStart())
+                    .or(booking.start.eq(cursor.getStart()).and(booking.id.lt(cursor.getId()))));
+        }
+        return createBookingListQuery(finalPredicate).limit(pageLimit.size(size)).fetch();
     }
 
-    @Override
-    public List<BookingDto> getBookingListForAllOwnerItems(long userId, String state, Long from, Long size) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с id: " + userId + " не найден"));
-        checkIfUserHasItems(userId);
+    /**
+     * Списки и выгрузки читаются проекцией прямо в BookingDto, как в ItemRequestServiceImpl: сущности Booking,
+     * Item и User не создаются и не попадают в контекст персистентности, а BookingMapper не нужен
+     */
+
+    private JPAQuery<BookingDto> createBookingListQuery(BooleanExpression predicate) {
+        QBooking booking = QBooking.booking;
+        QItem item = QItem.item;
+        QUser booker = QUser.user;
+        return new JPAQuery<Void>(entityManager)
+                .select(Projections.constructor(BookingDto.class,
+                        booking.id,
+                        booking.start,
+                        booking.end,
+                        Projections.constructor(ItemDto.class,
+                                item.id,
+                                item.name,
+                                item.description,
+                                item.ownerId,
+                                item.available,
+                                item.requestId),
+                        Projections.constructor(UserDto.class,
+                                booker.id,
+                                booker.name,
+                                booker.email),
+                        booking.status))
+                .from(booking)
+                .join(booking.item, item)
+                .join(booking.booker, booker)
+                .where(predicate)
+                .orderBy(booking.start.desc(), booking.id.desc());
+    }
 
+    private BooleanExpression stateToPredicate(String state) {
         QBooking booking = QBooking.booking;
-        JPAQuery<?> query = new JPAQuery<Void>(entityManager);
-        BooleanExpression predicate = booking.item.ownerId.eq(userId);
         switch (state) {
             case "ALL":
-                break;
+                return null;
             case "CURRENT":
-                predicate = predicate.and(booking.start.loe(LocalDateTime.now())
-                        .and(booking.end.goe(LocalDateTime.now())));
-                break;
+                return booking.start.loe(LocalDateTime.now())
+                        .and(booking.end.goe(LocalDateTime.now()));
             case "PAST":
-                predicate = predicate.and(booking.end.lt(LocalDateTime.now()));
-                break;
+                return booking.end.lt(LocalDateTime.now());
             case "FUTURE":
-                predicate = predicate.and(booking.start.gt(LocalDateTime.now()));
-                break;
+                return booking.start.gt(LocalDateTime.now());
             case "REJECTED":
-                predicate = predicate.and(booking.status.eq(Status.REJECTED));
-                break;
+                return booking.status.eq(Status.REJECTED);
             case "WAITING":
-                predicate = predicate.and(booking.status.eq(Status.WAITING));
-                break;
+                return booking.status.eq(Status.WAITING);
             default:
                 throw new IllegalStateException("Unknown state: " + state);
         }
+    }
 
-        JPAQuery<Booking> finalQuery = query.select(booking)
-                .from(booking)
-                .leftJoin(booking.item).fetchJoin()
-                .leftJoin(booking.booker).fetchJoin()
-                .where(predicate)
-                .orderBy(booking.start.desc());
-
-        if (from != null && size != null) {
-            finalQuery.offset(from).limit(size);
+    private void checkIfUserHasItems(long userId) {
+        if (!itemRepository.existsByOwnerId(userId)) {
+            throw new NotFoundException("У пользователя с id: " + userId + "нет вещей во владении");
         }
+    }
+
+    /**
+     * Изменения статусов броней одной вещи сериализуются блокировкой строки вещи: бронь перечитывается уже под
+     * блокировкой, поэтому проверка статуса и пересечения видит результат предыдущего одобрения или отклонения,
+     * а параллельные запросы не упираются в @Version. В Postgres дополнительно действует exclusion constraint
+     */
 
-        List<Booking> bookings = finalQuery.fetch();
-        return bookings.stream()
-                .map(bookingMapper::bookingToBookingDto)
-                .collect(Collectors.toList());
+    private void lockItem(long itemId) {
+        itemRepository.findByIdForUpdate(itemId).orElseThrow(() ->
+                new NotFoundException("Вещь с id: " + itemId + " не найдена"));
     }
 
-    private void checkIfUserHasItems(long userId) {
-        List<Item> itemList = itemRepository.findItemsByOwnerIdOrderByIdAsc(userId);
-        if (itemList.isEmpty()) {
-            throw new NotFoundException("У пользователя с id: " + userId + "нет вещей во владении");
+    private void checkNoApprovedOverlap(Booking booking) {
+        long itemId = booking.getItem().getId();
+        if (bookingRepository.checkIfOtherApprovedBookingOverlaps(itemId, booking.getId(), booking.getStart(),
+                booking.getEnd())) {
+            throw new ItemNotAvailableException("Вещь с id: " + itemId + " уже забронирована на этот период");
+        }
+    }
+
+    private void checkBookingAllowed(long creatorId, Item item, CreatedBookingDto createdBookingDto) {
+        if (item.getOwnerId() == creatorId) {
+            throw new ForbiddenUserException("Вы не можете забронировать вашу вещь");
         }
+
+        if (!item.getAvailable()) {
+            throw new ItemNotAvailableException("Вещь с id: " + item.getId() + " недоступна для брони в данный момент");
+        }
+
+        if (approvedBookingIntervals.overlaps(item.getId(), createdBookingDto.getStart(), createdBookingDto.getEnd())) {
+            throw new ItemNotAvailableException("Вещь с id: " + item.getId() + " уже забронирована на этот период");
+        }
+    }
+
+    private Booking toNewBooking(CreatedBookingDto createdBookingDto, User booker, Item item) {
+        Booking booking = bookingMapper.createdBookingDtoToBooking(createdBookingDto);
+        booking.setBooker(booker);
+        booking.setItem(item);
+        booking.setStatus(Status.WAITING);
+        return booking;
     }
 }
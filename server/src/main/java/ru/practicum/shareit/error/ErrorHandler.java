@@ -1,6 +1,9 @@
 package ru.practicum.shareit.error;
 
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
@@ -13,10 +16,14 @@ import ru.practicum.shareit.exceptions.ForbiddenUserException;
 import ru.practicum.shareit.exceptions.ItemNotAvailableException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 
+import javax.persistence.OptimisticLockException;
+
 
 @RestControllerAdvice
 public class ErrorHandler {
 
+    private static final String APPROVED_OVERLAP_CONSTRAINT = "bookings_no_approved_overlap";
+
     @ExceptionHandler({MethodArgumentNotValidException.class,
             ItemNotAvailableException.class, MethodArgumentTypeMismatchException.class, IllegalStateException.class,
             MissingServletRequestParameterException.class, IllegalArgumentException.class,
@@ -38,6 +45,32 @@ public class ErrorHandler {
         return new ErrorResponse(e.getMessage());
     }
 
+    /**
+     * Параллельное изменение той же записи (@Version): запрос можно повторить с актуальными данными
+     */
+
+    @ExceptionHandler({OptimisticLockingFailureException.class, OptimisticLockException.class})
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ErrorResponse optimisticLockException(final RuntimeException e) {
+        return new ErrorResponse("Данные изменены параллельным запросом, повторите попытку");
+    }
+
+    /**
+     * 409 только для нарушения bookings_no_approved_overlap (параллельное одобрение пересекающихся броней),
+     * остальные нарушения ограничений БД, как и раньше, дают 500 без текста ошибки драйвера
+     */
+
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> dataIntegrityViolationException(final DataIntegrityViolationException e) {
+        String cause = e.getMostSpecificCause().getMessage();
+        if (cause != null && cause.contains(APPROVED_OVERLAP_CONSTRAINT)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ErrorResponse("Вещь уже забронирована на этот период"));
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(new ErrorResponse("Произошла непредвиденная ошибка."));
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleOtherErrors(final Throwable e) {
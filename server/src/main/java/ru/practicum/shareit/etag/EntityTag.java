@@ -0,0 +1,89 @@
+package ru.practicum.shareit.etag;
+
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * Сильный ETag ответа, вычисленный по версиям сущностей (@Version) без построения DTO. Кроме версии самой
+ * сущности в тег входят версии того, что попадает в ее DTO из других таблиц: тег меняется тогда и только тогда,
+ * когда могло измениться тело ответа
+ */
+
+public final class EntityTag {
+
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final String prefix;
+    private long hash = FNV_OFFSET_BASIS;
+
+    private EntityTag(String type, long id, long version) {
+        this.prefix = type + "-" + id + "-" + version;
+    }
+
+    public static EntityTag of(String type, long id, long version) {
+        return new EntityTag(type, id, version);
+    }
+
+    /**
+     * Добавляет в тег значение; отсутствующее значение (null) отличается от любого числа
+     */
+
+    public EntityTag with(@Nullable Long value) {
+        mix(value != null ? 1 : 0);
+        if (value != null) {
+            mix(value);
+        }
+        return this;
+    }
+
+    /**
+     * Добавляет в тег пары id/версия связанных сущностей в переданном порядке
+     */
+
+    public EntityTag with(List<? extends EntityVersion> versions) {
+        mix(versions.size());
+        versions.forEach(version -> {
+            mix(version.getId());
+            mix(version.getVersion());
+        });
+        return this;
+    }
+
+    /**
+     * Проверка If-None-Match: список тегов через запятую или "*". Слабые теги сравниваются без W/,
+     * как требует RFC 7232 для If-None-Match
+     */
+
+    public static boolean matches(@Nullable String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return "\"" + prefix + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    private void mix(long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash ^= (value >>> (i * Byte.SIZE)) & 0xff;
+            hash *= FNV_PRIME;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.etag;
+
+/**
+ * EntityVersion - проекция id и версии сущности для вычисления EntityTag без загрузки сущностей
+ */
+
+public interface EntityVersion {
+
+    Long getId();
+
+    Long getVersion();
+}
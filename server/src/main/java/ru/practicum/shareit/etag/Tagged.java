@@ -0,0 +1,33 @@
+package ru.practicum.shareit.etag;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
+
+/**
+ * Tagged - результат чтения сущности по id вместе с ее ETag. Если тег совпал с If-None-Match, DTO не строится
+ * и body равно null
+ */
+
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class Tagged<T> {
+
+    private final String eTag;
+
+    @Nullable
+    private final T body;
+
+    public static <T> Tagged<T> of(String eTag, T body) {
+        return new Tagged<>(eTag, body);
+    }
+
+    public static <T> Tagged<T> notModified(String eTag) {
+        return new Tagged<>(eTag, null);
+    }
+
+    public boolean isNotModified() {
+        return body == null;
+    }
+}
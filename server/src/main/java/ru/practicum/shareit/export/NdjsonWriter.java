@@ -0,0 +1,70 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Выгрузка в NDJSON (JSON-объект на строку) прямо в поток ответа потоковым генератором Jackson: строки
+ * не копятся в памяти, буфер генератора уходит клиенту chunked-ответом по мере заполнения. Content-Type и поток
+ * ответа выставляются на первой строке (для пустой выгрузки - в flush), поэтому ошибка до нее (например, 404)
+ * возвращается обычным ErrorResponse
+ */
+
+public class NdjsonWriter implements Closeable {
+
+    public static final String CONTENT_TYPE = "application/x-ndjson";
+
+    private final ObjectWriter objectWriter;
+    private final HttpServletResponse response;
+    private JsonGenerator generator;
+
+    public NdjsonWriter(ObjectMapper objectMapper, HttpServletResponse response) {
+        this.objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.response = response;
+    }
+
+    public void write(Object row) {
+        try {
+            start();
+            objectWriter.writeValue(generator, row);
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Завершение выгрузки: дописывает буфер генератора, пустая выгрузка получает Content-Type без тела
+     */
+
+    public void flush() throws IOException {
+        start();
+        generator.flush();
+    }
+
+    private void start() throws IOException {
+        if (generator == null) {
+            response.setContentType(CONTENT_TYPE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            generator = objectWriter.getFactory().createGenerator(response.getOutputStream(), JsonEncoding.UTF8)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .setRootValueSeparator(null);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (generator != null) {
+            generator.close();
+        }
+    }
+}
@@ -1,7 +1,11 @@
 package ru.practicum.shareit.item.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -12,6 +16,8 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.etag.Tagged;
+import ru.practicum.shareit.export.NdjsonWriter;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreatedCommentDto;
 import ru.practicum.shareit.item.dto.CreatedItemDto;
@@ -19,6 +25,9 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.UpdatedItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
@@ -30,6 +39,7 @@ import java.util.List;
 public class ItemController {
 
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Добавление вещи
@@ -64,22 +74,31 @@ public class ItemController {
     }
 
     /**
-     * Поиск вещи по id
+     * Поиск вещи по id. Если тег из If-None-Match совпадает с текущим, возвращается 304 без тела
      *
-     * @param userId id пользователя, делающего запрос
-     * @param itemId id вещи
+     * @param userId      id пользователя, делающего запрос
+     * @param itemId      id вещи
+     * @param ifNoneMatch теги ранее полученных версий
      * @return ItemDto
      */
 
     @GetMapping(path = "/{itemId}")
-    ResponseEntity<ItemDto> getItemById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable long itemId) {
-        return ResponseEntity.ok(itemService.getItemById(userId, itemId));
+    ResponseEntity<ItemDto> getItemById(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable long itemId,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                        String ifNoneMatch) {
+        Tagged<ItemDto> item = itemService.getItemById(userId, itemId, ifNoneMatch);
+        if (item.isNotModified()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(item.getETag()).build();
+        }
+        return ResponseEntity.ok().eTag(item.getETag()).body(item.getBody());
     }
 
     /**
-     * Поиск вещи по id
+     * Список вещей владельца. Без from/size - первая страница максимального размера
      *
      * @param ownerId id собственника
+     * @param from    номер страницы
+     * @param size    размер страницы, не больше shareit.paging.max-size
      * @return List<ItemDto>
      */
 
@@ -92,10 +111,28 @@ public class ItemController {
         return ResponseEntity.ok(itemDtoList);
     }
 
+    /**
+     * Выгрузка всех вещей владельца в NDJSON потоком, без ограничения размера страницы
+     *
+     * @param ownerId  id собственника
+     * @param response ответ, в который пишутся строки
+     */
+
+    @GetMapping("/export")
+    void exportItems(@RequestHeader("X-Sharer-User-Id") Long ownerId, HttpServletResponse response)
+            throws IOException {
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response)) {
+            itemService.exportItemsByOwnerId(ownerId, writer::write);
+            writer.flush();
+        }
+    }
+
     /**
      * Поиск вещи по имени/описанию
      *
      * @param text искомы текст
+     * @param from номер страницы
+     * @param size размер страницы, не больше shareit.paging.max-size
      * @return List<ItemDto>
      */
 
@@ -111,6 +148,27 @@ public class ItemController {
         return ResponseEntity.ok(itemDtoList);
     }
 
+    /**
+     * Календарь доступности вещи в NDJSON: занятые периоды и свободные окна по порядку, передается потоком
+     *
+     * @param itemId   id вещи
+     * @param from     начало периода (включительно)
+     * @param to       конец периода (не включительно)
+     * @param response ответ
+     */
+
+    @GetMapping("/{itemId}/availability")
+    void getItemAvailability(
+            @PathVariable long itemId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response)) {
+            itemService.getItemAvailability(itemId, from, to, writer::write);
+            writer.flush();
+        }
+    }
+
     /**
      * Добавление комментария
      *
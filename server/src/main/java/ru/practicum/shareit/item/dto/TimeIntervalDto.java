@@ -0,0 +1,21 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Полуинтервал [start, end) в календаре доступности вещи: период одобренных броней (busy) или свободное окно
+ */
+
+@Data
+@Builder
+@AllArgsConstructor
+public class TimeIntervalDto {
+
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private boolean busy;
+}
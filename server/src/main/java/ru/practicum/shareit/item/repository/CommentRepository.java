@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.etag.EntityVersion;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.model.Comment;
 
@@ -19,4 +20,7 @@ public interface CommentRepository extends JpaRepository<Comment, Long>, Queryds
     @Query("SELECT new ru.practicum.shareit.item.dto.CommentDto(c.id, c.text, c.author.name, c.created)" +
             " FROM Comment c WHERE c.item.id = :itemId")
     List<CommentDto> findCommentsByItemId(@Param("itemId") Long itemId);
+
+    @Query("SELECT c.id AS id, c.author.version AS version FROM Comment c WHERE c.item.id = :itemId ORDER BY c.id")
+    List<EntityVersion> findCommentVersionsByItemId(@Param("itemId") Long itemId);
 }
@@ -3,11 +3,20 @@ package ru.practicum.shareit.item.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.etag.EntityVersion;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ItemRepository extends JpaRepository<Item, Long>, QuerydslPredicateExecutor<Item> {
 
@@ -15,17 +24,42 @@ public interface ItemRepository extends JpaRepository<Item, Long>, QuerydslPredi
 
     Page<Item> findItemsByOwnerIdOrderByIdAsc(long ownerId, Pageable pageable);
 
+    boolean existsByOwnerId(long ownerId);
+
+    /**
+     * Выгрузка вещей владельца курсором, без бронирований и отзывов: строки сразу собираются в ItemDto
+     * и не попадают в контекст персистентности, драйвер читает их порциями по fetch size
+     */
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new ru.practicum.shareit.item.dto.ItemDto(i.id, i.name, i.description, i.ownerId, i.available, " +
+            "i.requestId) FROM Item i WHERE i.ownerId = :ownerId ORDER BY i.id")
+    Stream<ItemDto> streamItemDtosByOwnerId(@Param("ownerId") long ownerId);
+
+    List<EntityVersion> findVersionsByRequestIdOrderByIdAsc(long requestId);
+
     @Query(" select i from Item i " +
             "where i.available = true and (" +
             "      upper(i.name) like upper(concat('%', ?1, '%')) " +
             "   or upper(i.description) like upper(concat('%', ?1, '%'))" +
-            ")")
+            ") " +
+            "order by case when upper(i.name) like upper(concat('%', ?1, '%')) then 0 else 1 end, i.id")
     List<Item> searchItemsByText(String text);
 
-    @Query(" select i from Item i " +
+    @Query(value = " select i from Item i " +
             "where i.available = true and (" +
             "      upper(i.name) like upper(concat('%', ?1, '%')) " +
             "   or upper(i.description) like upper(concat('%', ?1, '%'))" +
-            ")")
+            ") " +
+            "order by case when upper(i.name) like upper(concat('%', ?1, '%')) then 0 else 1 end, i.id",
+            countQuery = " select count(i) from Item i " +
+                    "where i.available = true and (" +
+                    "      upper(i.name) like upper(concat('%', ?1, '%')) " +
+                    "   or upper(i.description) like upper(concat('%', ?1, '%'))" +
+                    ")")
     Page<Item> searchItemsByText(String text, Pageable pageable);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = ?1")
+    Optional<Item> findByIdForUpdate(long itemId);
 }
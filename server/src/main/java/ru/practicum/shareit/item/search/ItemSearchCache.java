@@ -0,0 +1,70 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш результатов поиска вещей. Каждая запись помечена поколением кэша, взятым до поиска; invalidate()
+ * меняет поколение сразу и повторно по завершении транзакции. Поиск, который прочитал данные до коммита,
+ * положит запись со старым поколением, и она уже не будет отдана
+ */
+
+@Component
+@RequiredArgsConstructor
+public class ItemSearchCache {
+
+    public static final String NAME = "itemSearch";
+
+    private final CacheManager cacheManager;
+    private final AtomicLong generation = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Supplier<T> search) {
+        Cache cache = cacheManager.getCache(NAME);
+        long current = generation.get();
+        if (cache == null) {
+            return search.get();
+        }
+        Entry cached = cache.get(key, Entry.class);
+        if (cached != null && cached.generation == current) {
+            return (T) cached.value;
+        }
+        T value = search.get();
+        cache.put(key, new Entry(current, value));
+        return value;
+    }
+
+    public void invalidate() {
+        nextGeneration();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    nextGeneration();
+                }
+            });
+        }
+    }
+
+    private void nextGeneration() {
+        generation.incrementAndGet();
+        Cache cache = cacheManager.getCache(NAME);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry {
+
+        private final long generation;
+        private final Object value;
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+/**
+ * ItemSearchIndex - движок поиска вещей по имени/описанию.
+ * Реализация выбирается свойством shareit.search.engine
+ */
+
+public interface ItemSearchIndex {
+
+    /**
+     * Поиск доступных вещей, содержащих текст в имени или описании
+     *
+     * @param text     искомый текст
+     * @param pageable страница (номер страницы и размер) или Pageable.unpaged()
+     * @return вещи в порядке убывания релевантности
+     */
+
+    List<Item> search(String text, Pageable pageable);
+
+    /**
+     * Обновление индекса после создания/изменения вещи. Движкам, которые ищут прямо по таблице items,
+     * синхронизация не нужна
+     *
+     * @param item сохраненная вещь
+     */
+
+    default void index(Item item) {
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+/**
+ * Переносимый поиск через JPQL LIKE. Используется по умолчанию (H2, тесты)
+ */
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "jpa", matchIfMissing = true)
+public class JpaItemSearchIndex implements ItemSearchIndex {
+
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        if (pageable.isPaged()) {
+            return itemRepository.searchItemsByText(text, pageable).getContent();
+        }
+        return itemRepository.searchItemsByText(text);
+    }
+}
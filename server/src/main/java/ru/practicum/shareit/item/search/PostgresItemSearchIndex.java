@@ -0,0 +1,42 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.List;
+
+/**
+ * Поиск на PostgreSQL: ILIKE обслуживается GIN-индексами pg_trgm (миграция db/migration/postgresql),
+ * релевантность - word_similarity искомого текста с именем/описанием
+ */
+
+@Component
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "postgres")
+public class PostgresItemSearchIndex implements ItemSearchIndex {
+
+    private static final String SEARCH_QUERY = "SELECT i.* FROM items i " +
+            "WHERE i.item_available = true " +
+            "AND (i.item_name ILIKE '%' || :text || '%' OR i.item_description ILIKE '%' || :text || '%') " +
+            "ORDER BY GREATEST(word_similarity(:text, i.item_name), " +
+            "word_similarity(:text, i.item_description)) DESC, i.item_id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Item> search(String text, Pageable pageable) {
+        Query query = entityManager.createNativeQuery(SEARCH_QUERY, Item.class)
+                .setParameter("text", text);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset())
+                    .setMaxResults(pageable.getPageSize());
+        }
+        return query.getResultList();
+    }
+}
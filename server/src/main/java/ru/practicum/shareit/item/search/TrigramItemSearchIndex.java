@@ -0,0 +1,303 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-process поиск по подстроке без расширений БД: для каждой триграммы имени/описания хранится отсортированный
+ * массив id вещей. Кандидаты - пересечение списков триграмм запроса, затем отбор по битовой карте доступности и
+ * проверка вхождения подстроки. Индекс строится при старте и обновляется после коммита createItem/updateItem;
+ * версия (@Version) вещи в индексе не дает более старому состоянию перезаписать более новое
+ */
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.search.engine", havingValue = "trigram")
+public class TrigramItemSearchIndex implements ItemSearchIndex {
+
+    private static final int GRAM_SIZE = 3;
+    private static final int BUILD_BATCH_SIZE = 1000;
+    private static final int LOAD_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private final Map<Long, IndexedText> texts = new HashMap<>();
+    private final BitSet available = new BitSet();
+
+    @PostConstruct
+    void build() {
+        Pageable pageable = PageRequest.of(0, BUILD_BATCH_SIZE, Sort.by("id"));
+        Page<Item> page;
+        do {
+            page = itemRepository.findAll(pageable);
+            page.forEach(this::apply);
+            pageable = page.nextPageable();
+        } while (page.hasNext());
+        log.info("Построен триграммный индекс вещей: {} вещей, {} триграмм", texts.size(), postings.size());
+    }
+
+    /**
+     * Индекс может отставать от БД, поэтому доступность перепроверяется по загруженным вещам до пагинации:
+     * offset и размер страницы отсчитываются только по доступным вещам. Вещи загружаются порциями в порядке
+     * релевантности, пока страница не заполнится
+     */
+
+    @Override
+    public List<Item> search(String text, Pageable pageable) {
+        List<Long> ids = searchIds(text);
+        long skip = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : ids.size();
+        List<Item> page = new ArrayList<>();
+        int fromIndex = 0;
+        while (fromIndex < ids.size() && page.size() < limit) {
+            long missing = skip + limit - page.size();
+            int toIndex = (int) Math.min(ids.size(), fromIndex + Math.min(missing, LOAD_BATCH_SIZE));
+            List<Long> batch = ids.subList(fromIndex, toIndex);
+            Map<Long, Item> itemsById = itemRepository.findAllById(batch).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            for (Long id : batch) {
+                Item item = itemsById.get(id);
+                if (item == null || !Boolean.TRUE.equals(item.getAvailable())) {
+                    continue;
+                }
+                if (skip > 0) {
+                    skip--;
+                } else if (page.size() < limit) {
+                    page.add(item);
+                }
+            }
+            fromIndex = toIndex;
+        }
+        return page;
+    }
+
+    /**
+     * Изменения применяются после коммита транзакции, чтобы откаченные правки не попадали в индекс. Снимок
+     * берется в afterCommit: к этому моменту flush уже увеличил версию вещи
+     */
+
+    @Override
+    public void index(Item item) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(item);
+                }
+            });
+        } else {
+            apply(item);
+        }
+    }
+
+    /**
+     * id доступных вещей, содержащих текст, в порядке релевантности: сначала совпадения по имени, затем по описанию
+     */
+
+    List<Long> searchIds(String text) {
+        String query = normalize(text);
+        lock.readLock().lock();
+        try {
+            long[] candidates = findCandidates(query);
+            List<Long> nameMatches = new ArrayList<>();
+            List<Long> descriptionMatches = new ArrayList<>();
+            for (long id : candidates) {
+                if (!available.get(Math.toIntExact(id))) {
+                    continue;
+                }
+                IndexedText indexedText = texts.get(id);
+                if (indexedText.name.contains(query)) {
+                    nameMatches.add(id);
+                } else if (indexedText.description.contains(query)) {
+                    descriptionMatches.add(id);
+                }
+            }
+            nameMatches.addAll(descriptionMatches);
+            return nameMatches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] findCandidates(String query) {
+        Set<Long> queryGrams = trigrams(query);
+        if (queryGrams.isEmpty()) {
+            return texts.keySet().stream()
+                    .mapToLong(Long::longValue)
+                    .sorted()
+                    .toArray();
+        }
+        List<PostingList> lists = new ArrayList<>();
+        for (Long gram : queryGrams) {
+            PostingList list = postings.get(gram);
+            if (list == null) {
+                return new long[0];
+            }
+            lists.add(list);
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        long[] result = lists.get(0).toArray();
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = lists.get(i).intersect(result);
+        }
+        return result;
+    }
+
+    /**
+     * Коллбэки afterCommit параллельных транзакций могут прийти в любом порядке: состояние с версией не новее
+     * уже проиндексированной пропускается
+     */
+
+    private void apply(Item item) {
+        long id = item.getId();
+        IndexedText newText = new IndexedText(item.getVersion(), normalize(item.getName()),
+                normalize(item.getDescription()));
+        lock.writeLock().lock();
+        try {
+            IndexedText current = texts.get(id);
+            if (current != null && current.version >= newText.version) {
+                return;
+            }
+            IndexedText oldText = texts.put(id, newText);
+            Set<Long> oldGrams = oldText == null ? Set.of() : oldText.trigrams();
+            Set<Long> newGrams = newText.trigrams();
+            for (Long gram : oldGrams) {
+                if (!newGrams.contains(gram)) {
+                    PostingList list = postings.get(gram);
+                    list.remove(id);
+                    if (list.size == 0) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+            for (Long gram : newGrams) {
+                if (!oldGrams.contains(gram)) {
+                    postings.computeIfAbsent(gram, key -> new PostingList()).add(id);
+                }
+            }
+            available.set(Math.toIntExact(id), Boolean.TRUE.equals(item.getAvailable()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Триграмма упаковывается в long: по 16 бит на символ
+     */
+
+    private static Set<Long> trigrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    private static final class IndexedText {
+
+        private final long version;
+        private final String name;
+        private final String description;
+
+        private IndexedText(long version, String name, String description) {
+            this.version = version;
+            this.name = name;
+            this.description = description;
+        }
+
+        private Set<Long> trigrams() {
+            Set<Long> grams = TrigramItemSearchIndex.trigrams(name);
+            grams.addAll(TrigramItemSearchIndex.trigrams(description));
+            return grams;
+        }
+    }
+
+    /**
+     * Отсортированный растущий массив id. Новые вещи получают большие id, поэтому добавление обычно - запись в конец
+     */
+
+    static final class PostingList {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        long[] intersect(long[] other) {
+            long[] result = new long[Math.min(size, other.length)];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size && j < other.length) {
+                if (ids[i] < other[j]) {
+                    i++;
+                } else if (ids[i] > other[j]) {
+                    j++;
+                } else {
+                    result[count++] = ids[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, count);
+        }
+    }
+}
@@ -1,13 +1,18 @@
 package ru.practicum.shareit.item.service;
 
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.etag.Tagged;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreatedCommentDto;
 import ru.practicum.shareit.item.dto.CreatedItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.TimeIntervalDto;
 import ru.practicum.shareit.item.dto.UpdatedItemDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface ItemService {
 
@@ -16,11 +21,28 @@ public interface ItemService {
 
     ItemDto updateItem(@NonNull long ownerId, long itemId, UpdatedItemDto updatedItemDto);
 
-    ItemDto getItemById(long userId, long itemId);
+    /**
+     * Вещь с ее ETag; если тег совпадает с ifNoneMatch, ItemDto не строится
+     */
+
+    Tagged<ItemDto> getItemById(long userId, long itemId, @Nullable String ifNoneMatch);
 
     List<ItemDto> getItemListByUserId(long userId, Long from, Long size);
 
+    /**
+     * Все вещи владельца по порядку id, без бронирований и отзывов; rows вызывается внутри транзакции
+     */
+
+    void exportItemsByOwnerId(long ownerId, Consumer<ItemDto> rows);
+
     List<ItemDto> searchItemsByText(@NonNull String text, Long from, Long size);
 
+    /**
+     * Календарь доступности вещи за [from, to): занятые периоды и свободные окна по порядку;
+     * intervals вызывается внутри транзакции
+     */
+
+    void getItemAvailability(long itemId, LocalDateTime from, LocalDateTime to, Consumer<TimeIntervalDto> intervals);
+
     CommentDto addComment(Long userId, Long itemId, CreatedCommentDto createdCommentDto);
 }
@@ -1,20 +1,24 @@
 package ru.practicum.shareit.item.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.ItemBookingInfo;
+import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.etag.EntityTag;
+import ru.practicum.shareit.etag.Tagged;
 import ru.practicum.shareit.exceptions.ForbiddenUserException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreatedCommentDto;
 import ru.practicum.shareit.item.dto.CreatedItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.TimeIntervalDto;
 import ru.practicum.shareit.item.dto.UpdatedItemDto;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
@@ -22,13 +26,23 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.paging.PageLimit;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
-import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -37,110 +51,212 @@ public class ItemServiceImpl implements ItemService {
 
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
-    private final UserService userService;
+    private final UserExistenceChecker userExistenceChecker;
     private final ItemMapper itemMapper;
     private final CommentMapper commentMapper;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemSearchCache itemSearchCache;
+    private final PageLimit pageLimit;
 
 
     @Transactional
     @Override
     @NonNull
     public ItemDto createItem(@NonNull long ownerId, CreatedItemDto createdItemDto) {
-        userService.getUserById(ownerId);
+        userExistenceChecker.checkExists(ownerId);
         Item item = itemMapper.createdItemDtoToItem(createdItemDto);
         item.setOwnerId(ownerId);
-        return itemMapper.itemToItemDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        itemSearchIndex.index(savedItem);
+        if (Boolean.TRUE.equals(savedItem.getAvailable())) {
+            itemSearchCache.invalidate();
+        }
+        return itemMapper.itemToItemDto(savedItem);
     }
 
     @Transactional
     @Override
     public ItemDto updateItem(@NonNull long ownerId, long itemId, UpdatedItemDto updatedItemDto) {
-        userService.getUserById(ownerId);
+        userExistenceChecker.checkExists(ownerId);
         Item updateditem = itemRepository.findById(itemId).orElseThrow(() ->
                 new NotFoundException("Вещь с id: " + itemId + " не найдена"));
         if (updateditem.getOwnerId() != ownerId) {
             throw new ForbiddenUserException("Данные о вещи может обновлять только владелец");
         }
+        String oldName = updateditem.getName();
+        String oldDescription = updateditem.getDescription();
+        Boolean oldAvailable = updateditem.getAvailable();
         Item item = itemMapper.updatedItemDtoToItem(updatedItemDto);
         updateditem.updateWith(item);
-        return itemMapper.itemToItemDto(itemRepository.save(updateditem));
+        Item savedItem = itemRepository.save(updateditem);
+        itemSearchIndex.index(savedItem);
+        if (!Objects.equals(oldName, savedItem.getName())
+                || !Objects.equals(oldDescription, savedItem.getDescription())
+                || !Objects.equals(oldAvailable, savedItem.getAvailable())) {
+            itemSearchCache.invalidate();
+        }
+        return itemMapper.itemToItemDto(savedItem);
     }
 
+    /**
+     * Вещь и ее букинги читаются один раз: из них считается тег, а если он не совпал с ifNoneMatch - строится
+     * ItemDto. Тег повторяет состав ItemDto: версия вещи, для владельца - id последнего и следующего букинга
+     * (они меняются и со временем), версии авторов отзывов (в отзыве отдается имя автора)
+     */
+
     @Override
-    public ItemDto getItemById(long userId, long itemId) {
+    public Tagged<ItemDto> getItemById(long userId, long itemId, @Nullable String ifNoneMatch) {
         Item foundItem = itemRepository.findById(itemId).orElseThrow(() ->
                 new NotFoundException("Вещь с id: " + itemId + " не найдена"));
+        EntityTag eTag = EntityTag.of("item", itemId, foundItem.getVersion());
         if (foundItem.getOwnerId() == userId) {
-            addNextAndLastBookings(foundItem);
+            addNextAndLastBookings(List.of(foundItem));
+            eTag.with(bookingId(foundItem.getLastBooking()))
+                    .with(bookingId(foundItem.getNextBooking()));
+        }
+        String tag = eTag.with(commentRepository.findCommentVersionsByItemId(itemId)).toString();
+        if (EntityTag.matches(ifNoneMatch, tag)) {
+            return Tagged.notModified(tag);
         }
         foundItem.setComments(commentRepository.findCommentsByItemId(itemId));
-        return itemMapper.itemToItemDto(foundItem);
+        return Tagged.of(tag, itemMapper.itemToItemDto(foundItem));
     }
 
     @Override
     public List<ItemDto> getItemListByUserId(long userId, Long from, Long size) {
-        if (from != null && size != null) {
-            Pageable pageable = PageRequest.of(from.intValue(), size.intValue());
-            return itemRepository.findItemsByOwnerIdOrderByIdAsc(userId, pageable).stream()
-                    .map(this::addNextAndLastBookings)
-                    .map(itemMapper::itemToItemDto)
-                    .collect(Collectors.toList());
-        } else {
-            return itemRepository.findItemsByOwnerIdOrderByIdAsc(userId).stream()
-                    .map(this::addNextAndLastBookings)
-                    .map(itemMapper::itemToItemDto)
-                    .collect(Collectors.toList());
+        List<Item> items = itemRepository.findItemsByOwnerIdOrderByIdAsc(userId, pageLimit.pageOf(from, size))
+                .getContent();
+        return addNextAndLastBookings(items).stream()
+                .map(itemMapper::itemToItemDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void exportItemsByOwnerId(long ownerId, Consumer<ItemDto> rows) {
+        try (Stream<ItemDto> items = itemRepository.streamItemDtosByOwnerId(ownerId)) {
+            items.forEach(rows);
         }
     }
 
     @Override
     public List<ItemDto> searchItemsByText(@NonNull String text, Long from, Long size) {
-        if (from != null && size != null) {
-            Pageable pageable = PageRequest.of(from.intValue(), size.intValue());
-            return itemRepository.searchItemsByText(text, pageable).stream()
-                    .map(itemMapper::itemToItemDto)
-                    .collect(Collectors.toList());
-        } else {
-            return itemRepository.searchItemsByText(text).stream()
-                    .map(itemMapper::itemToItemDto)
-                    .collect(Collectors.toList());
+        return itemSearchCache.get(Arrays.asList(text.toUpperCase(Locale.ROOT), from, size), () ->
+                itemSearchIndex.search(text, pageLimit.pageOf(from, size)).stream()
+                        .map(itemMapper::itemToItemDto)
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Периоды одобренных броней читаются одним запросом в порядке начала без загрузки сущностей Booking;
+     * соприкасающиеся периоды объединяются. Занятые периоды и свободные окна между ними передаются в intervals
+     * по порядку, как только окно закрыто, поэтому память не зависит от длины периода [from, to)
+     */
+
+    @Override
+    public void getItemAvailability(long itemId, LocalDateTime from, LocalDateTime to,
+                                    Consumer<TimeIntervalDto> intervals) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("Начало периода должно быть раньше его окончания");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("Вещь с id: " + itemId + " не найдена");
+        }
+        LocalDateTime freeFrom = from;
+        try (Stream<BookingInterval> bookings = bookingRepository
+                .findByItemIdAndStatusAndStartBeforeAndEndAfterOrderByStartAsc(itemId, Status.APPROVED, to, from)) {
+            LocalDateTime busyStart = null;
+            LocalDateTime busyEnd = null;
+            Iterator<BookingInterval> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                BookingInterval interval = iterator.next();
+                LocalDateTime start = interval.getStart().isBefore(from) ? from : interval.getStart();
+                LocalDateTime end = interval.getEnd().isAfter(to) ? to : interval.getEnd();
+                if (busyEnd != null && !start.isAfter(busyEnd)) {
+                    if (end.isAfter(busyEnd)) {
+                        busyEnd = end;
+                    }
+                    continue;
+                }
+                if (busyEnd != null) {
+                    freeFrom = emitBusyInterval(intervals, freeFrom, busyStart, busyEnd);
+                }
+                busyStart = start;
+                busyEnd = end;
+            }
+            if (busyEnd != null) {
+                freeFrom = emitBusyInterval(intervals, freeFrom, busyStart, busyEnd);
+            }
+        }
+        if (freeFrom.isBefore(to)) {
+            intervals.accept(new TimeIntervalDto(freeFrom, to, false));
         }
     }
 
+    /**
+     * Завершенная бронь гарантирует существование вещи, поэтому вещь не загружается, а подставляется ссылкой.
+     * Автор загружается ради имени в ответе
+     */
+
     @Transactional
     @Override
     public CommentDto addComment(Long userId, Long itemId, CreatedCommentDto createdCommentDto) {
         User author = userRepository.findById(userId).orElseThrow(() ->
                 new NotFoundException("Пользователь с id: " + userId + " не найден"));
-        Item item = itemRepository.findById(itemId).orElseThrow(() ->
-                new NotFoundException("Вещь с id: " + itemId + " не найдена"));
         if (!bookingRepository.checkIfCompletedBookingExistsForItemByUserId(userId, itemId)) {
+            if (!itemRepository.existsById(itemId)) {
+                throw new NotFoundException("Вещь с id: " + itemId + " не найдена");
+            }
             throw new IllegalStateException("У пользователя с id: " + userId + " нет завершенных букингов с id "
                     + itemId);
         }
 
         Comment comment = commentMapper.createdCoomentDtoToComment(createdCommentDto);
-        comment.setItem(item);
+        comment.setItem(itemRepository.getReferenceById(itemId));
         comment.setAuthor(author);
-        Comment savedComment = commentRepository.save(comment);
-        Comment uploadedComment = commentRepository.findById(savedComment.getId())
-                .orElseThrow(() -> new IllegalStateException("Ошибка при загрузке Comment." +
-                        " Метод вернул null."));
-        return commentMapper.commentToCommentDto(uploadedComment);
+        return commentMapper.commentToCommentDto(commentRepository.save(comment));
+    }
+
+    /**
+     * Проставляет lastBooking и nextBooking сразу для всего списка вещей: два запроса независимо от размера списка
+     */
+
+    private List<Item> addNextAndLastBookings(List<Item> items) {
+        if (items.isEmpty()) {
+            return items;
+        }
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        Map<Long, BookingInfoDto> lastBookings = toBookingInfoByItemId(
+                bookingRepository.findLastBookingsByItemIds(itemIds));
+        Map<Long, BookingInfoDto> nextBookings = toBookingInfoByItemId(
+                bookingRepository.findNextBookingsByItemIds(itemIds));
+
+        items.forEach(item -> {
+            item.setLastBooking(lastBookings.get(item.getId()));
+            item.setNextBooking(nextBookings.get(item.getId()));
+        });
+        return items;
     }
 
-    private Item addNextAndLastBookings(Item item) {
-        Pageable limit = PageRequest.of(0, 1);
-        Page<BookingInfoDto> lastBookingPage = bookingRepository.findLastBookingByItemId(item.getId(), limit);
-        Page<BookingInfoDto> nextBookingPage = bookingRepository.findNextBookingByItemId(item.getId(), limit);
+    private Map<Long, BookingInfoDto> toBookingInfoByItemId(List<ItemBookingInfo> bookings) {
+        return bookings.stream()
+                .collect(Collectors.toMap(ItemBookingInfo::getItemId,
+                        booking -> new BookingInfoDto(booking.getId(), booking.getBookerId())));
+    }
 
-        Optional<BookingInfoDto> lastBookingOpt = lastBookingPage.get().findFirst();
-        lastBookingOpt.ifPresent(item::setLastBooking);
+    private static Long bookingId(BookingInfoDto booking) {
+        return booking != null ? booking.getId() : null;
+    }
 
-        Optional<BookingInfoDto> nextBookingOpt = nextBookingPage.get().findFirst();
-        nextBookingOpt.ifPresent(item::setNextBooking);
-        return item;
+    private static LocalDateTime emitBusyInterval(Consumer<TimeIntervalDto> intervals, LocalDateTime freeFrom,
+                                                  LocalDateTime busyStart, LocalDateTime busyEnd) {
+        if (busyStart.isAfter(freeFrom)) {
+            intervals.accept(new TimeIntervalDto(freeFrom, busyStart, false));
+        }
+        intervals.accept(new TimeIntervalDto(busyStart, busyEnd, true));
+        return busyEnd;
     }
 }
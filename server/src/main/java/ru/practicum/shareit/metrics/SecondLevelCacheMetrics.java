@@ -0,0 +1,42 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Доля попаданий во второй уровень кэша Hibernate по регионам. Счетчики попаданий и промахов публикует
+ * стандартный HibernateMetrics, здесь к ним добавляется готовое отношение для подбора размеров регионов
+ */
+
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheMetrics implements MeterBinder {
+
+    public static final String HIT_RATIO = "hibernate.second.level.cache.hit.ratio";
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            Gauge.builder(HIT_RATIO, statistics, stats -> hitRatio(stats.getDomainDataRegionStatistics(region)))
+                    .tag("region", region)
+                    .description("Доля попаданий в регион второго уровня кэша")
+                    .register(registry);
+        }
+    }
+
+    private static double hitRatio(CacheRegionStatistics regionStatistics) {
+        long requests = regionStatistics.getHitCount() + regionStatistics.getMissCount();
+        return requests == 0 ? 0 : (double) regionStatistics.getHitCount() / requests;
+    }
+}
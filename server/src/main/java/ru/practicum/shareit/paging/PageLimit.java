@@ -0,0 +1,51 @@
+package ru.practicum.shareit.paging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Обязательный предел размера страницы списков. Без from/size возвращается первая страница максимального
+ * размера, size больше максимального отклоняется. Все записи целиком отдают только эндпоинты /export
+ */
+
+@Component
+public class PageLimit {
+
+    private final int maxSize;
+
+    public PageLimit(@Value("${shareit.paging.max-size:1000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Запрошенный размер страницы или максимальный, если размер не указан
+     */
+
+    public int size(@Nullable Long size) {
+        if (size == null) {
+            return maxSize;
+        }
+        if (size > maxSize) {
+            throw new IllegalArgumentException("Размер списка не может быть больше " + maxSize);
+        }
+        return size.intValue();
+    }
+
+    /**
+     * Страница по номеру (from - номер страницы, как в списках вещей и пользователей)
+     */
+
+    public Pageable pageOf(@Nullable Long from, @Nullable Long size) {
+        if (from != null && size != null) {
+            return PageRequest.of(from.intValue(), size(size));
+        }
+        return PageRequest.of(0, maxSize);
+    }
+}
@@ -2,6 +2,8 @@ package ru.practicum.shareit.request.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,6 +13,7 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.etag.Tagged;
 import ru.practicum.shareit.request.dto.CreatedItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -79,20 +82,27 @@ public class ItemRequestController {
     }
 
     /**
-     * Получение информации о запросе по его id
+     * Получение информации о запросе по его id. Если тег из If-None-Match совпадает с текущим,
+     * возвращается 304 без тела
      *
-     * @param userId    id пользователя
-     * @param requestId id запроса
+     * @param userId      id пользователя
+     * @param requestId   id запроса
+     * @param ifNoneMatch теги ранее полученных версий
      * @return ItemRequestDto
      */
 
     @GetMapping("/{requestId}")
     ResponseEntity<ItemRequestDto> getRequestByItemRequestId(
             @RequestHeader("X-Sharer-User-Id") Long userId,
-            @PathVariable Long requestId
+            @PathVariable Long requestId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
     ) {
-        ItemRequestDto itemRequestDto = itemRequestService.getRequestByItemRequestId(userId, requestId);
-        log.debug("Найден запрос с id={}", itemRequestDto.getId());
-        return ResponseEntity.ok(itemRequestDto);
+        Tagged<ItemRequestDto> itemRequest = itemRequestService.getRequestByItemRequestId(userId, requestId,
+                ifNoneMatch);
+        if (itemRequest.isNotModified()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(itemRequest.getETag()).build();
+        }
+        log.debug("Найден запрос с id={}", requestId);
+        return ResponseEntity.ok().eTag(itemRequest.getETag()).body(itemRequest.getBody());
     }
 }
@@ -18,8 +18,10 @@ import javax.persistence.ManyToOne;
 import javax.persistence.NamedAttributeNode;
 import javax.persistence.NamedEntityGraph;
 import javax.persistence.PrePersist;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 import javax.persistence.Transient;
+import javax.persistence.Version;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -42,7 +44,8 @@ import java.util.List;
 public class ItemRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq", allocationSize = 50)
     @Column(name = "request_id", nullable = false)
     private Long id;
     @Column(name = "request_description", nullable = false)
@@ -52,6 +55,9 @@ public class ItemRequest {
     private User requestor;
     @Column(name = "created", nullable = false)
     private LocalDateTime created;
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
     @Transient
     private List<ItemDto> items;
 
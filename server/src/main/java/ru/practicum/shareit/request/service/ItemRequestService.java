@@ -1,5 +1,7 @@
 package ru.practicum.shareit.request.service;
 
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.etag.Tagged;
 import ru.practicum.shareit.request.dto.CreatedItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 
@@ -13,7 +15,9 @@ public interface ItemRequestService {
 
     List<ItemRequestDto> getAllItemRequestList(long userId, Long from, Long size);
 
-    ItemRequestDto getRequestByItemRequestId(long userId, long requestId);
-
+    /**
+     * Запрос с его ETag; если тег совпадает с ifNoneMatch, ItemRequestDto не строится
+     */
 
+    Tagged<ItemRequestDto> getRequestByItemRequestId(long userId, long requestId, @Nullable String ifNoneMatch);
 }
@@ -4,23 +4,30 @@ import com.querydsl.core.types.Projections;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.etag.EntityTag;
+import ru.practicum.shareit.etag.Tagged;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.model.QItem;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.CreatedItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.mapper.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.model.QItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
-import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -32,23 +39,23 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     private final ItemRequestRepository itemRequestRepository;
     private final ItemRequestMapper itemRequestMapper;
+    private final ItemRepository itemRepository;
     private final UserRepository userRepository;
+    private final UserExistenceChecker userExistenceChecker;
 
     @Transactional
     @Override
     public ItemRequestDto addItemRequest(long userId, CreatedItemRequestDto createdItemRequestDto) {
-        User requestor = userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с id: " + userId + " не найден"));
+        userExistenceChecker.checkExists(userId);
         ItemRequest itemRequest = itemRequestMapper.createdItemRequestDtoToItemRequest(createdItemRequestDto);
-        itemRequest.setRequestor(requestor);
+        itemRequest.setRequestor(userRepository.getReferenceById(userId));
         ItemRequest savedRequest = itemRequestRepository.save(itemRequest);
         return itemRequestMapper.itemRequestToItemRequestDto(savedRequest);
     }
 
     @Override
     public List<ItemRequestDto> getItemRequestListByUserId(long ownerId) {
-        userRepository.findById(ownerId).orElseThrow(() ->
-                new NotFoundException("Пользователь с id: " + ownerId + " не найден"));
+        userExistenceChecker.checkExists(ownerId);
 
         QItemRequest qItemRequest = QItemRequest.itemRequest;
         JPAQueryFactory queryFactory = new JPAQueryFactory(entityManager);
@@ -63,18 +70,14 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                 .orderBy(qItemRequest.created.desc())
                 .fetch();
 
-        itemRequestDtos.forEach(dto -> {
-            List<ItemDto> items = findItemsByRequestId(dto.getId());
-            dto.setItems(items);
-        });
+        addItems(itemRequestDtos);
         return itemRequestDtos;
     }
 
 
     @Override
     public List<ItemRequestDto> getAllItemRequestList(long userId, Long from, Long size) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с id: " + userId + " не найден"));
+        userExistenceChecker.checkExists(userId);
 
         JPAQueryFactory queryFactory = new JPAQueryFactory(entityManager);
         QItemRequest qItemRequest = QItemRequest.itemRequest;
@@ -94,24 +97,49 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
         List<ItemRequestDto> itemRequestDtos = query.fetch();
 
-        itemRequestDtos.forEach(dto -> {
-            List<ItemDto> items = findItemsByRequestId(dto.getId());
-            dto.setItems(items);
-        });
+        addItems(itemRequestDtos);
         return itemRequestDtos;
     }
 
+    /**
+     * Запрос читается один раз: из него считается тег, а если тег не совпал с ifNoneMatch - строится
+     * ItemRequestDto. Тег повторяет состав ItemRequestDto: версия запроса и версии вещей, созданных в ответ на него
+     */
+
     @Override
-    public ItemRequestDto getRequestByItemRequestId(long userId, long requestId) {
-        userRepository.findById(userId).orElseThrow(() ->
-                new NotFoundException("Пользователь с id: " + userId + " не найден"));
+    public Tagged<ItemRequestDto> getRequestByItemRequestId(long userId, long requestId,
+                                                            @Nullable String ifNoneMatch) {
+        userExistenceChecker.checkExists(userId);
         ItemRequest itemRequest = itemRequestRepository.findById(requestId).orElseThrow(() ->
                 new NotFoundException("Запрос с id: " + requestId + " не найден"));
-        itemRequest.setItems(findItemsByRequestId(requestId));
-        return (itemRequestMapper.itemRequestToItemRequestDto(itemRequest));
+        String eTag = EntityTag.of("request", requestId, itemRequest.getVersion())
+                .with(itemRepository.findVersionsByRequestIdOrderByIdAsc(requestId))
+                .toString();
+        if (EntityTag.matches(ifNoneMatch, eTag)) {
+            return Tagged.notModified(eTag);
+        }
+        itemRequest.setItems(findItemsByRequestIds(List.of(requestId))
+                .getOrDefault(requestId, Collections.emptyList()));
+        return Tagged.of(eTag, itemRequestMapper.itemRequestToItemRequestDto(itemRequest));
     }
 
-    private List<ItemDto> findItemsByRequestId(Long requestId) {
+    /**
+     * Заполняет списки вещей для всех запросов одним запросом к items
+     */
+
+    private void addItems(List<ItemRequestDto> itemRequestDtos) {
+        if (itemRequestDtos.isEmpty()) {
+            return;
+        }
+        List<Long> requestIds = itemRequestDtos.stream()
+                .map(ItemRequestDto::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<ItemDto>> itemsByRequestId = findItemsByRequestIds(requestIds);
+        itemRequestDtos.forEach(dto ->
+                dto.setItems(itemsByRequestId.getOrDefault(dto.getId(), Collections.emptyList())));
+    }
+
+    private Map<Long, List<ItemDto>> findItemsByRequestIds(List<Long> requestIds) {
         QItem qItem = QItem.item;
         JPAQueryFactory queryFactory = new JPAQueryFactory(entityManager);
         return queryFactory
@@ -123,9 +151,10 @@ public class ItemRequestServiceImpl implements ItemRequestService {
                         qItem.available,
                         qItem.requestId))
                 .from(qItem)
-                .where(qItem.requestId.eq(requestId))
-                .fetch();
+                .where(qItem.requestId.in(requestIds))
+                .orderBy(qItem.id.asc())
+                .fetch()
+                .stream()
+                .collect(Collectors.groupingBy(ItemDto::getRequestId));
     }
 }
-
-
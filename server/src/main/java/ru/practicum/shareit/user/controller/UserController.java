@@ -1,7 +1,10 @@
 package ru.practicum.shareit.user.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,13 +12,19 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.etag.Tagged;
+import ru.practicum.shareit.export.NdjsonWriter;
 import ru.practicum.shareit.user.dto.CreatedUserDto;
 import ru.practicum.shareit.user.dto.UpdatedUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +36,7 @@ import java.util.Map;
 public class UserController {
 
     private final UserService userService;
+    private final ObjectMapper objectMapper;
 
     /**
      * Добавление пользователя
@@ -59,15 +69,22 @@ public class UserController {
     }
 
     /**
-     * Поиск пользователя по id
+     * Поиск пользователя по id. Если тег из If-None-Match совпадает с текущим, возвращается 304 без тела
      *
-     * @param id id пользователя
+     * @param id          id пользователя
+     * @param ifNoneMatch теги ранее полученных версий
      * @return UserDto
      */
 
     @GetMapping(path = "/{id}")
-    ResponseEntity<UserDto> getUserById(@PathVariable long id) {
-        return ResponseEntity.ok(userService.getUserById(id));
+    ResponseEntity<UserDto> getUserById(@PathVariable long id,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                        String ifNoneMatch) {
+        Tagged<UserDto> user = userService.getUserById(id, ifNoneMatch);
+        if (user.isNotModified()) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(user.getETag()).build();
+        }
+        return ResponseEntity.ok().eTag(user.getETag()).body(user.getBody());
     }
 
     /**
@@ -87,13 +104,30 @@ public class UserController {
     }
 
     /**
-     * Поиск пользователя по id
+     * Список пользователей по порядку id. Без from/size - первая страница максимального размера
      *
+     * @param from номер страницы
+     * @param size размер страницы, не больше shareit.paging.max-size
      * @return List<UserDto>
      */
 
     @GetMapping
-    ResponseEntity<List<UserDto>> getUserList() {
-        return ResponseEntity.ok(userService.getUserList());
+    ResponseEntity<List<UserDto>> getUserList(@RequestParam(required = false) Long from,
+                                              @RequestParam(required = false) Long size) {
+        return ResponseEntity.ok(userService.getUserList(from, size));
+    }
+
+    /**
+     * Выгрузка всех пользователей в NDJSON потоком, без ограничения размера страницы
+     *
+     * @param response ответ, в который пишутся строки
+     */
+
+    @GetMapping("/export")
+    void exportUsers(HttpServletResponse response) throws IOException {
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, response)) {
+            userService.exportUsers(writer::write);
+            writer.flush();
+        }
     }
 }
@@ -1,8 +1,27 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.querydsl.QuerydslPredicateExecutor;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+
 public interface UserRepository extends JpaRepository<User, Long>, QuerydslPredicateExecutor<User> {
+
+    List<User> findAllByOrderByIdAsc(Pageable pageable);
+
+    /**
+     * Выгрузка всех пользователей курсором: строки сразу собираются в UserDto и не попадают в контекст
+     * персистентности, драйвер читает их порциями по fetch size
+     */
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new ru.practicum.shareit.user.dto.UserDto(u.id, u.name, u.email) FROM User u ORDER BY u.id")
+    Stream<UserDto> streamAllUserDtos();
 }
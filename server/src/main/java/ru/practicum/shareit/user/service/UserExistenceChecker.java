@@ -0,0 +1,32 @@
+package ru.practicum.shareit.user.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Проверка существования пользователя без загрузки сущности: сначала регион users второго уровня кэша,
+ * из которого удаленные пользователи вытесняются при коммите, затем запрос count по первичному ключу
+ */
+
+@Component
+@RequiredArgsConstructor
+public class UserExistenceChecker {
+
+    private final UserRepository userRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public boolean exists(long userId) {
+        return entityManagerFactory.getCache().contains(User.class, userId) || userRepository.existsById(userId);
+    }
+
+    public void checkExists(long userId) {
+        if (!exists(userId)) {
+            throw new NotFoundException("Пользователь с id: " + userId + " не найден");
+        }
+    }
+}
@@ -1,11 +1,14 @@
 package ru.practicum.shareit.user.service;
 
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import ru.practicum.shareit.etag.Tagged;
 import ru.practicum.shareit.user.dto.CreatedUserDto;
 import ru.practicum.shareit.user.dto.UpdatedUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserService {
 
@@ -14,11 +17,21 @@ public interface UserService {
 
     UserDto updateUser(@NonNull long id, UpdatedUserDto updatedUserDto);
 
-    UserDto getUserById(long id);
+    /**
+     * Пользователь с его ETag; если тег совпадает с ifNoneMatch, UserDto не строится
+     */
+
+    Tagged<UserDto> getUserById(long id, @Nullable String ifNoneMatch);
 
     @NonNull
     void removeUserById(long id);
 
     @NonNull
-    List<UserDto> getUserList();
+    List<UserDto> getUserList(Long from, Long size);
+
+    /**
+     * Все пользователи по порядку id; rows вызывается внутри транзакции
+     */
+
+    void exportUsers(Consumer<UserDto> rows);
 }
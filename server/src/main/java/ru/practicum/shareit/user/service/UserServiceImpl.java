@@ -3,10 +3,14 @@ package ru.practicum.shareit.user.service;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.etag.EntityTag;
+import ru.practicum.shareit.etag.Tagged;
 import ru.practicum.shareit.exceptions.EmailAlreadyExistsException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.paging.PageLimit;
 import ru.practicum.shareit.user.dto.CreatedUserDto;
 import ru.practicum.shareit.user.dto.UpdatedUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -14,9 +18,10 @@ import ru.practicum.shareit.user.mapper.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
-import java.util.Comparator;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -25,6 +30,7 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final PageLimit pageLimit;
 
 
     @Transactional
@@ -32,8 +38,9 @@ public class UserServiceImpl implements UserService {
     @NonNull
     public UserDto createUser(@NonNull CreatedUserDto createdUserDto) {
         User user = userMapper.createdUserDtoToUser(createdUserDto);
+        // id берется из sequence, и вставка откладывается до flush: конфликт email нужно получить здесь
         try {
-            return userMapper.userToUserDto(userRepository.save(user));
+            return userMapper.userToUserDto(userRepository.saveAndFlush(user));
         } catch (DataIntegrityViolationException e) {
             throw new EmailAlreadyExistsException("Пользователь с таким Email уже существует");
         }
@@ -47,18 +54,21 @@ public class UserServiceImpl implements UserService {
         User user = userMapper.updatedUserDtoToUser(updatedUserDto);
         updatedUser.updateWith(user);
         try {
-            return userMapper.userToUserDto(userRepository.save(updatedUser));
+            return userMapper.userToUserDto(userRepository.saveAndFlush(updatedUser));
         } catch (DataIntegrityViolationException e) {
             throw new EmailAlreadyExistsException("Пользователь с таким Email уже существует");
         }
     }
 
     @Override
-    @NonNull
-    public UserDto getUserById(long id) {
+    public Tagged<UserDto> getUserById(long id, @Nullable String ifNoneMatch) {
         User foundedUser = userRepository.findById(id).orElseThrow(() ->
                 new NotFoundException("Пользователь с id: " + id + " не найден"));
-        return userMapper.userToUserDto(foundedUser);
+        String eTag = EntityTag.of("user", id, foundedUser.getVersion()).toString();
+        if (EntityTag.matches(ifNoneMatch, eTag)) {
+            return Tagged.notModified(eTag);
+        }
+        return Tagged.of(eTag, userMapper.userToUserDto(foundedUser));
     }
 
     @Transactional
@@ -69,10 +79,16 @@ public class UserServiceImpl implements UserService {
 
     @Override
     @NonNull
-    public List<UserDto> getUserList() {
-        return userRepository.findAll().stream()
+    public List<UserDto> getUserList(Long from, Long size) {
+        return userRepository.findAllByOrderByIdAsc(pageLimit.pageOf(from, size)).stream()
                 .map(userMapper::userToUserDto)
-                .sorted(Comparator.comparing(UserDto::getId))
                 .collect(Collectors.toList());
     }
+
+    @Override
+    public void exportUsers(Consumer<UserDto> rows) {
+        try (Stream<UserDto> users = userRepository.streamAllUserDtos()) {
+            users.forEach(rows);
+        }
+    }
 }
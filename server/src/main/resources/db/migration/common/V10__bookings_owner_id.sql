@@ -0,0 +1,13 @@
+-- владелец вещи копируется в бронь: список броней владельца читается одним индексом в порядке
+-- (start_date desc, booking_id desc), без слияния броней всех его вещей. Владелец у вещи не меняется
+alter table bookings
+    add column owner_id integer;
+
+update bookings
+set owner_id = (select items.item_ownerid from items where items.item_id = bookings.item_id);
+
+alter table bookings
+    alter column owner_id set not null;
+
+create index if not exists bookings_owner_id_start_date_idx
+    on bookings (owner_id, start_date desc, booking_id desc);
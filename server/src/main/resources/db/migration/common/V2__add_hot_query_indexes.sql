@@ -0,0 +1,34 @@
+alter table bookings
+    add constraint bookings_pk
+        primary key (booking_id);
+
+-- списки букингов пользователя и владельца: фильтр по букеру/вещи, сортировка (start_date, booking_id)
+create index if not exists bookings_booker_id_start_date_idx
+    on bookings (booker_id, start_date desc, booking_id desc);
+
+create index if not exists bookings_item_id_start_date_idx
+    on bookings (item_id, start_date desc, booking_id desc);
+
+-- последний/следующий подтвержденный букинг вещи и проверка завершенной брони перед отзывом
+create index if not exists bookings_item_id_status_start_date_idx
+    on bookings (item_id, booking_status, start_date);
+
+create index if not exists bookings_item_id_status_end_date_idx
+    on bookings (item_id, booking_status, end_date);
+
+-- вещи владельца в порядке item_id и вещи, созданные в ответ на запрос
+create index if not exists items_item_ownerid_item_id_idx
+    on items (item_ownerid, item_id);
+
+create index if not exists items_request_id_idx
+    on items (request_id);
+
+create index if not exists comments_item_id_idx
+    on comments (item_id);
+
+-- запросы пользователя и общая лента запросов, отсортированные по created
+create index if not exists requests_requestor_id_created_idx
+    on requests (requestor_id, created desc);
+
+create index if not exists requests_created_idx
+    on requests (created desc);
@@ -0,0 +1,11 @@
+-- id выдаются из sequence пулами по 50 (pooled-lo), поэтому identity вещей больше не должна запрещать явный id
+alter table items
+    alter column item_id set generated by default;
+
+create sequence if not exists users_seq start with 1 increment by 50;
+
+create sequence if not exists requests_seq start with 1 increment by 50;
+
+create sequence if not exists items_seq start with 1 increment by 50;
+
+create sequence if not exists comments_seq start with 1 increment by 50;
@@ -0,0 +1,12 @@
+-- версии сущностей для оптимистической блокировки и ETag ответов: каждое изменение строки увеличивает version
+alter table users
+    add column version bigint default 0 not null;
+
+alter table items
+    add column version bigint default 0 not null;
+
+alter table bookings
+    add column version bigint default 0 not null;
+
+alter table requests
+    add column version bigint default 0 not null;
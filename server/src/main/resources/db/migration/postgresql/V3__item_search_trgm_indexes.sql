@@ -0,0 +1,8 @@
+create extension if not exists pg_trgm;
+
+-- ILIKE '%text%' по имени и описанию вещи для PostgresItemSearchIndex
+create index if not exists items_item_name_trgm_idx
+    on items using gin (item_name gin_trgm_ops);
+
+create index if not exists items_item_description_trgm_idx
+    on items using gin (item_description gin_trgm_ops);
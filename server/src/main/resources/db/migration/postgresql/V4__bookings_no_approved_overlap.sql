@@ -0,0 +1,43 @@
+create extension if not exists btree_gist;
+
+-- до появления ограничения приложение допускало пересекающиеся одобренные брони одной вещи: такие данные
+-- сначала исправляются, иначе alter table ниже завершится ошибкой и сервер не запустится. Из пересекающихся
+-- броней вещи одобренной остается более ранняя (по start_date, затем booking_id), следующие переводятся в
+-- REJECTED
+do
+$$
+    declare
+        booking      record;
+        current_item integer;
+        kept_end     timestamp;
+        rejected     integer := 0;
+    begin
+        for booking in
+            select booking_id, item_id, start_date, end_date
+            from bookings
+            where booking_status = 'APPROVED'
+            order by item_id, start_date, booking_id
+            loop
+                if current_item is distinct from booking.item_id then
+                    current_item := booking.item_id;
+                    kept_end := null;
+                end if;
+                -- пустой интервал ни с чем не пересекается
+                continue when booking.end_date <= booking.start_date;
+                if kept_end is not null and booking.start_date < kept_end then
+                    update bookings set booking_status = 'REJECTED' where booking_id = booking.booking_id;
+                    rejected := rejected + 1;
+                else
+                    kept_end := booking.end_date;
+                end if;
+            end loop;
+        raise notice 'bookings_no_approved_overlap: % overlapping approved bookings rejected', rejected;
+    end
+$$;
+
+-- tsrange вычисляется для всех строк таблицы, не только одобренных: старые брони с end_date раньше
+-- start_date считаются пустым интервалом, а не прерывают создание ограничения
+alter table bookings
+    add constraint bookings_no_approved_overlap
+        exclude using gist (item_id with =, tsrange(start_date, greatest(start_date, end_date)) with &&)
+        where (booking_status = 'APPROVED');
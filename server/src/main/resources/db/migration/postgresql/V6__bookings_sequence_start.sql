@@ -0,0 +1 @@
+select setval('bookings_seq', (select coalesce(max(booking_id), 0) + 1 from bookings), false);
@@ -0,0 +1,7 @@
+select setval('users_seq', (select coalesce(max(user_id), 0) + 1 from users), false);
+
+select setval('requests_seq', (select coalesce(max(request_id), 0) + 1 from requests), false);
+
+select setval('items_seq', (select coalesce(max(item_id), 0) + 1 from items), false);
+
+select setval('comments_seq', (select coalesce(max(comment_id), 0) + 1 from comments), false);
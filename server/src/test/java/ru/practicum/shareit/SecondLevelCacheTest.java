@@ -0,0 +1,132 @@
+package ru.practicum.shareit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.UpdatedItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.metrics.SecondLevelCacheMetrics;
+import ru.practicum.shareit.user.dto.UpdatedUserDto;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Второй уровень кэша для User и Item. Тест не транзакционный: в регион попадают только закоммиченные данные
+ */
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class SecondLevelCacheTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    Statistics statistics;
+    User user;
+    Item item;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = userRepository.save(User.builder()
+                .name("user")
+                .email("cached@user.com")
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Электрическая дрель")
+                .ownerId(user.getId())
+                .available(true)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getUserById_whenUserCached_thenNoStatements() {
+        userService.getUserById(user.getId(), null);
+        statistics.clear();
+
+        UserDto userDto = userService.getUserById(user.getId(), null).getBody();
+
+        assertThat(userDto.getName(), equalTo("user"));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(0L));
+        assertThat(region("users").getHitCount(), equalTo(1L));
+        assertThat(meterRegistry.get(SecondLevelCacheMetrics.HIT_RATIO).tag("region", "users").gauge().value(),
+                greaterThan(0.0));
+    }
+
+    @Test
+    void updateUser_whenUserCached_thenCacheReturnsUpdatedUser() {
+        userService.getUserById(user.getId(), null);
+
+        userService.updateUser(user.getId(), UpdatedUserDto.builder().name("updated").build());
+
+        assertThat(userService.getUserById(user.getId(), null).getBody().getName(), equalTo("updated"));
+    }
+
+    @Test
+    void removeUserById_whenUserCached_thenUserNotFound() {
+        itemRepository.deleteAll();
+        userService.getUserById(user.getId(), null);
+
+        userService.removeUserById(user.getId());
+
+        assertThrows(NotFoundException.class, () -> userService.getUserById(user.getId(), null));
+    }
+
+    @Test
+    void updateItem_whenItemCached_thenCacheReturnsUpdatedItem() {
+        itemService.getItemById(user.getId(), item.getId(), null);
+        statistics.clear();
+
+        itemService.updateItem(user.getId(), item.getId(), UpdatedItemDto.builder().name("Перфоратор").build());
+        ItemDto itemDto = itemService.getItemById(user.getId(), item.getId(), null).getBody();
+
+        assertThat(itemDto.getName(), equalTo("Перфоратор"));
+        assertThat(region("items").getHitCount(), greaterThan(0L));
+    }
+
+    private CacheRegionStatistics region(String name) {
+        return statistics.getDomainDataRegionStatistics(name);
+    }
+}
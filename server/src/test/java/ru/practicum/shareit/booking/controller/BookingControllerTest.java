@@ -8,6 +8,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreatedBookingDto;
 import ru.practicum.shareit.booking.model.Status;
@@ -22,10 +24,12 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -80,6 +84,28 @@ public class BookingControllerTest {
             .status(Status.APPROVED)
             .build();
 
+    @SneakyThrows
+    @Test
+    void createBookings_whenValidRequest_thenReturnResultPerEntry() {
+        Long creatorId = 1L;
+        List<BookingBatchResultDto> results = List.of(
+                BookingBatchResultDto.builder().index(0).booking(bookingDto).build(),
+                BookingBatchResultDto.builder().index(1).error("Вещь с id: 2 не найдена").build());
+
+        when(bookingService.createBookings(eq(creatorId), any()))
+                .thenReturn(results);
+
+        mockMvc.perform(post("/bookings/batch")
+                        .header("X-Sharer-User-Id", creatorId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(createdBookingDto, createdBookingDto))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(2))
+                .andExpect(jsonPath("$[0].booking.id").value(bookingDto.getId()))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].error").value("Вещь с id: 2 не найдена"));
+    }
+
     @SneakyThrows
     @Test
     void createBooking_whenValidRequest_thenReturnStatusOkWithBookingDtoInBody() {
@@ -212,4 +238,64 @@ public class BookingControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.length()").value(bookingList.size()));
     }
+
+    @SneakyThrows
+    @Test
+    void getBookingListCreatedByUserId_whenCursorAndFullPage_thenReturnNextCursorHeader() {
+        Long userId = 1L;
+        String state = "ALL";
+        long size = 1L;
+
+        BookingDto bookingDto = BookingDto.builder()
+                .id(5L)
+                .item(itemDto)
+                .booker(userDto)
+                .start(LocalDateTime.of(2024, Month.FEBRUARY, 5, 15, 30))
+                .end(LocalDateTime.of(2024, Month.FEBRUARY, 10, 12, 0))
+                .status(Status.WAITING)
+                .build();
+
+        when(bookingService.getBookingListCreatedByUserIdAfterCursor(eq(userId), eq(state), isNull(), eq(size)))
+                .thenReturn(List.of(bookingDto));
+
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("state", state)
+                        .param("cursor", "")
+                        .param("size", String.valueOf(size)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(header().string("X-Next-Cursor", BookingCursor.of(bookingDto).encode()));
+    }
+
+    @SneakyThrows
+    @Test
+    void getBookingListForAllOwnerItems_whenCursorGiven_thenPassDecodedCursorToService() {
+        Long userId = 1L;
+        String state = "ALL";
+        long size = 10L;
+        BookingCursor cursor = new BookingCursor(LocalDateTime.of(2024, Month.FEBRUARY, 5, 15, 30), 5L);
+
+        when(bookingService.getBookingListForAllOwnerItemsAfterCursor(eq(userId), eq(state), eq(cursor), eq(size)))
+                .thenReturn(List.of());
+
+        mockMvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", userId)
+                        .param("state", state)
+                        .param("cursor", cursor.encode())
+                        .param("size", String.valueOf(size)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
+    @SneakyThrows
+    @Test
+    void getBookingListCreatedByUserId_whenCursorMalformed_thenReturnStatusBadRequest() {
+        mockMvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("cursor", "not-a-cursor")
+                        .param("size", "10"))
+                .andExpect(status().isBadRequest());
+    }
 }
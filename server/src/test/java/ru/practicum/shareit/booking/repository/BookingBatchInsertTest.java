@@ -0,0 +1,74 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+/**
+ * Вставка вперемешку пользователей, вещей и броней. С IDENTITY каждая строка - отдельный INSERT, с sequence
+ * и order_inserts строки собираются в JDBC-пакеты по batch_size
+ */
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class BookingBatchInsertTest {
+
+    private static final int ROWS = 1_000;
+    private static final int BATCH_SIZE = 50;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void persist_whenEntitiesInterleaved_thenInsertedInJdbcBatches() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+        for (int i = 0; i < ROWS; i++) {
+            User user = User.builder()
+                    .name("user" + i)
+                    .email("batch" + i + "@user.com")
+                    .build();
+            entityManager.persist(user);
+            Item item = Item.builder()
+                    .name("item" + i)
+                    .description("description" + i)
+                    .ownerId(user.getId())
+                    .available(true)
+                    .build();
+            entityManager.persist(item);
+            entityManager.persist(Booking.builder()
+                    .item(item)
+                    .booker(user)
+                    .start(start)
+                    .end(start.plusDays(1))
+                    .status(Status.WAITING)
+                    .build());
+        }
+        entityManager.flush();
+
+        long batchesPerEntity = ROWS / BATCH_SIZE;
+        assertThat(statistics.getEntityInsertCount(), equalTo(3L * ROWS));
+        // по пакету вставок на каждые 50 строк и не больше одного обращения к sequence на них же
+        assertThat(statistics.getPrepareStatementCount(),
+                lessThanOrEqualTo(3 * (batchesPerEntity + batchesPerEntity + 1)));
+    }
+}
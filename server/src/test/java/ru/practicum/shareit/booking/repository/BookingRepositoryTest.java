@@ -6,15 +6,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.dto.ItemBookingInfo;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -109,7 +108,7 @@ public class BookingRepositoryTest {
     }
 
     @Test
-    void findLastBookingByItemId_WhenBookingExists_thenReturnBookingInfo() {
+    void findLastBookingsByItemIds_WhenBookingExists_thenReturnBookingInfo() {
         Booking pastBooking = Booking.builder()
                 .item(item1)
                 .booker(user1)
@@ -120,19 +119,19 @@ public class BookingRepositoryTest {
         entityManager.persist(pastBooking);
         entityManager.flush();
 
-        Page<BookingInfoDto> result = bookingRepository.findLastBookingByItemId(item1.getId(),
-                PageRequest.of(0, 10));
+        List<ItemBookingInfo> result = bookingRepository.findLastBookingsByItemIds(List.of(item1.getId()));
 
         assertFalse(result.isEmpty());
-        assertEquals(1, result.getContent().size());
+        assertEquals(1, result.size());
 
-        BookingInfoDto bookingInfoDto = result.getContent().get(0);
-        assertEquals(pastBooking.getId(), bookingInfoDto.getId());
-        assertEquals(user1.getId(), bookingInfoDto.getBookerId());
+        ItemBookingInfo bookingInfo = result.get(0);
+        assertEquals(item1.getId(), bookingInfo.getItemId());
+        assertEquals(pastBooking.getId(), bookingInfo.getId());
+        assertEquals(user1.getId(), bookingInfo.getBookerId());
     }
 
     @Test
-    void findLastBookingByItemId_WhenNoBookingExists_thenReturnEmptyResult() {
+    void findLastBookingsByItemIds_WhenNoBookingExists_thenReturnEmptyResult() {
         Booking pastBookingWithWrongStatus = Booking.builder()
                 .item(item1)
                 .booker(user1)
@@ -143,14 +142,13 @@ public class BookingRepositoryTest {
         entityManager.persist(pastBookingWithWrongStatus);
         entityManager.flush();
 
-        Page<BookingInfoDto> result = bookingRepository.findLastBookingByItemId(item1.getId(),
-                PageRequest.of(0, 10));
+        List<ItemBookingInfo> result = bookingRepository.findLastBookingsByItemIds(List.of(item1.getId()));
 
         assertTrue(result.isEmpty());
     }
 
     @Test
-    void findNextBookingByItemId_WhenBookingExists_thenReturnBookingInfo() {
+    void findNextBookingsByItemIds_WhenBookingExists_thenReturnBookingInfo() {
         Booking futureBooking = Booking.builder()
                 .item(item1)
                 .booker(user1)
@@ -161,19 +159,19 @@ public class BookingRepositoryTest {
         entityManager.persist(futureBooking);
         entityManager.flush();
 
-        Page<BookingInfoDto> result = bookingRepository.findNextBookingByItemId(item1.getId(),
-                PageRequest.of(0, 10));
+        List<ItemBookingInfo> result = bookingRepository.findNextBookingsByItemIds(List.of(item1.getId()));
 
         assertFalse(result.isEmpty());
-        assertEquals(1, result.getContent().size());
+        assertEquals(1, result.size());
 
-        BookingInfoDto bookingInfoDto = result.getContent().get(0);
-        assertEquals(futureBooking.getId(), bookingInfoDto.getId());
-        assertEquals(user1.getId(), bookingInfoDto.getBookerId());
+        ItemBookingInfo bookingInfo = result.get(0);
+        assertEquals(item1.getId(), bookingInfo.getItemId());
+        assertEquals(futureBooking.getId(), bookingInfo.getId());
+        assertEquals(user1.getId(), bookingInfo.getBookerId());
     }
 
     @Test
-    void findNextBookingByItemId_WhenNoBookingExists_thenReturnEmptyResult() {
+    void findNextBookingsByItemIds_WhenNoBookingExists_thenReturnEmptyResult() {
         Booking futureBookingWithWrongStatus = Booking.builder()
                 .item(item1)
                 .booker(user1)
@@ -184,12 +182,60 @@ public class BookingRepositoryTest {
         entityManager.persist(futureBookingWithWrongStatus);
         entityManager.flush();
 
-        Page<BookingInfoDto> result = bookingRepository.findNextBookingByItemId(item1.getId(),
-                PageRequest.of(0, 10));
+        List<ItemBookingInfo> result = bookingRepository.findNextBookingsByItemIds(List.of(item1.getId()));
 
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void findLastAndNextBookingsByItemIds_WhenSeveralItems_thenReturnOneBookingPerItem() {
+        Booking olderPastBooking = Booking.builder()
+                .item(item1)
+                .booker(user1)
+                .start(LocalDateTime.now().minusDays(10))
+                .end(LocalDateTime.now().minusDays(8))
+                .status(Status.APPROVED)
+                .build();
+        Booking pastBooking = Booking.builder()
+                .item(item1)
+                .booker(user1)
+                .start(LocalDateTime.now().minusDays(5))
+                .end(LocalDateTime.now().minusDays(3))
+                .status(Status.APPROVED)
+                .build();
+        Booking nearFutureBooking = Booking.builder()
+                .item(item2)
+                .booker(user1)
+                .start(LocalDateTime.now().plusDays(2))
+                .end(LocalDateTime.now().plusDays(4))
+                .status(Status.APPROVED)
+                .build();
+        Booking farFutureBooking = Booking.builder()
+                .item(item2)
+                .booker(user1)
+                .start(LocalDateTime.now().plusDays(10))
+                .end(LocalDateTime.now().plusDays(12))
+                .status(Status.APPROVED)
+                .build();
+        entityManager.persist(olderPastBooking);
+        entityManager.persist(pastBooking);
+        entityManager.persist(nearFutureBooking);
+        entityManager.persist(farFutureBooking);
+        entityManager.flush();
+
+        List<Long> itemIds = List.of(item1.getId(), item2.getId());
+        List<ItemBookingInfo> lastBookings = bookingRepository.findLastBookingsByItemIds(itemIds);
+        List<ItemBookingInfo> nextBookings = bookingRepository.findNextBookingsByItemIds(itemIds);
+
+        assertEquals(1, lastBookings.size());
+        assertEquals(item1.getId(), lastBookings.get(0).getItemId());
+        assertEquals(pastBooking.getId(), lastBookings.get(0).getId());
+
+        assertEquals(1, nextBookings.size());
+        assertEquals(item2.getId(), nextBookings.get(0).getItemId());
+        assertEquals(nearFutureBooking.getId(), nextBookings.get(0).getId());
+    }
+
     @Test
     void checkIfCompletedBookingExistsForItemByUserId_WhenBookingExists_thenReturnTrue() {
         Booking pastBooking = Booking.builder()
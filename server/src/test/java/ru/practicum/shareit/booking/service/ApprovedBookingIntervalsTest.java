@@ -0,0 +1,48 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ApprovedBookingIntervalsTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void intervalSet_whenIntervalsDisjoint_thenOverlapChecksBothNeighbours() {
+        ApprovedBookingIntervals.IntervalSet intervals = new ApprovedBookingIntervals.IntervalSet();
+        intervals.add(hour(10), hour(12));
+        intervals.add(hour(1), hour(3));
+
+        assertTrue(intervals.overlaps(hour(2), hour(4)));
+        assertTrue(intervals.overlaps(hour(11), hour(20)));
+        assertTrue(intervals.overlaps(hour(0), hour(30)));
+        assertFalse(intervals.overlaps(hour(3), hour(10)));
+        assertFalse(intervals.overlaps(hour(12), hour(13)));
+        assertEquals(2, intervals.size());
+    }
+
+    @Test
+    void intervalSet_whenIntervalsOverlapOrTouch_thenMerged() {
+        ApprovedBookingIntervals.IntervalSet intervals = new ApprovedBookingIntervals.IntervalSet();
+        intervals.add(hour(1), hour(10));
+        intervals.add(hour(2), hour(3));
+        intervals.add(hour(10), hour(12));
+        intervals.add(hour(20), hour(22));
+        intervals.add(hour(15), hour(21));
+
+        assertEquals(2, intervals.size());
+        assertTrue(intervals.overlaps(hour(5), hour(6)));
+        assertTrue(intervals.overlaps(hour(11), hour(13)));
+        assertTrue(intervals.overlaps(hour(16), hour(17)));
+        assertFalse(intervals.overlaps(hour(12), hour(15)));
+    }
+
+    private static LocalDateTime hour(int hours) {
+        return BASE.plusHours(hours);
+    }
+}
@@ -0,0 +1,178 @@
+package ru.practicum.shareit.booking.service;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.mapper.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.QBooking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Проекция списка букингов в BookingDto против прежнего чтения сущностей с fetch join и BookingMapper
+ * на странице из 1000 строк: результат тот же, но сущности не попадают в контекст персистентности,
+ * а выделение памяти на запрос (по ThreadMXBean, после прогрева) меньше
+ */
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class BookingListProjectionTest {
+
+    private static final long PAGE_SIZE = 1000;
+    private static final int ITEMS = 20;
+    private static final int BOOKERS = 100;
+    private static final int WARMUP_CALLS = 10;
+    private static final int MEASURED_CALLS = 20;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingMapper bookingMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    User owner;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("owner@user.com")
+                .build());
+        List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < BOOKERS; i++) {
+            bookers.add(userRepository.save(User.builder()
+                    .name("booker" + i)
+                    .email("booker" + i + "@user.com")
+                    .build()));
+        }
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(itemRepository.save(Item.builder()
+                    .name("Дрель " + i)
+                    .description("Простая дрель, сверла в комплекте")
+                    .ownerId(owner.getId())
+                    .available(true)
+                    .build()));
+        }
+        LocalDateTime start = LocalDateTime.now().minusYears(5);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            bookings.add(Booking.builder()
+                    .item(items.get(i % ITEMS))
+                    .booker(bookers.get(i % BOOKERS))
+                    .start(start.plusDays(i * 2L))
+                    .end(start.plusDays(i * 2L + 1))
+                    .status(Status.APPROVED)
+                    .build());
+        }
+        bookingRepository.saveAll(bookings);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getBookingListForAllOwnerItems_whenProjection_thenSameBookingsAndNoManagedEntities() {
+        Session session = entityManager.unwrap(Session.class);
+
+        List<BookingDto> projected = ownerPage();
+        int managedAfterProjection = session.getStatistics().getEntityCount();
+        List<BookingDto> mapped = ownerPageFromEntities();
+        int managedAfterEntities = session.getStatistics().getEntityCount();
+
+        assertThat(projected.size(), equalTo((int) PAGE_SIZE));
+        assertThat(projected, equalTo(mapped));
+        assertThat(managedAfterProjection, equalTo(0));
+        assertThat(managedAfterEntities, greaterThan((int) PAGE_SIZE));
+    }
+
+    @Test
+    void getBookingListForAllOwnerItems_whenThousandRows_thenProjectionAllocatesLessThanEntities() {
+        long entities = allocatedPerCall(this::ownerPageFromEntities);
+        long projection = allocatedPerCall(this::ownerPage);
+
+        assertThat(projection, lessThan(entities));
+    }
+
+    private List<BookingDto> ownerPage() {
+        return bookingService.getBookingListForAllOwnerItems(owner.getId(), "ALL", 0L, PAGE_SIZE);
+    }
+
+    /**
+     * Прежняя реализация списка: сущности с fetch join и BookingMapper на каждую строку
+     */
+
+    private List<BookingDto> ownerPageFromEntities() {
+        QBooking booking = QBooking.booking;
+        return new JPAQuery<Void>(entityManager)
+                .select(booking)
+                .from(booking)
+                .leftJoin(booking.item).fetchJoin()
+                .leftJoin(booking.booker).fetchJoin()
+                .where(booking.item.ownerId.eq(owner.getId()))
+                .orderBy(booking.start.desc(), booking.id.desc())
+                .offset(0)
+                .limit(PAGE_SIZE)
+                .fetch()
+                .stream()
+                .map(bookingMapper::bookingToBookingDto)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Контекст персистентности очищается после каждого вызова, как между отдельными запросами
+     */
+
+    private long allocatedPerCall(Supplier<List<BookingDto>> call) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            call.get();
+            entityManager.clear();
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            call.get();
+            entityManager.clear();
+        }
+        return (threads.getThreadAllocatedBytes(threadId) - before) / MEASURED_CALLS;
+    }
+}
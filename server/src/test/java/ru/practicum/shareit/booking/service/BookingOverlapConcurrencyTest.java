@@ -0,0 +1,195 @@
+package ru.practicum.shareit.booking.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.CreatedBookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.ItemNotAvailableException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.oneOf;
+
+/**
+ * Конкурентные попытки забронировать одну вещь на пересекающиеся периоды. Тест не транзакционный:
+ * каждая операция сервиса коммитится отдельно, как при параллельных запросах
+ */
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class BookingOverlapConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    User owner;
+    List<User> bookers;
+    Item item;
+    LocalDateTime start;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("owner@user.com")
+                .build());
+        bookers = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookers.add(userRepository.save(User.builder()
+                    .name("booker" + i)
+                    .email("booker" + i + "@user.com")
+                    .build()));
+        }
+        item = itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Электрическая дрель")
+                .ownerId(owner.getId())
+                .available(true)
+                .build());
+        start = LocalDateTime.now().plusDays(1).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookingRepository.deleteAll();
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void updateBookingStatus_whenOverlappingBookingsApprovedConcurrently_thenOnlyOneIsApproved() throws Exception {
+        List<Long> bookingIds = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            bookingIds.add(bookingService.createBooking(bookers.get(i).getId(), CreatedBookingDto.builder()
+                    .itemId(item.getId())
+                    .start(start.plusHours(i))
+                    .end(start.plusHours(i + THREADS))
+                    .build()).getId());
+        }
+
+        List<Throwable> failures = runConcurrently(bookingIds.stream()
+                .map(bookingId -> (Callable<BookingDto>) () ->
+                        bookingService.updateBookingStatus(owner.getId(), bookingId, true))
+                .collect(Collectors.toList()));
+
+        List<Booking> approved = bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() == Status.APPROVED)
+                .collect(Collectors.toList());
+        assertThat(approved.size(), equalTo(1));
+        assertThat(failures.size(), equalTo(THREADS - 1));
+        failures.forEach(failure -> assertThat(failure, is(instanceOf(ItemNotAvailableException.class))));
+    }
+
+    @Test
+    void createBooking_whenPeriodAlreadyApproved_thenConcurrentAttemptsRejected() throws Exception {
+        BookingDto first = bookingService.createBooking(bookers.get(0).getId(), CreatedBookingDto.builder()
+                .itemId(item.getId())
+                .start(start)
+                .end(start.plusDays(2))
+                .build());
+        bookingService.updateBookingStatus(owner.getId(), first.getId(), true);
+
+        List<Callable<BookingDto>> attempts = new ArrayList<>();
+        for (int i = 1; i < THREADS; i++) {
+            long bookerId = bookers.get(i).getId();
+            LocalDateTime attemptStart = start.plusHours(i);
+            attempts.add(() -> bookingService.createBooking(bookerId, CreatedBookingDto.builder()
+                    .itemId(item.getId())
+                    .start(attemptStart)
+                    .end(attemptStart.plusHours(1))
+                    .build()));
+        }
+
+        List<Throwable> failures = runConcurrently(attempts);
+
+        assertThat(failures.size(), equalTo(THREADS - 1));
+        failures.forEach(failure -> assertThat(failure, is(instanceOf(ItemNotAvailableException.class))));
+        assertThat(bookingRepository.count(), equalTo(1L));
+    }
+
+    @Test
+    void updateBookingStatus_whenApprovedAndRejectedConcurrently_thenBothAppliedInTurn() throws Exception {
+        for (int round = 0; round < ROUNDS; round++) {
+            long bookingId = bookingService.createBooking(bookers.get(0).getId(), CreatedBookingDto.builder()
+                    .itemId(item.getId())
+                    .start(start.plusDays(round))
+                    .end(start.plusDays(round).plusHours(1))
+                    .build()).getId();
+
+            List<Throwable> failures = runConcurrently(List.of(
+                    () -> bookingService.updateBookingStatus(owner.getId(), bookingId, true),
+                    () -> bookingService.updateBookingStatus(owner.getId(), bookingId, false)));
+
+            assertThat(failures, is(empty()));
+            assertThat(bookingRepository.findById(bookingId).orElseThrow().getStatus(),
+                    is(oneOf(Status.APPROVED, Status.REJECTED)));
+        }
+    }
+
+    private List<Throwable> runConcurrently(List<Callable<BookingDto>> tasks) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch startGate = new CountDownLatch(1);
+        try {
+            List<Future<BookingDto>> futures = tasks.stream()
+                    .map(task -> executor.submit(() -> {
+                        startGate.await();
+                        return task.call();
+                    }))
+                    .collect(Collectors.toList());
+            startGate.countDown();
+            List<Throwable> failures = new ArrayList<>();
+            for (Future<BookingDto> future : futures) {
+                try {
+                    future.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                } catch (TimeoutException e) {
+                    failures.add(e);
+                }
+            }
+            return failures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
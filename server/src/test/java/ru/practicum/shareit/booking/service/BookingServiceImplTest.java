@@ -1,11 +1,15 @@
 package ru.practicum.shareit.booking.service;
 
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.util.Streamable;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreatedBookingDto;
 import ru.practicum.shareit.booking.mapper.BookingMapper;
@@ -21,16 +25,22 @@ import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -52,9 +62,23 @@ public class BookingServiceImplTest {
     @Mock
     private BookingMapper bookingMapper;
 
+    @Mock
+    private ApprovedBookingIntervals approvedBookingIntervals;
+
+    @Mock
+    private UserExistenceChecker userExistenceChecker;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private BookingServiceImpl bookingService;
 
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bookingService, "entityManager", entityManager);
+    }
+
     User user = User.builder()
             .id(1L)
             .name("user")
@@ -177,7 +201,6 @@ public class BookingServiceImplTest {
         when(itemRepository.findById(createdBookingDto.getItemId())).thenReturn(Optional.of(item));
         when(bookingMapper.createdBookingDtoToBooking(createdBookingDto)).thenReturn(booking);
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.ofNullable(booking));
         when(bookingMapper.bookingToBookingDto(booking)).thenReturn(bookingDto);
 
         BookingDto result = bookingService.createBooking(creatorId, createdBookingDto);
@@ -242,14 +265,63 @@ public class BookingServiceImplTest {
         verify(itemRepository, times(1)).findById(item.getId());
     }
 
+    @Test
+    void createBooking_whenPeriodOverlapsApprovedBooking_thenThrowItemNotAvailableException() {
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(approvedBookingIntervals.overlaps(item.getId(), createdBookingDto.getStart(), createdBookingDto.getEnd()))
+                .thenReturn(true);
+
+        assertThrows(ItemNotAvailableException.class, () ->
+                bookingService.createBooking(user.getId(), createdBookingDto));
+
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
+    @Test
+    void createBookings_whenEntriesMixed_thenSavesValidOnesAndReportsErrors() {
+        CreatedBookingDto ownItemDto = CreatedBookingDto.builder()
+                .itemId(3L)
+                .start(createdBookingDto.getStart())
+                .end(createdBookingDto.getEnd())
+                .build();
+        CreatedBookingDto missingItemDto = CreatedBookingDto.builder()
+                .itemId(4L)
+                .start(createdBookingDto.getStart())
+                .end(createdBookingDto.getEnd())
+                .build();
+        Item ownItem = Item.builder()
+                .id(3L)
+                .ownerId(user.getId())
+                .available(true)
+                .build();
+
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        when(itemRepository.findAllById(Set.of(1L, 3L, 4L))).thenReturn(List.of(item, ownItem));
+        when(bookingMapper.createdBookingDtoToBooking(createdBookingDto)).thenReturn(booking);
+        when(bookingMapper.bookingToBookingDto(booking)).thenReturn(bookingDto);
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(user.getId(),
+                List.of(createdBookingDto, ownItemDto, missingItemDto));
+
+        assertEquals(3, results.size());
+        assertEquals(bookingDto, results.get(0).getBooking());
+        assertEquals("Вы не можете забронировать вашу вещь", results.get(1).getError());
+        assertEquals("Вещь с id: 4 не найдена", results.get(2).getError());
+        assertEquals(Status.WAITING, booking.getStatus());
+        verify(approvedBookingIntervals, times(1)).preload(Set.of(1L, 3L));
+        verify(bookingRepository, times(1)).saveAll(argThat((Iterable<Booking> bookings) ->
+                List.of(booking).equals(Streamable.of(bookings).toList())));
+    }
+
     @Test
     void updateBookingStatus_whenValidRequest_thenUpdateStatus() {
         long userId = 1L;
         long bookingId = 1L;
         boolean status = true;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user2));
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(bookingWithItemSameOwner));
+        when(itemRepository.findByIdForUpdate(itemSameOwner.getId())).thenReturn(Optional.of(itemSameOwner));
         when(bookingMapper.bookingToBookingDto(any(Booking.class))).thenReturn(bookingDtoWithItemSameOwner);
 
         BookingDto result = bookingService.updateBookingStatus(userId, bookingId, status);
@@ -257,6 +329,40 @@ public class BookingServiceImplTest {
         assertNotNull(result);
         assertEquals(bookingDtoWithItemSameOwner, result);
         verify(bookingRepository, times(1)).save(bookingWithItemSameOwner);
+        verify(approvedBookingIntervals, times(1)).addAfterCommit(itemSameOwner.getId(),
+                bookingWithItemSameOwner.getStart(), bookingWithItemSameOwner.getEnd());
+    }
+
+    @Test
+    void updateBookingStatus_whenApprovedBookingOverlaps_thenThrowItemNotAvailableException() {
+        long userId = 1L;
+        long bookingId = 1L;
+
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(bookingWithItemSameOwner));
+        when(itemRepository.findByIdForUpdate(itemSameOwner.getId())).thenReturn(Optional.of(itemSameOwner));
+        when(bookingRepository.checkIfOtherApprovedBookingOverlaps(itemSameOwner.getId(), bookingId,
+                bookingWithItemSameOwner.getStart(), bookingWithItemSameOwner.getEnd())).thenReturn(true);
+
+        assertThrows(ItemNotAvailableException.class, () ->
+                bookingService.updateBookingStatus(userId, bookingId, true));
+
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(approvedBookingIntervals, never()).addAfterCommit(anyLong(), any(), any());
+    }
+
+    @Test
+    void updateBookingStatus_whenApprovedBookingRejected_thenIntervalsInvalidated() {
+        long userId = 1L;
+        long bookingId = 1L;
+
+        when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(bookingWithStatusApproved));
+        when(itemRepository.findByIdForUpdate(itemSameOwner.getId())).thenReturn(Optional.of(itemSameOwner));
+        when(bookingMapper.bookingToBookingDto(any(Booking.class))).thenReturn(bookingDtoWithItemSameOwner);
+
+        bookingService.updateBookingStatus(userId, bookingId, false);
+
+        verify(approvedBookingIntervals, times(1)).invalidateAfterCommit(itemSameOwner.getId());
+        verify(entityManager, times(1)).refresh(bookingWithStatusApproved);
     }
 
     @Test
@@ -265,7 +371,7 @@ public class BookingServiceImplTest {
         long bookingId = 1L;
         boolean status = true;
 
-        when(userRepository.findById(invalidUserId)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).checkExists(invalidUserId);
 
         assertThrows(NotFoundException.class, () ->
                 bookingService.updateBookingStatus(invalidUserId, bookingId, status));
@@ -279,7 +385,6 @@ public class BookingServiceImplTest {
         long invalidBookingId = -1L;
         boolean status = true;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
         when(bookingRepository.findById(invalidBookingId)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () ->
@@ -294,7 +399,6 @@ public class BookingServiceImplTest {
         long bookingId = 1L;
         boolean status = true;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
 
         assertThrows(ForbiddenUserException.class, () ->
@@ -309,8 +413,8 @@ public class BookingServiceImplTest {
         long bookingId = 1L;
         boolean status = true;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(bookingWithStatusApproved));
+        when(itemRepository.findByIdForUpdate(itemSameOwner.getId())).thenReturn(Optional.of(itemSameOwner));
 
         assertThrows(IllegalStateException.class, () ->
                 bookingService.updateBookingStatus(userId, bookingId, status));
@@ -323,7 +427,6 @@ public class BookingServiceImplTest {
         long userId = 1L;
         long bookingId = 1L;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(bookingWithItemSameOwner));
         when(bookingMapper.bookingToBookingDto(any(Booking.class))).thenReturn(bookingDtoWithItemSameOwner);
 
@@ -339,7 +442,7 @@ public class BookingServiceImplTest {
         long invalidUserId = -1L;
         long bookingId = 1L;
 
-        when(userRepository.findById(invalidUserId)).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).checkExists(invalidUserId);
 
         assertThrows(NotFoundException.class, () ->
                 bookingService.findBookingById(invalidUserId, bookingId));
@@ -352,7 +455,6 @@ public class BookingServiceImplTest {
         long userId = 1L;
         long invalidBookingId = -1L;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(new User()));
         when(bookingRepository.findById(invalidBookingId)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () ->
@@ -364,7 +466,6 @@ public class BookingServiceImplTest {
         long userId = 1L;
         long bookingId = 1L;
 
-        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(bookingRepository.findById(bookingId)).thenReturn(Optional.of(booking));
 
         assertThrows(ForbiddenUserException.class, () ->
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.booking.service;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -7,7 +9,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.CreatedBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
@@ -17,13 +22,19 @@ import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.collection.IsCollectionWithSize.hasSize;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -46,6 +57,9 @@ public class BookingServiceIntegrationTest {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     User user1;
     User user2;
     User user3;
@@ -292,6 +306,28 @@ public class BookingServiceIntegrationTest {
         assertThat(firstPageResults.get(1).getId(), not(equalTo(secondPageResults.get(1).getId())));
     }
 
+    @Test
+    public void getBookingListCreatedByUserIdAfterCursor_whenPagingThrough_thenReturnSameOrderAsFullList() {
+        List<BookingDto> fullList = bookingService.getBookingListCreatedByUserId(user1.getId(),
+                "ALL",
+                null,
+                null);
+
+        List<BookingDto> pagedList = new ArrayList<>();
+        BookingCursor cursor = null;
+        List<BookingDto> page;
+        do {
+            page = bookingService.getBookingListCreatedByUserIdAfterCursor(user1.getId(), "ALL", cursor, 3L);
+            pagedList.addAll(page);
+            if (!page.isEmpty()) {
+                cursor = BookingCursor.of(page.get(page.size() - 1));
+            }
+        } while (page.size() == 3);
+
+        assertThat(pagedList, hasSize(8));
+        assertThat(pagedList, equalTo(fullList));
+    }
+
     /// следующий метод
 
     @Test
@@ -406,5 +442,145 @@ public class BookingServiceIntegrationTest {
         assertThat(firstPageResults.get(0).getId(), not(equalTo(secondPageResults.get(0).getId())));
         assertThat(firstPageResults.get(1).getId(), not(equalTo(secondPageResults.get(1).getId())));
     }
-}
 
+    @Test
+    public void getBookingListForAllOwnerItemsAfterCursor_whenCursorGiven_thenReturnBookingsAfterCursor() {
+        List<BookingDto> firstPage = bookingService.getBookingListForAllOwnerItemsAfterCursor(user3.getId(),
+                "ALL", null, 2L);
+        List<BookingDto> secondPage = bookingService.getBookingListForAllOwnerItemsAfterCursor(user3.getId(),
+                "ALL", BookingCursor.of(firstPage.get(1)), 2L);
+        List<BookingDto> offsetPage = bookingService.getBookingListForAllOwnerItems(user3.getId(),
+                "ALL", 2L, 2L);
+
+        assertThat(firstPage, hasSize(2));
+        assertThat(secondPage, equalTo(offsetPage));
+    }
+
+    @Test
+    public void createBookings_whenSomeEntriesInvalid_thenOthersInsertedInOneBatch() {
+        LocalDateTime start = LocalDateTime.now().plusDays(30);
+        List<CreatedBookingDto> createdBookingDtos = List.of(
+                createdBookingDto(item1.getId(), start, start.plusDays(1)),
+                createdBookingDto(item2.getId(), start, start.plusDays(1)),
+                createdBookingDto(item2.getId() + 1000, start, start.plusDays(1)),
+                createdBookingDto(item1.getId(), LocalDateTime.now(), LocalDateTime.now().plusDays(1)),
+                createdBookingDto(item1.getId(), start.plusDays(10), start.plusDays(11)));
+        Statistics statistics = clearStatistics();
+
+        List<BookingBatchResultDto> results = bookingService.createBookings(user1.getId(), createdBookingDtos);
+        entityManager.flush();
+
+        assertThat(results, hasSize(5));
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).getIndex(), equalTo(i));
+        }
+        assertThat(results.get(0).getBooking().getStatus(), equalTo(Status.WAITING));
+        assertThat(results.get(1).getBooking().getItem().getId(), equalTo(item2.getId()));
+        assertThat(results.get(2).getBooking(), is(nullValue()));
+        assertThat(results.get(2).getError(), is(notNullValue()));
+        assertThat(results.get(3).getError(), is(notNullValue()));
+        assertThat(results.get(4).getBooking().getId(), is(notNullValue()));
+        // пользователь, вещи, периоды одобренных броней, один пакет вставок и sequence, если блок id исчерпан
+        assertThat(statistics.getPrepareStatementCount(), lessThanOrEqualTo(5L));
+        assertThat(bookingRepository.count(), equalTo(11L));
+    }
+
+    @Test
+    public void createBooking_whenValid_thenNoReadAfterInsert() {
+        LocalDateTime start = LocalDateTime.now().plusDays(30);
+        Statistics statistics = clearStatistics();
+
+        BookingDto bookingDto = bookingService.createBooking(user1.getId(),
+                createdBookingDto(item1.getId(), start, start.plusDays(1)));
+        entityManager.flush();
+
+        assertThat(bookingDto.getItem().getName(), equalTo(item1.getName()));
+        assertThat(bookingDto.getBooker().getName(), equalTo(user1.getName()));
+        // пользователь, вещь, периоды одобренных броней, вставка и sequence, если блок id исчерпан
+        assertThat(statistics.getPrepareStatementCount(), lessThanOrEqualTo(5L));
+    }
+
+    @Test
+    public void updateBookingStatus_whenApproved_thenNoReadAfterUpdate() {
+        LocalDateTime start = LocalDateTime.now().plusDays(30);
+        Booking booking = bookingRepository.save(Booking.builder()
+                .item(item1)
+                .booker(user1)
+                .start(start)
+                .end(start.plusDays(1))
+                .status(Status.WAITING)
+                .build());
+        Statistics statistics = clearStatistics();
+
+        BookingDto bookingDto = bookingService.updateBookingStatus(user2.getId(), booking.getId(), true);
+        entityManager.flush();
+
+        assertThat(bookingDto.getStatus(), equalTo(Status.APPROVED));
+        assertThat(bookingDto.getItem().getName(), equalTo(item1.getName()));
+        // пользователь, бронь с вещью и автором, блокировка вещи, перечитывание брони под блокировкой,
+        // проверка пересечения, обновление
+        assertThat(statistics.getPrepareStatementCount(), equalTo(6L));
+    }
+
+    @Test
+    public void updateBookingStatus_whenRejected_thenNoReadAfterUpdate() {
+        LocalDateTime start = LocalDateTime.now().plusDays(30);
+        Booking booking = bookingRepository.save(Booking.builder()
+                .item(item1)
+                .booker(user1)
+                .start(start)
+                .end(start.plusDays(1))
+                .status(Status.WAITING)
+                .build());
+        Statistics statistics = clearStatistics();
+
+        BookingDto bookingDto = bookingService.updateBookingStatus(user2.getId(), booking.getId(), false);
+        entityManager.flush();
+
+        assertThat(bookingDto.getStatus(), equalTo(Status.REJECTED));
+        // пользователь, бронь с вещью и автором, блокировка вещи, перечитывание брони под блокировкой, обновление
+        assertThat(statistics.getPrepareStatementCount(), equalTo(5L));
+    }
+
+    @Test
+    public void getBookingListForAllOwnerItems_whenOwnerHasManyItems_thenOwnerAndItemsNotLoaded() {
+        User owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("owner@user.com")
+                .build());
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            items.add(Item.builder()
+                    .name("item" + i)
+                    .description("description" + i)
+                    .ownerId(owner.getId())
+                    .available(true)
+                    .build());
+        }
+        itemRepository.saveAll(items);
+        Statistics statistics = clearStatistics();
+
+        List<BookingDto> result = bookingService.getBookingListForAllOwnerItems(owner.getId(), "ALL", null, null);
+
+        assertThat(result, is(empty()));
+        // проверки пользователя и наличия вещей - count-запросы, сущности не загружаются
+        assertThat(statistics.getEntityLoadCount(), equalTo(0L));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(3L));
+    }
+
+    private Statistics clearStatistics() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    private static CreatedBookingDto createdBookingDto(long itemId, LocalDateTime start, LocalDateTime end) {
+        return CreatedBookingDto.builder()
+                .itemId(itemId)
+                .start(start)
+                .end(end)
+                .build();
+    }
+}
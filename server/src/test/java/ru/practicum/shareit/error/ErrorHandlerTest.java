@@ -0,0 +1,41 @@
+package ru.practicum.shareit.error;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.sql.SQLException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.containsString;
+
+class ErrorHandlerTest {
+
+    private final ErrorHandler errorHandler = new ErrorHandler();
+
+    @Test
+    void dataIntegrityViolationException_whenApprovedOverlap_thenConflictWithoutDriverMessage() {
+        ResponseEntity<ErrorResponse> response = errorHandler.dataIntegrityViolationException(violation(
+                "ERROR: conflicting key value violates exclusion constraint \"bookings_no_approved_overlap\""));
+
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.CONFLICT));
+        assertThat(response.getBody().getError(), equalTo("Вещь уже забронирована на этот период"));
+    }
+
+    @Test
+    void dataIntegrityViolationException_whenOtherConstraint_thenInternalServerError() {
+        ResponseEntity<ErrorResponse> response = errorHandler.dataIntegrityViolationException(violation(
+                "ERROR: insert or update on table \"bookings\" violates foreign key constraint " +
+                        "\"bookings_items_item_id_fk\""));
+
+        assertThat(response.getStatusCode(), equalTo(HttpStatus.INTERNAL_SERVER_ERROR));
+        assertThat(response.getBody().getError(), not(containsString("bookings_items_item_id_fk")));
+    }
+
+    private static DataIntegrityViolationException violation(String driverMessage) {
+        return new DataIntegrityViolationException("could not execute statement", new SQLException(driverMessage));
+    }
+}
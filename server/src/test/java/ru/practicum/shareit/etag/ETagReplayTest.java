@@ -0,0 +1,269 @@
+package ru.practicum.shareit.etag;
+
+import lombok.Value;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.dto.UpdatedItemDto;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.dto.UpdatedUserDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * ETag ответов GET /users/{id}, /items/{id} и /requests/{id}: тег меняется вместе с содержимым ответа,
+ * совпавший If-None-Match дает 304 без тела. Replay-бенчмарк проигрывает один и тот же журнал запросов
+ * без валидаторов и с валидаторами из предыдущих ответов и сравнивает переданные байты и время обработки
+ */
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+public class ETagReplayTest {
+
+    private static final int ITEMS = 20;
+    private static final int COMMENTS_PER_ITEM = 5;
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    User owner;
+    User author;
+    ItemRequest itemRequest;
+    List<Item> items = new ArrayList<>();
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("owner@user.com")
+                .build());
+        author = userRepository.save(User.builder()
+                .name("author")
+                .email("author@user.com")
+                .build());
+        itemRequest = itemRequestRepository.save(ItemRequest.builder()
+                .description("Нужна дрель")
+                .requestor(author)
+                .build());
+        for (int i = 0; i < ITEMS; i++) {
+            Item item = itemRepository.save(Item.builder()
+                    .name("Дрель " + i)
+                    .description("Простая дрель, сверла в комплекте, аккумулятор на 2 часа работы")
+                    .ownerId(owner.getId())
+                    .available(true)
+                    .requestId(itemRequest.getId())
+                    .build());
+            for (int j = 0; j < COMMENTS_PER_ITEM; j++) {
+                commentRepository.save(Comment.builder()
+                        .text("Отличная дрель, пользовался неделю, вернул без замечаний. Отзыв " + j)
+                        .item(item)
+                        .author(author)
+                        .build());
+            }
+            items.add(item);
+        }
+        entityManager.flush();
+    }
+
+    @Test
+    void getUserById_whenUserUpdated_thenETagChangesOnlyWithContent() {
+        String eTag = userService.getUserById(author.getId(), null).getETag();
+
+        userService.updateUser(author.getId(), UpdatedUserDto.builder().name("author").build());
+        entityManager.flush();
+        assertThat(userService.getUserById(author.getId(), null).getETag(), equalTo(eTag));
+
+        userService.updateUser(author.getId(), UpdatedUserDto.builder().name("renamed").build());
+        entityManager.flush();
+        assertThat(userService.getUserById(author.getId(), null).getETag(), not(equalTo(eTag)));
+    }
+
+    @Test
+    void getItemById_whenCommentAuthorRenamed_thenItemETagChanges() {
+        long itemId = items.get(0).getId();
+        String eTag = itemService.getItemById(author.getId(), itemId, null).getETag();
+
+        userService.updateUser(author.getId(), UpdatedUserDto.builder().name("renamed").build());
+        entityManager.flush();
+
+        assertThat(itemService.getItemById(author.getId(), itemId, null).getETag(), not(equalTo(eTag)));
+    }
+
+    @Test
+    void getItemById_whenBookingApproved_thenOnlyOwnerETagChanges() {
+        Item item = items.get(0);
+        String ownerTag = itemService.getItemById(owner.getId(), item.getId(), null).getETag();
+        String authorTag = itemService.getItemById(author.getId(), item.getId(), null).getETag();
+        Booking booking = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(author)
+                .start(LocalDateTime.now().plusDays(1))
+                .end(LocalDateTime.now().plusDays(2))
+                .status(Status.WAITING)
+                .build());
+        entityManager.flush();
+
+        bookingService.updateBookingStatus(owner.getId(), booking.getId(), true);
+        entityManager.flush();
+
+        assertThat(itemService.getItemById(owner.getId(), item.getId(), null).getETag(), not(equalTo(ownerTag)));
+        assertThat(itemService.getItemById(author.getId(), item.getId(), null).getETag(), equalTo(authorTag));
+    }
+
+    @Test
+    void getRequestById_whenAnsweringItemUpdated_thenRequestETagChanges() throws Exception {
+        String eTag = requestETag();
+
+        itemService.updateItem(owner.getId(), items.get(0).getId(),
+                UpdatedItemDto.builder().name("Перфоратор").build());
+        entityManager.flush();
+
+        assertThat(requestETag(), not(equalTo(eTag)));
+    }
+
+    @Test
+    void replay_whenValidatorsSent_thenLessBytesAndTimeThanFullResponses() throws Exception {
+        List<LoggedRequest> log = requestLog();
+        Map<LoggedRequest, String> validators = new HashMap<>();
+        Replay full = new Replay();
+        Replay revalidated = new Replay();
+
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            boolean measured = round >= WARMUP_ROUNDS;
+            for (LoggedRequest request : log) {
+                replay(request, null, measured ? full : new Replay(), validators);
+            }
+            for (LoggedRequest request : log) {
+                replay(request, validators.get(request), measured ? revalidated : new Replay(), validators);
+            }
+        }
+
+        assertThat(full.notModified, equalTo(0));
+        assertThat(revalidated.notModified, equalTo(log.size() * MEASURED_ROUNDS));
+        assertThat(revalidated.bytes, equalTo(0L));
+        assertThat(full.bytes, greaterThan(0L));
+        assertThat(revalidated.nanos, lessThan(full.nanos));
+    }
+
+    private String requestETag() throws Exception {
+        return mockMvc.perform(new LoggedRequest("/requests/" + itemRequest.getId(), author.getId()).build())
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+    }
+
+    /**
+     * Журнал: карточки всех вещей глазами владельца и автора отзывов, оба пользователя и запрос
+     */
+
+    private List<LoggedRequest> requestLog() {
+        List<LoggedRequest> log = new ArrayList<>();
+        for (Item item : items) {
+            log.add(new LoggedRequest("/items/" + item.getId(), owner.getId()));
+            log.add(new LoggedRequest("/items/" + item.getId(), author.getId()));
+        }
+        log.add(new LoggedRequest("/users/" + owner.getId(), null));
+        log.add(new LoggedRequest("/users/" + author.getId(), null));
+        log.add(new LoggedRequest("/requests/" + itemRequest.getId(), author.getId()));
+        return log;
+    }
+
+    private void replay(LoggedRequest request, String ifNoneMatch, Replay replay,
+                        Map<LoggedRequest, String> validators) throws Exception {
+        MockHttpServletRequestBuilder builder = request.build();
+        if (ifNoneMatch != null) {
+            builder.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        long start = System.nanoTime();
+        MockHttpServletResponse response = mockMvc.perform(builder).andReturn().getResponse();
+        replay.nanos += System.nanoTime() - start;
+        replay.bytes += response.getContentAsByteArray().length;
+        if (response.getStatus() == HttpStatus.NOT_MODIFIED.value()) {
+            replay.notModified++;
+        }
+        validators.put(request, response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Value
+    private static class LoggedRequest {
+        String uri;
+        Long userId;
+
+        MockHttpServletRequestBuilder build() {
+            MockHttpServletRequestBuilder builder = get(uri);
+            return userId != null ? builder.header("X-Sharer-User-Id", userId) : builder;
+        }
+    }
+
+    private static class Replay {
+        long bytes;
+        long nanos;
+        int notModified;
+    }
+}
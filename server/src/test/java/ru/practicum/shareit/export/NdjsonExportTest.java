@@ -0,0 +1,303 @@
+package ru.practicum.shareit.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserService;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Предел размера страницы списков и выгрузка всех записей в NDJSON: списки без from/size отдают первую
+ * страницу максимального размера, выгрузка и календарь доступности - все строки по порядку, не оставляя
+ * сущностей в контексте персистентности
+ */
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+@TestPropertySource(properties = "shareit.paging.max-size=" + NdjsonExportTest.MAX_PAGE_SIZE)
+public class NdjsonExportTest {
+
+    static final int MAX_PAGE_SIZE = 20;
+    private static final int USERS = MAX_PAGE_SIZE * 3 + 5;
+    private static final int OWNER_ITEMS = MAX_PAGE_SIZE * 2 + 3;
+    private static final int BOOKINGS = MAX_PAGE_SIZE * 2 + 7;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    User owner;
+    User booker;
+    Item drill;
+    LocalDateTime bookingsStart;
+
+    @BeforeEach
+    void beforeEach() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            users.add(userRepository.save(User.builder()
+                    .name("user" + i)
+                    .email("user" + i + "@user.com")
+                    .build()));
+        }
+        owner = users.get(0);
+        booker = users.get(1);
+        drill = null;
+        for (int i = 0; i < OWNER_ITEMS; i++) {
+            Item item = saveItem(owner, "Дрель " + i);
+            drill = drill == null ? item : drill;
+        }
+        saveItem(booker, "Пила");
+        bookingsStart = LocalDateTime.now().minusYears(1).truncatedTo(ChronoUnit.SECONDS);
+        for (int i = 0; i < BOOKINGS; i++) {
+            bookingRepository.save(Booking.builder()
+                    .item(drill)
+                    .booker(booker)
+                    .start(bookingsStart.plusDays(i * 2L))
+                    .end(bookingsStart.plusDays(i * 2L + 1))
+                    .status(Status.APPROVED)
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void getUserList_whenNoPaging_thenFirstPageOfMaxSizeInIdOrder() throws Exception {
+        JsonNode users = objectMapper.readTree(mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8));
+
+        assertThat(users.size(), equalTo(MAX_PAGE_SIZE));
+        for (int i = 1; i < users.size(); i++) {
+            assertThat(users.get(i).get("id").asLong(), greaterThan(users.get(i - 1).get("id").asLong()));
+        }
+    }
+
+    @Test
+    void getUserList_whenSizeAboveMax_thenBadRequest() throws Exception {
+        mockMvc.perform(get("/users").param("from", "0").param("size", String.valueOf(MAX_PAGE_SIZE + 1)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/items").header("X-Sharer-User-Id", owner.getId())
+                        .param("from", "0").param("size", String.valueOf(MAX_PAGE_SIZE + 1)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getItemList_whenNoPaging_thenFirstPageOfMaxSize() throws Exception {
+        mockMvc.perform(get("/items").header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size()").value(MAX_PAGE_SIZE));
+    }
+
+    @Test
+    void exportUsers_whenMoreUsersThanMaxPageSize_thenAllUsersInIdOrder() throws Exception {
+        String body = mockMvc.perform(get("/users/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(NdjsonWriter.CONTENT_TYPE + ";charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        List<JsonNode> rows = parse(body);
+
+        assertThat((long) rows.size(), equalTo(userRepository.count()));
+        for (int i = 1; i < rows.size(); i++) {
+            assertThat(rows.get(i).get("id").asLong(), greaterThan(rows.get(i - 1).get("id").asLong()));
+        }
+        assertThat(rows.get(0).get("email").asText(), equalTo(owner.getEmail()));
+    }
+
+    @Test
+    void exportItems_whenOwnerHasMoreItemsThanMaxPageSize_thenAllOwnersItems() throws Exception {
+        String body = mockMvc.perform(get("/items/export").header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        List<JsonNode> rows = parse(body);
+
+        assertThat(rows.size(), equalTo(OWNER_ITEMS));
+        for (JsonNode row : rows) {
+            assertThat(row.get("ownerId").asLong(), equalTo(owner.getId()));
+        }
+        assertThat(rows.get(0).get("name").asText(), equalTo("Дрель 0"));
+    }
+
+    @Test
+    void exportUsers_whenRowsConsumed_thenNoEntitiesInPersistenceContext() {
+        Session session = entityManager.unwrap(Session.class);
+        AtomicInteger rows = new AtomicInteger();
+        AtomicInteger maxManagedEntities = new AtomicInteger();
+
+        userService.exportUsers(user -> {
+            rows.incrementAndGet();
+            maxManagedEntities.accumulateAndGet(session.getStatistics().getEntityCount(), Math::max);
+        });
+
+        assertThat(rows.get(), equalTo(USERS));
+        assertThat(maxManagedEntities.get(), equalTo(0));
+    }
+
+    @Test
+    void exportOwnerBookings_whenMoreBookingsThanMaxPageSize_thenAllBookingsNewestFirst() throws Exception {
+        String body = mockMvc.perform(get("/bookings/owner/export").header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(NdjsonWriter.CONTENT_TYPE + ";charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        List<JsonNode> rows = parse(body);
+
+        assertThat(rows.size(), equalTo(BOOKINGS));
+        for (int i = 1; i < rows.size(); i++) {
+            assertThat(rows.get(i).get("start").asText(), lessThan(rows.get(i - 1).get("start").asText()));
+        }
+        assertThat(rows.get(0).get("item").get("name").asText(), equalTo("Дрель 0"));
+        assertThat(rows.get(0).get("booker").get("email").asText(), equalTo(booker.getEmail()));
+        assertThat(rows.get(0).get("status").asText(), equalTo(Status.APPROVED.name()));
+    }
+
+    @Test
+    void exportBookings_whenStateFilter_thenOnlyMatchingBookings() throws Exception {
+        String all = mockMvc.perform(get("/bookings/export").header("X-Sharer-User-Id", booker.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        String waiting = mockMvc.perform(get("/bookings/export").header("X-Sharer-User-Id", booker.getId())
+                        .param("state", "WAITING"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertThat(parse(all).size(), equalTo(BOOKINGS));
+        assertThat(waiting, equalTo(""));
+    }
+
+    @Test
+    void exportBookings_whenUserNotFound_thenNotFoundBeforeFirstRow() throws Exception {
+        mockMvc.perform(get("/bookings/export").header("X-Sharer-User-Id", Long.MAX_VALUE))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").exists());
+        mockMvc.perform(get("/bookings/owner/export").header("X-Sharer-User-Id", booker.getId() + USERS))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    @Test
+    void exportOwnerBookings_whenRowsConsumed_thenNoEntitiesInPersistenceContext() {
+        Session session = entityManager.unwrap(Session.class);
+        AtomicInteger rows = new AtomicInteger();
+        AtomicInteger maxManagedEntities = new AtomicInteger();
+
+        bookingService.exportBookingsForAllOwnerItems(owner.getId(), "ALL", booking -> {
+            rows.incrementAndGet();
+            maxManagedEntities.accumulateAndGet(session.getStatistics().getEntityCount(), Math::max);
+        });
+
+        assertThat(rows.get(), equalTo(BOOKINGS));
+        assertThat(maxManagedEntities.get(), equalTo(0));
+    }
+
+    @Test
+    void getItemAvailability_whenMoreIntervalsThanMaxPageSize_thenAllIntervalsInOrder() throws Exception {
+        LocalDateTime to = bookingsStart.plusDays(BOOKINGS * 2L);
+        String body = mockMvc.perform(get("/items/{itemId}/availability", drill.getId())
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .param("from", bookingsStart.toString())
+                        .param("to", to.toString()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(NdjsonWriter.CONTENT_TYPE + ";charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        List<JsonNode> rows = parse(body);
+
+        assertThat(rows.size(), equalTo(BOOKINGS * 2));
+        for (int i = 0; i < rows.size(); i++) {
+            assertThat(rows.get(i).get("busy").asBoolean(), equalTo(i % 2 == 0));
+            if (i > 0) {
+                assertThat(rows.get(i).get("start").asText(), equalTo(rows.get(i - 1).get("end").asText()));
+            }
+        }
+        assertThat(LocalDateTime.parse(rows.get(0).get("start").asText()), equalTo(bookingsStart));
+        assertThat(LocalDateTime.parse(rows.get(rows.size() - 1).get("end").asText()), equalTo(to));
+    }
+
+    @Test
+    void getItemAvailability_whenItemNotFound_thenNotFoundBeforeFirstRow() throws Exception {
+        mockMvc.perform(get("/items/{itemId}/availability", Long.MAX_VALUE)
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .param("from", bookingsStart.toString())
+                        .param("to", bookingsStart.plusDays(1).toString()))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").exists());
+    }
+
+    private List<JsonNode> parse(String body) throws Exception {
+        assertThat(body.endsWith("\n"), equalTo(true));
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            rows.add(objectMapper.readTree(line));
+        }
+        return rows;
+    }
+
+    private Item saveItem(User itemOwner, String name) {
+        return itemRepository.save(Item.builder()
+                .name(name)
+                .description("Простая дрель")
+                .ownerId(itemOwner.getId())
+                .available(true)
+                .build());
+    }
+}
@@ -1,37 +1,51 @@
 package ru.practicum.shareit.item.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.etag.Tagged;
+import ru.practicum.shareit.export.NdjsonWriter;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.CreatedCommentDto;
 import ru.practicum.shareit.item.dto.CreatedItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.TimeIntervalDto;
 import ru.practicum.shareit.item.dto.UpdatedItemDto;
 import ru.practicum.shareit.item.service.ItemService;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ItemController.class)
 public class ItemControllerTest {
 
+    private static final String ETAG = "\"item-1-1-cbf29ce484222325\"";
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -131,17 +145,35 @@ public class ItemControllerTest {
         Long userId = 1L;
         long itemId = 1L;
 
-        when(itemService.getItemById(eq(userId), eq(itemId)))
-                .thenReturn(itemDto);
+        when(itemService.getItemById(userId, itemId, null))
+                .thenReturn(Tagged.of(ETAG, itemDto));
 
         mockMvc.perform(get("/items/{id}", itemId)
                         .header("X-Sharer-User-Id", userId)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
                 .andExpect(jsonPath("$.id").value(itemDto.getId()))
                 .andExpect(jsonPath("$.name").value(itemDto.getName()));
     }
 
+    @SneakyThrows
+    @Test
+    void getItemById_whenIfNoneMatchContainsETag_thenNotModifiedWithoutBody() {
+        Long userId = 1L;
+        long itemId = 1L;
+        String ifNoneMatch = "\"item-1-0-0\", W/" + ETAG;
+        when(itemService.getItemById(userId, itemId, ifNoneMatch))
+                .thenReturn(Tagged.notModified(ETAG));
+
+        mockMvc.perform(get("/items/{id}", itemId)
+                        .header("X-Sharer-User-Id", userId)
+                        .header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
     @Test
     void getItemListByUserId_whenValidInput_thenReturnStatusOkWithItemListInBody() throws Exception {
         Long ownerId = 1L;
@@ -251,4 +283,37 @@ public class ItemControllerTest {
                         .content(objectMapper.writeValueAsString(createdCommentDto)))
                 .andExpect(status().isNotFound());
     }
+
+    @SneakyThrows
+    @Test
+    void getItemAvailability_whenValidInput_thenStreamsIntervalsAsNdjson() {
+        long itemId = 1L;
+        LocalDateTime from = LocalDateTime.of(2030, Month.JANUARY, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2030, Month.JANUARY, 2, 0, 0);
+        LocalDateTime busyStart = LocalDateTime.of(2030, Month.JANUARY, 1, 10, 0);
+        LocalDateTime busyEnd = LocalDateTime.of(2030, Month.JANUARY, 1, 12, 0);
+
+        doAnswer(invocation -> {
+            Consumer<TimeIntervalDto> intervals = invocation.getArgument(3);
+            intervals.accept(new TimeIntervalDto(from, busyStart, false));
+            intervals.accept(new TimeIntervalDto(busyStart, busyEnd, true));
+            intervals.accept(new TimeIntervalDto(busyEnd, to, false));
+            return null;
+        }).when(itemService).getItemAvailability(eq(itemId), eq(from), eq(to), any());
+
+        String body = mockMvc.perform(get("/items/{itemId}/availability", itemId)
+                        .header("X-Sharer-User-Id", 1L)
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-02T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(NdjsonWriter.CONTENT_TYPE + ";charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        String[] lines = body.split("\n");
+        assertThat(lines.length, equalTo(3));
+        JsonNode busy = objectMapper.readTree(lines[1]);
+        assertThat(busy.get("start").asText(), equalTo("2030-01-01T10:00:00"));
+        assertThat(busy.get("busy").asBoolean(), equalTo(true));
+        assertThat(objectMapper.readTree(lines[2]).get("end").asText(), equalTo("2030-01-02T00:00:00"));
+    }
 }
@@ -127,4 +127,38 @@ public class ItemRepositoryTest {
         assertTrue(foundItemsPage.getTotalElements() > size,
                 "Общее количество найденных элементов должно быть больше размера страницы");
     }
+
+    @Test
+    public void searchItemsByText_WhenMatchesInNameAndDescription_thenNameMatchesGoFirst() {
+        Item descriptionMatch = Item.builder()
+                .name("Other name")
+                .description("Contains test text")
+                .ownerId(1L)
+                .available(true)
+                .build();
+
+        Item nameMatch = Item.builder()
+                .name("Test name")
+                .description("Some description")
+                .ownerId(1L)
+                .available(true)
+                .build();
+
+        Item unavailableNameMatch = Item.builder()
+                .name("Test name unavailable")
+                .description("Some description")
+                .ownerId(1L)
+                .available(false)
+                .build();
+
+        entityManager.persist(descriptionMatch);
+        entityManager.persist(nameMatch);
+        entityManager.persist(unavailableNameMatch);
+        entityManager.flush();
+
+        List<Item> foundItems = itemRepository.searchItemsByText("test");
+
+        assertEquals(List.of(nameMatch, descriptionMatch), foundItems,
+                "Совпадения по имени должны идти раньше совпадений по описанию");
+    }
 }
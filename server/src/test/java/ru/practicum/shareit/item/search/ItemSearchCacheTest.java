@@ -0,0 +1,69 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+class ItemSearchCacheTest {
+
+    private static final List<Object> KEY = List.of("ДРЕЛЬ", 0L, 10L);
+
+    private final ItemSearchCache itemSearchCache = new ItemSearchCache(
+            new ConcurrentMapCacheManager(ItemSearchCache.NAME));
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_whenRepeated_thenSearchedOnce() {
+        AtomicInteger searches = new AtomicInteger();
+
+        itemSearchCache.get(KEY, searches::incrementAndGet);
+        itemSearchCache.get(KEY, searches::incrementAndGet);
+
+        assertThat(searches.get(), equalTo(1));
+    }
+
+    @Test
+    void get_whenUpdateCommittedDuringSearch_thenPreCommitResultNotServed() {
+        String stale = itemSearchCache.get(KEY, () -> {
+            // поиск уже прочитал данные до коммита, а обновление успевает закоммититься до записи в кэш
+            TransactionSynchronizationManager.initSynchronization();
+            itemSearchCache.invalidate();
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+            return "до обновления";
+        });
+
+        assertThat(stale, equalTo("до обновления"));
+        assertThat(itemSearchCache.get(KEY, () -> "после обновления"), equalTo("после обновления"));
+    }
+
+    @Test
+    void get_whenSearchedInsideRolledBackUpdate_thenUncommittedResultNotServed() {
+        TransactionSynchronizationManager.initSynchronization();
+        itemSearchCache.invalidate();
+        itemSearchCache.get(KEY, () -> "незакоммиченное");
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(itemSearchCache.get(KEY, () -> "закоммиченное"), equalTo("закоммиченное"));
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+    }
+}
@@ -0,0 +1,79 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.practicum.shareit.item.dto.CreatedItemDto;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.UpdatedItemDto;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+
+/**
+ * Триграммный индекс с настоящими транзакциями: обновления применяются после коммита с версией, увеличенной
+ * flush, поэтому каждая следующая правка вещи вытесняет предыдущую. Тест не транзакционный
+ */
+
+@SpringBootTest(properties = "shareit.search.engine=trigram")
+@ActiveProfiles("test")
+public class TrigramItemSearchIndexIntegrationTest {
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("trigram@user.com")
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        itemRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void searchItemsByText_whenItemUpdatedTwice_thenEachCommittedTextFound() {
+        ItemDto item = itemService.createItem(owner.getId(), CreatedItemDto.builder()
+                .name("Дрель")
+                .description("Электрическая дрель")
+                .available(true)
+                .build());
+
+        itemService.updateItem(owner.getId(), item.getId(), UpdatedItemDto.builder().name("Перфоратор").build());
+        assertThat(foundIds("перфоратор"), contains(item.getId()));
+
+        itemService.updateItem(owner.getId(), item.getId(), UpdatedItemDto.builder().name("Шуруповерт").build());
+        assertThat(foundIds("перфоратор"), empty());
+        assertThat(foundIds("шуруповерт"), contains(item.getId()));
+    }
+
+    private List<Long> foundIds(String text) {
+        return itemService.searchItemsByText(text, null, null).stream()
+                .map(ItemDto::getId)
+                .collect(Collectors.toList());
+    }
+}
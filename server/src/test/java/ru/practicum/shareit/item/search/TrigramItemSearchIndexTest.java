@@ -0,0 +1,127 @@
+package ru.practicum.shareit.item.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TrigramItemSearchIndexTest {
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    private TrigramItemSearchIndex index;
+
+    private final Item drill = item(1L, "Дрель", "Электрическая дрель", true);
+    private final Item screwdriver = item(2L, "Шуруповерт", "Аккумуляторная дрель-шуруповерт", true);
+    private final Item hammer = item(3L, "Молоток", "Обычный молоток", true);
+    private final Item brokenDrill = item(4L, "Дрель ударная", "Сломана", false);
+
+    @BeforeEach
+    void setUp() {
+        when(itemRepository.findAll(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(drill, screwdriver, hammer, brokenDrill)));
+        index = new TrigramItemSearchIndex(itemRepository);
+        index.build();
+    }
+
+    @Test
+    void searchIdsShouldFindAvailableSubstringMatchesWithNameMatchesFirst() {
+        assertThat(index.searchIds("дРеЛь"), contains(1L, 2L));
+    }
+
+    @Test
+    void searchIdsShouldVerifySubstringAfterIntersectingPostings() {
+        assertThat(index.searchIds("рель-шуру"), contains(2L));
+        assertThat(index.searchIds("дрельмолоток"), empty());
+    }
+
+    @Test
+    void searchIdsShouldHandleQueriesShorterThanTrigram() {
+        assertThat(index.searchIds("ок"), contains(3L));
+    }
+
+    @Test
+    void indexShouldApplyUpdatedTextAndAvailability() {
+        index.index(item(3L, 1L, "Кувалда", "Тяжелая", true));
+        index.index(item(4L, 1L, "Дрель ударная", "Починена", true));
+
+        assertThat(index.searchIds("молоток"), empty());
+        assertThat(index.searchIds("кувалда"), contains(3L));
+        assertThat(index.searchIds("дрель"), contains(1L, 4L, 2L));
+    }
+
+    @Test
+    void indexShouldIgnoreStateOlderThanIndexed() {
+        index.index(item(3L, 2L, "Кувалда", "Тяжелая", true));
+        index.index(item(3L, 1L, "Киянка", "Резиновая", true));
+
+        assertThat(index.searchIds("киянка"), empty());
+        assertThat(index.searchIds("кувалда"), contains(3L));
+    }
+
+    @Test
+    void searchShouldPageRankedIdsAndLoadOnlyItemsUpToPageEnd() {
+        when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(drill, screwdriver));
+
+        List<Item> items = index.search("дрель", PageRequest.of(1, 1));
+
+        assertThat(items, contains(screwdriver));
+    }
+
+    @Test
+    void searchShouldSkipItemsUnavailableInDatabaseBeforePaging() {
+        Item rentedOutDrill = item(1L, 1L, "Дрель", "Электрическая дрель", false);
+        Item fixedDrill = item(4L, 1L, "Дрель ударная", "Починена", true);
+        index.index(item(4L, 1L, "Дрель ударная", "Починена", true));
+        when(itemRepository.findAllById(List.of(1L, 4L))).thenReturn(List.of(rentedOutDrill, fixedDrill));
+        when(itemRepository.findAllById(List.of(2L))).thenReturn(List.of(screwdriver));
+
+        List<Item> items = index.search("дрель", PageRequest.of(0, 2));
+
+        assertThat(items, contains(fixedDrill, screwdriver));
+    }
+
+    @Test
+    void postingListShouldStaySortedOnOutOfOrderInsertAndRemove() {
+        TrigramItemSearchIndex.PostingList list = new TrigramItemSearchIndex.PostingList();
+        for (long id : new long[]{5, 1, 9, 3, 7, 3}) {
+            list.add(id);
+        }
+        list.remove(9);
+
+        assertArrayEquals(new long[]{1, 3, 5, 7}, list.toArray());
+        assertArrayEquals(new long[]{3, 7}, list.intersect(new long[]{2, 3, 4, 7, 9}));
+    }
+
+    private static Item item(long id, String name, String description, boolean available) {
+        return item(id, 0L, name, description, available);
+    }
+
+    private static Item item(long id, long version, String name, String description, boolean available) {
+        return Item.builder()
+                .id(id)
+                .version(version)
+                .name(name)
+                .description(description)
+                .ownerId(1L)
+                .available(available)
+                .build();
+    }
+}
@@ -4,13 +4,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.stubbing.Answer;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.booking.dto.BookingInfoDto;
+import ru.practicum.shareit.booking.dto.ItemBookingInfo;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.etag.EntityTag;
+import ru.practicum.shareit.etag.Tagged;
 import ru.practicum.shareit.exceptions.ForbiddenUserException;
 import ru.practicum.shareit.exceptions.NotFoundException;
 import ru.practicum.shareit.item.dto.CommentDto;
@@ -24,23 +28,28 @@ import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
-import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.item.search.ItemSearchCache;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.paging.PageLimit;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
-import ru.practicum.shareit.user.service.UserService;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
 
 import java.time.LocalDateTime;
 import java.time.Month;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -54,7 +63,7 @@ public class ItemServiceImplTest {
     @Mock
     private UserRepository userRepository;
     @Mock
-    private UserService userService;
+    private UserExistenceChecker userExistenceChecker;
     @Mock
     private ItemMapper itemMapper;
     @Mock
@@ -63,6 +72,12 @@ public class ItemServiceImplTest {
     private BookingRepository bookingRepository;
     @Mock
     private CommentRepository commentRepository;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private ItemSearchCache itemSearchCache;
+    @Spy
+    private PageLimit pageLimit = new PageLimit(1000);
 
     @InjectMocks
     private ItemServiceImpl itemService;
@@ -190,12 +205,6 @@ public class ItemServiceImplTest {
             .email("user@user.com")
             .build();
 
-    UserDto userDto = UserDto.builder()
-            .id(1L)
-            .name("user")
-            .email("user@user.com")
-            .build();
-
     CreatedCommentDto createdCommentDto = CreatedCommentDto.builder()
             .text("test comment")
             .build();
@@ -223,7 +232,6 @@ public class ItemServiceImplTest {
     public void createItem_whenValidDataProvided_thenReturnsItemDto() {
         long ownerId = 1L;
 
-        when(userService.getUserById(ownerId)).thenReturn(userDto);
         when(itemMapper.createdItemDtoToItem(createdItemDto)).thenReturn(createdItem);
         when(itemRepository.save(any(Item.class))).thenReturn(item);
         when(itemMapper.itemToItemDto(any(Item.class))).thenReturn(itemDto);
@@ -232,7 +240,9 @@ public class ItemServiceImplTest {
 
         assertNotNull(result);
         assertEquals(itemDto, result);
-        verify(userService, times(1)).getUserById(anyLong());
+        verify(userExistenceChecker, times(1)).checkExists(anyLong());
+        verify(itemSearchIndex, times(1)).index(item);
+        verify(itemSearchCache, times(1)).invalidate();
     }
 
     @Test
@@ -240,7 +250,6 @@ public class ItemServiceImplTest {
         long ownerId = 1L;
         long itemId = 1L;
 
-        when(userService.getUserById(ownerId)).thenReturn(userDto);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(itemMapper.updatedItemDtoToItem(updatedItemDto)).thenReturn(updatedItem);
         when(itemRepository.save(any(Item.class))).thenReturn(updatedItem);
@@ -250,7 +259,28 @@ public class ItemServiceImplTest {
 
         assertNotNull(result);
         assertEquals(itemDtoUpd, result);
-        verify(userService, times(1)).getUserById(anyLong());
+        verify(userExistenceChecker, times(1)).checkExists(anyLong());
+        verify(itemSearchIndex, times(1)).index(updatedItem);
+        verify(itemSearchCache, times(1)).invalidate();
+    }
+
+    @Test
+    public void updateItem_whenSearchableFieldsUnchanged_thenSearchCacheKept() {
+        long ownerId = 1L;
+        long itemId = 1L;
+        UpdatedItemDto sameValuesDto = UpdatedItemDto.builder()
+                .name(item.getName())
+                .build();
+
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(itemMapper.updatedItemDtoToItem(sameValuesDto))
+                .thenReturn(Item.builder().name(item.getName()).build());
+        when(itemRepository.save(item)).thenReturn(item);
+        when(itemMapper.itemToItemDto(item)).thenReturn(itemDto);
+
+        itemService.updateItem(ownerId, itemId, sameValuesDto);
+
+        verify(itemSearchCache, never()).invalidate();
     }
 
     @Test
@@ -258,7 +288,6 @@ public class ItemServiceImplTest {
         long ownerId = 1L;
         long itemId = 1L;
 
-        when(userService.getUserById(ownerId)).thenReturn(userDto);
         when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> {
@@ -266,6 +295,7 @@ public class ItemServiceImplTest {
         });
 
         verify(itemRepository, never()).save(any(Item.class));
+        verify(itemSearchIndex, never()).index(any(Item.class));
     }
 
     @Test
@@ -273,7 +303,6 @@ public class ItemServiceImplTest {
         long ownerId = 1L;
         long itemId = 1L;
 
-        when(userService.getUserById(ownerId)).thenReturn(userDto);
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(itemWrongOwner));
 
         assertThrows(ForbiddenUserException.class, () -> {
@@ -288,27 +317,23 @@ public class ItemServiceImplTest {
         long userId = 1L;
         long itemId = 1L;
         List<CommentDto> comments = Arrays.asList(comment1, comment2);
-        Page<BookingInfoDto> lastBookingPage = new PageImpl<>(Collections.singletonList(lastBooking));
-        Page<BookingInfoDto> nextBookingPage = new PageImpl<>(Collections.singletonList(nextBooking));
 
         when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(commentRepository.findCommentsByItemId(itemId)).thenReturn(comments);
-        when(bookingRepository.findLastBookingByItemId(itemId, PageRequest.of(0, 1)))
-                .thenReturn(lastBookingPage);
-        when(bookingRepository.findNextBookingByItemId(itemId, PageRequest.of(0, 1)))
-                .thenReturn(nextBookingPage);
+        when(bookingRepository.findLastBookingsByItemIds(List.of(itemId)))
+                .thenReturn(List.of(itemBookingInfo(itemId, lastBooking)));
+        when(bookingRepository.findNextBookingsByItemIds(List.of(itemId)))
+                .thenReturn(List.of(itemBookingInfo(itemId, nextBooking)));
         when(itemMapper.itemToItemDto(any(Item.class))).thenReturn(itemDtoWithCommentsAndBookings);
 
-        ItemDto result = itemService.getItemById(userId, itemId);
+        Tagged<ItemDto> result = itemService.getItemById(userId, itemId, null);
 
-        assertNotNull(result);
-        assertEquals(itemDtoWithCommentsAndBookings, result);
+        assertNotNull(result.getETag());
+        assertEquals(itemDtoWithCommentsAndBookings, result.getBody());
         verify(itemRepository, times(1)).findById(itemId);
         verify(commentRepository, times(1)).findCommentsByItemId(itemId);
-        verify(bookingRepository, times(1))
-                .findLastBookingByItemId(itemId, PageRequest.of(0, 1));
-        verify(bookingRepository, times(1))
-                .findNextBookingByItemId(itemId, PageRequest.of(0, 1));
+        verify(bookingRepository, times(1)).findLastBookingsByItemIds(List.of(itemId));
+        verify(bookingRepository, times(1)).findNextBookingsByItemIds(List.of(itemId));
     }
 
     @Test
@@ -321,14 +346,37 @@ public class ItemServiceImplTest {
         when(commentRepository.findCommentsByItemId(itemId)).thenReturn(comments);
         when(itemMapper.itemToItemDto(any(Item.class))).thenReturn(itemDtoWithComments);
 
-        ItemDto result = itemService.getItemById(userId, itemId);
+        Tagged<ItemDto> result = itemService.getItemById(userId, itemId, null);
 
-        assertNotNull(result);
-        assertEquals(itemDtoWithComments, result);
+        assertNotNull(result.getETag());
+        assertEquals(itemDtoWithComments, result.getBody());
         verify(itemRepository, times(1)).findById(itemId);
         verify(commentRepository, times(1)).findCommentsByItemId(itemId);
-        verify(bookingRepository, never()).findLastBookingByItemId(anyLong(), any(Pageable.class));
-        verify(bookingRepository, never()).findNextBookingByItemId(anyLong(), any(Pageable.class));
+        verify(bookingRepository, never()).findLastBookingsByItemIds(anyCollection());
+        verify(bookingRepository, never()).findNextBookingsByItemIds(anyCollection());
+    }
+
+    @Test
+    public void getItemById_whenIfNoneMatchEqualsETag_thenNotModifiedWithoutLoadingComments() {
+        long userId = 1L;
+        long itemId = 1L;
+
+        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
+        when(bookingRepository.findLastBookingsByItemIds(List.of(itemId)))
+                .thenReturn(List.of(itemBookingInfo(itemId, lastBooking)));
+        String eTag = EntityTag.of("item", itemId, item.getVersion())
+                .with(lastBooking.getId())
+                .with((Long) null)
+                .with(List.of())
+                .toString();
+
+        Tagged<ItemDto> result = itemService.getItemById(userId, itemId, eTag);
+
+        assertTrue(result.isNotModified());
+        assertEquals(eTag, result.getETag());
+        verify(itemRepository, times(1)).findById(itemId);
+        verify(commentRepository, never()).findCommentsByItemId(anyLong());
+        verify(itemMapper, never()).itemToItemDto(any(Item.class));
     }
 
     @Test
@@ -338,12 +386,12 @@ public class ItemServiceImplTest {
         Long size = 10L;
         List<Item> items = Arrays.asList(item, item);
         Pageable pageable = PageRequest.of(from.intValue(), size.intValue());
-        Page<BookingInfoDto> lastBookingPage = new PageImpl<>(Collections.singletonList(lastBooking));
-        Page<BookingInfoDto> nextBookingPage = new PageImpl<>(Collections.singletonList(nextBooking));
 
         when(itemRepository.findItemsByOwnerIdOrderByIdAsc(userId, pageable)).thenReturn(new PageImpl<>(items));
-        when(bookingRepository.findLastBookingByItemId(anyLong(), any(Pageable.class))).thenReturn(lastBookingPage);
-        when(bookingRepository.findNextBookingByItemId(anyLong(), any(Pageable.class))).thenReturn(nextBookingPage);
+        when(bookingRepository.findLastBookingsByItemIds(anyCollection()))
+                .thenReturn(List.of(itemBookingInfo(item.getId(), lastBooking)));
+        when(bookingRepository.findNextBookingsByItemIds(anyCollection()))
+                .thenReturn(List.of(itemBookingInfo(item.getId(), nextBooking)));
         when(itemMapper.itemToItemDto(any(Item.class))).thenReturn(itemDtoWithBookings);
 
         List<ItemDto> result = itemService.getItemListByUserId(userId, from, size);
@@ -355,24 +403,25 @@ public class ItemServiceImplTest {
     }
 
     @Test
-    public void getItemListByUserId_andUserIsNotOwner_withoutPagination_returnsAllItems() {
+    public void getItemListByUserId_andUserIsNotOwner_withoutPagination_returnsFirstPageOfMaxSize() {
         long userId = 1L;
         List<Item> items = Arrays.asList(item, item);
-        Page<BookingInfoDto> lastBookingPage = new PageImpl<>(Collections.singletonList(lastBooking));
-        Page<BookingInfoDto> nextBookingPage = new PageImpl<>(Collections.singletonList(nextBooking));
+        Pageable pageable = PageRequest.of(0, 1000);
 
-        when(itemRepository.findItemsByOwnerIdOrderByIdAsc(userId)).thenReturn(items);
-        when(bookingRepository.findLastBookingByItemId(anyLong(), any(Pageable.class))).thenReturn(lastBookingPage);
-        when(bookingRepository.findNextBookingByItemId(anyLong(), any(Pageable.class))).thenReturn(nextBookingPage);
+        when(itemRepository.findItemsByOwnerIdOrderByIdAsc(userId, pageable)).thenReturn(new PageImpl<>(items));
+        when(bookingRepository.findLastBookingsByItemIds(anyCollection()))
+                .thenReturn(List.of(itemBookingInfo(item.getId(), lastBooking)));
+        when(bookingRepository.findNextBookingsByItemIds(anyCollection()))
+                .thenReturn(List.of(itemBookingInfo(item.getId(), nextBooking)));
         when(itemMapper.itemToItemDto(any(Item.class))).thenReturn(itemDto);
 
         List<ItemDto> result = itemService.getItemListByUserId(userId, null, null);
 
         assertNotNull(result);
         assertEquals(2, result.size());
-        verify(itemRepository, times(1)).findItemsByOwnerIdOrderByIdAsc(userId);
-        verify(bookingRepository, times(items.size())).findLastBookingByItemId(anyLong(), any(Pageable.class));
-        verify(bookingRepository, times(items.size())).findNextBookingByItemId(anyLong(), any(Pageable.class));
+        verify(itemRepository, times(1)).findItemsByOwnerIdOrderByIdAsc(userId, pageable);
+        verify(bookingRepository, times(1)).findLastBookingsByItemIds(anyCollection());
+        verify(bookingRepository, times(1)).findNextBookingsByItemIds(anyCollection());
         verify(itemMapper, times(items.size())).itemToItemDto(any(Item.class));
     }
 
@@ -384,30 +433,33 @@ public class ItemServiceImplTest {
         List<Item> items = Arrays.asList(item, item);
         Pageable pageable = PageRequest.of(from.intValue(), size.intValue());
 
-        when(itemRepository.searchItemsByText(searchText, pageable)).thenReturn(new PageImpl<>(items));
+        when(itemSearchCache.get(eq(Arrays.asList("TEST", from, size)), any())).thenAnswer(searchThroughCache());
+        when(itemSearchIndex.search(searchText, pageable)).thenReturn(items);
         when(itemMapper.itemToItemDto(any(Item.class))).thenReturn(itemDto);
 
         List<ItemDto> result = itemService.searchItemsByText(searchText, from, size);
 
         assertNotNull(result);
         assertEquals(items.size(), result.size());
-        verify(itemRepository, times(1)).searchItemsByText(searchText, pageable);
+        verify(itemSearchIndex, times(1)).search(searchText, pageable);
         verify(itemMapper, times(items.size())).itemToItemDto(any(Item.class));
     }
 
     @Test
-    public void searchItemsByText_withoutPagination_returnsAllMatchingItems() {
+    public void searchItemsByText_withoutPagination_returnsFirstPageOfMaxSize() {
         String searchText = "test";
         List<Item> items = Arrays.asList(item, item);
+        Pageable pageable = PageRequest.of(0, 1000);
 
-        when(itemRepository.searchItemsByText(searchText)).thenReturn(items);
+        when(itemSearchCache.get(eq(Arrays.asList("TEST", null, null)), any())).thenAnswer(searchThroughCache());
+        when(itemSearchIndex.search(searchText, pageable)).thenReturn(items);
         when(itemMapper.itemToItemDto(any(Item.class))).thenReturn(itemDto);
 
         List<ItemDto> result = itemService.searchItemsByText(searchText, null, null);
 
         assertNotNull(result);
         assertEquals(items.size(), result.size());
-        verify(itemRepository, times(1)).searchItemsByText(searchText);
+        verify(itemSearchIndex, times(1)).search(searchText, pageable);
         verify(itemMapper, times(items.size())).itemToItemDto(any(Item.class));
     }
 
@@ -417,11 +469,10 @@ public class ItemServiceImplTest {
         Long itemId = 1L;
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(bookingRepository.checkIfCompletedBookingExistsForItemByUserId(userId, itemId)).thenReturn(true);
+        when(itemRepository.getReferenceById(itemId)).thenReturn(item);
         when(commentMapper.createdCoomentDtoToComment(createdCommentDto)).thenReturn(createdComment);
         when(commentRepository.save(any(Comment.class))).thenReturn(comment);
-        when(commentRepository.findById(comment.getId())).thenReturn(Optional.of(comment));
         when(commentMapper.commentToCommentDto(comment)).thenReturn(commentDto);
 
         CommentDto result = itemService.addComment(userId, itemId, createdCommentDto);
@@ -429,7 +480,8 @@ public class ItemServiceImplTest {
         assertNotNull(result);
         assertEquals(commentDto, result);
         verify(userRepository, times(1)).findById(userId);
-        verify(itemRepository, times(1)).findById(itemId);
+        verify(itemRepository, never()).findById(anyLong());
+        verify(commentRepository, never()).findById(anyLong());
         verify(bookingRepository, times(1)).checkIfCompletedBookingExistsForItemByUserId(userId, itemId);
         verify(commentRepository, times(1)).save(any(Comment.class));
         verify(commentMapper, times(1)).commentToCommentDto(any(Comment.class));
@@ -446,7 +498,7 @@ public class ItemServiceImplTest {
             itemService.addComment(userId, itemId, createdCommentDto);
         });
 
-        verify(itemRepository, never()).findById(anyLong());
+        verify(bookingRepository, never()).checkIfCompletedBookingExistsForItemByUserId(anyLong(), anyLong());
     }
 
     @Test
@@ -455,7 +507,8 @@ public class ItemServiceImplTest {
         Long itemId = 1L;
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(itemId)).thenReturn(Optional.empty());
+        when(bookingRepository.checkIfCompletedBookingExistsForItemByUserId(userId, itemId)).thenReturn(false);
+        when(itemRepository.existsById(itemId)).thenReturn(false);
 
         assertThrows(NotFoundException.class, () -> {
             itemService.addComment(userId, itemId, createdCommentDto);
@@ -468,11 +521,54 @@ public class ItemServiceImplTest {
         Long itemId = 1L;
 
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
-        when(itemRepository.findById(itemId)).thenReturn(Optional.of(item));
         when(bookingRepository.checkIfCompletedBookingExistsForItemByUserId(userId, itemId)).thenReturn(false);
+        when(itemRepository.existsById(itemId)).thenReturn(true);
 
         assertThrows(IllegalStateException.class, () -> {
             itemService.addComment(userId, itemId, createdCommentDto);
         });
     }
+
+    private ItemBookingInfo itemBookingInfo(Long itemId, BookingInfoDto bookingInfoDto) {
+        return new ItemBookingInfo() {
+            @Override
+            public Long getItemId() {
+                return itemId;
+            }
+
+            @Override
+            public Long getId() {
+                return bookingInfoDto.getId();
+            }
+
+            @Override
+            public Long getBookerId() {
+                return bookingInfoDto.getBookerId();
+            }
+        };
+    }
+
+    @Test
+    public void getItemAvailability_whenFromNotBeforeTo_thenThrowsIllegalArgumentException() {
+        LocalDateTime from = LocalDateTime.of(2030, Month.JANUARY, 2, 0, 0);
+
+        assertThrows(IllegalArgumentException.class, () ->
+                itemService.getItemAvailability(1L, from, from, interval -> { }));
+
+        verify(itemRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    public void getItemAvailability_whenItemNotFound_thenThrowsNotFoundException() {
+        LocalDateTime from = LocalDateTime.of(2030, Month.JANUARY, 1, 0, 0);
+
+        when(itemRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(NotFoundException.class, () ->
+                itemService.getItemAvailability(1L, from, from.plusDays(1), interval -> { }));
+    }
+
+    private static Answer<Object> searchThroughCache() {
+        return invocation -> invocation.<Supplier<?>>getArgument(1).get();
+    }
 }
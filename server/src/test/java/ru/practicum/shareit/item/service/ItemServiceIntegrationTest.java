@@ -1,28 +1,46 @@
 package ru.practicum.shareit.item.service;
 
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.CommentDto;
+import ru.practicum.shareit.item.dto.CreatedCommentDto;
+import ru.practicum.shareit.item.dto.CreatedItemDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.TimeIntervalDto;
+import ru.practicum.shareit.item.dto.UpdatedItemDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchCache;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
@@ -46,6 +64,18 @@ public class ItemServiceIntegrationTest {
     @Autowired
     private BookingRepository bookingRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     User user1;
     User user2;
     Item item1;
@@ -170,4 +200,169 @@ public class ItemServiceIntegrationTest {
         assertThat(result, is(notNullValue()));
         assertThat(result, is(empty()));
     }
+
+    @Test
+    void getItemListByUserId_whenOwnerHasManyItems_thenStatementCountDoesNotGrow() {
+        long userId = user1.getId();
+        long statementsForOneItem = countStatementsForItemList(userId);
+
+        for (int i = 0; i < 20; i++) {
+            Item item = itemRepository.save(Item.builder()
+                    .name("item" + i)
+                    .description("bulk item description")
+                    .ownerId(userId)
+                    .available(true)
+                    .build());
+            bookingRepository.save(Booking.builder()
+                    .item(item)
+                    .booker(user2)
+                    .start(LocalDateTime.now().minusDays(5))
+                    .end(LocalDateTime.now().minusDays(3))
+                    .status(Status.APPROVED)
+                    .build());
+            bookingRepository.save(Booking.builder()
+                    .item(item)
+                    .booker(user2)
+                    .start(LocalDateTime.now().plusDays(1))
+                    .end(LocalDateTime.now().plusDays(3))
+                    .status(Status.APPROVED)
+                    .build());
+        }
+        long statementsForManyItems = countStatementsForItemList(userId);
+
+        assertThat(statementsForOneItem, equalTo(3L));
+        assertThat(statementsForManyItems, equalTo(statementsForOneItem));
+    }
+
+    @Test
+    void searchItemsByText_whenRepeated_thenServedFromCacheUntilSearchableFieldsChange() {
+        cacheManager.getCache(ItemSearchCache.NAME).clear();
+        ItemDto created = itemService.createItem(user1.getId(), CreatedItemDto.builder()
+                .name("Перфоратор")
+                .description("Мощный перфоратор")
+                .available(true)
+                .build());
+        itemRepository.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ItemDto> first = itemService.searchItemsByText("перфоратор", null, null);
+        long statementsForFirstSearch = statistics.getPrepareStatementCount();
+        List<ItemDto> second = itemService.searchItemsByText("ПЕРФОРАТОР", null, null);
+
+        assertThat(first, hasSize(1));
+        assertThat(second, equalTo(first));
+        assertThat(statementsForFirstSearch, greaterThan(0L));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(statementsForFirstSearch));
+        assertThat(meterRegistry.get("cache.gets").tag("cache", ItemSearchCache.NAME).tag("result", "hit")
+                .functionCounter().count(), greaterThanOrEqualTo(1.0));
+
+        itemService.updateItem(user1.getId(), created.getId(), UpdatedItemDto.builder()
+                .available(false)
+                .build());
+        itemRepository.flush();
+
+        assertThat(itemService.searchItemsByText("перфоратор", null, null), is(empty()));
+    }
+
+    @Test
+    void getItemAvailability_whenBookingsOverlapAndTouch_thenMergesBusyAndReturnsFreeWindows() {
+        Item item = item2;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusHours(21);
+        saveBooking(item, from.minusHours(1), from.plusHours(1), Status.APPROVED);
+        saveBooking(item, from.plusHours(10), from.plusHours(12), Status.APPROVED);
+        saveBooking(item, from.plusHours(11), from.plusHours(14), Status.APPROVED);
+        saveBooking(item, from.plusHours(14), from.plusHours(15), Status.APPROVED);
+        saveBooking(item, from.plusHours(16), from.plusHours(17), Status.WAITING);
+        saveBooking(item, from.plusHours(20), from.plusHours(22), Status.APPROVED);
+        saveBooking(item, from.plusHours(30), from.plusHours(31), Status.APPROVED);
+
+        List<TimeIntervalDto> intervals = new ArrayList<>();
+        itemService.getItemAvailability(item.getId(), from, to, intervals::add);
+
+        assertThat(intervals, contains(
+                new TimeIntervalDto(from, from.plusHours(1), true),
+                new TimeIntervalDto(from.plusHours(1), from.plusHours(10), false),
+                new TimeIntervalDto(from.plusHours(10), from.plusHours(15), true),
+                new TimeIntervalDto(from.plusHours(15), from.plusHours(20), false),
+                new TimeIntervalDto(from.plusHours(20), to, true)));
+    }
+
+    @Test
+    void getItemAvailability_whenItemHasManyBookings_thenSingleBookingQuery() {
+        int bookingCount = 10_000;
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusHours(2L * bookingCount);
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < bookingCount; i++) {
+            bookings.add(Booking.builder()
+                    .item(item3)
+                    .booker(user1)
+                    .start(from.plusHours(2L * i + 1))
+                    .end(from.plusHours(2L * i + 2))
+                    .status(Status.APPROVED)
+                    .build());
+        }
+        bookingRepository.saveAll(bookings);
+        bookingRepository.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        AtomicInteger busy = new AtomicInteger();
+        AtomicInteger free = new AtomicInteger();
+        List<TimeIntervalDto> first = new ArrayList<>();
+
+        itemService.getItemAvailability(item3.getId(), from, to, interval -> {
+            (interval.isBusy() ? busy : free).incrementAndGet();
+            if (first.isEmpty()) {
+                first.add(interval);
+            }
+        });
+
+        assertThat(busy.get(), equalTo(bookingCount));
+        assertThat(free.get(), equalTo(bookingCount));
+        assertThat(first, contains(new TimeIntervalDto(from, from.plusHours(1), false)));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(2L));
+        assertThat(statistics.getEntityLoadCount(), equalTo(0L));
+    }
+
+    @Test
+    void addComment_whenCompletedBookingExists_thenItemNotLoaded() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        CommentDto commentDto = itemService.addComment(user2.getId(), item1.getId(),
+                CreatedCommentDto.builder().text("Отличная вещь").build());
+
+        assertThat(commentDto.getId(), is(notNullValue()));
+        assertThat(commentDto.getAuthorName(), equalTo(user2.getName()));
+        // автор, проверка завершенной брони, вставка комментария
+        assertThat(statistics.getPrepareStatementCount(), equalTo(3L));
+        assertThat(statistics.getEntityLoadCount(), equalTo(1L));
+    }
+
+    private void saveBooking(Item item, LocalDateTime start, LocalDateTime end, Status status) {
+        bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(user1)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
+
+    private long countStatementsForItemList(long userId) {
+        itemRepository.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ItemDto> result = itemService.getItemListByUserId(userId, null, null);
+        result.forEach(itemDto -> {
+            assertThat(itemDto.getLastBooking(), is(notNullValue()));
+            assertThat(itemDto.getNextBooking(), is(notNullValue()));
+        });
+        return statistics.getPrepareStatementCount();
+    }
 }
@@ -0,0 +1,220 @@
+package ru.practicum.shareit.migration;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Проверяет по EXPLAIN, что горячие запросы репозиториев и Querydsl-выборок после миграций идут по индексам,
+ * а не полным сканированием таблицы. Объясняется тот SQL, который Hibernate действительно отправил в БД
+ * при вызове репозитория или сервиса: его перехватывает CapturedStatements
+ */
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.shareit.migration.HotQueryIndexTest$CapturedStatements")
+@ActiveProfiles("test")
+@Transactional
+public class HotQueryIndexTest {
+
+    private static final String TABLE_SCAN = ".tableScan";
+    private static final String OWNER_INDEX = "BOOKINGS_OWNER_ID_START_DATE_IDX";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private BookingService bookingService;
+
+    @Autowired
+    private ItemRequestService itemRequestService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    User owner;
+    User booker;
+    Item item;
+    Booking booking;
+    Comment comment;
+    ItemRequest itemRequest;
+
+    @BeforeEach
+    void beforeEach() {
+        owner = userRepository.save(User.builder()
+                .name("owner")
+                .email("owner@user.com")
+                .build());
+        booker = userRepository.save(User.builder()
+                .name("booker")
+                .email("booker@user.com")
+                .build());
+        itemRequest = itemRequestRepository.save(ItemRequest.builder()
+                .description("Нужна дрель")
+                .requestor(booker)
+                .build());
+        item = itemRepository.save(Item.builder()
+                .name("Дрель")
+                .description("Простая дрель")
+                .ownerId(owner.getId())
+                .available(true)
+                .requestId(itemRequest.getId())
+                .build());
+        booking = bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(booker)
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .status(Status.APPROVED)
+                .build());
+        comment = commentRepository.save(Comment.builder()
+                .text("Отличная дрель")
+                .item(item)
+                .author(booker)
+                .build());
+        entityManager.flush();
+    }
+
+    @Test
+    void bookingQueries_whenExplained_thenUseIndexes() {
+        List<Long> itemIds = List.of(item.getId());
+        assertNoTableScan(() -> bookingService.findBookingById(booker.getId(), booking.getId()));
+        assertNoTableScan(() -> bookingService.getBookingListCreatedByUserId(booker.getId(), "WAITING", 20L, 10L));
+        assertNoTableScan(() -> bookingService.getBookingListCreatedByUserIdAfterCursor(booker.getId(), "ALL",
+                new BookingCursor(booking.getStart(), booking.getId()), 10));
+        assertNoTableScan(() -> bookingService.getBookingListForAllOwnerItems(owner.getId(), "ALL", 0L, 10L));
+        assertNoTableScan(() -> bookingService.getBookingListForAllOwnerItemsAfterCursor(owner.getId(), "ALL",
+                new BookingCursor(booking.getStart(), booking.getId()), 10));
+        assertNoTableScan(() -> bookingRepository.findLastBookingsByItemIds(itemIds));
+        assertNoTableScan(() -> bookingRepository.findNextBookingsByItemIds(itemIds));
+        assertNoTableScan(() -> bookingRepository.checkIfCompletedBookingExistsForItemByUserId(booker.getId(),
+                item.getId()));
+    }
+
+    @Test
+    void ownerBookingList_whenExplained_thenReadByOwnerIndex() {
+        List<String> plans = explain(() -> bookingService.getBookingListForAllOwnerItemsAfterCursor(owner.getId(),
+                "ALL", new BookingCursor(booking.getStart(), booking.getId()), 10));
+
+        assertThat(plans, hasItem(containsString(OWNER_INDEX)));
+    }
+
+    @Test
+    void itemQueries_whenExplained_thenUseIndexes() {
+        assertNoTableScan(() -> itemRepository.findById(item.getId()));
+        assertNoTableScan(() -> itemRepository.findItemsByOwnerIdOrderByIdAsc(owner.getId(), PageRequest.of(0, 10)));
+        assertNoTableScan(() -> itemRequestService.getItemRequestListByUserId(booker.getId()));
+    }
+
+    @Test
+    void commentQueries_whenExplained_thenUseIndexes() {
+        assertNoTableScan(() -> commentRepository.findCommentsByItemId(item.getId()));
+        assertNoTableScan(() -> commentRepository.findById(comment.getId()));
+    }
+
+    @Test
+    void itemRequestQueries_whenExplained_thenUseIndexes() {
+        assertNoTableScan(() -> itemRequestService.getItemRequestListByUserId(booker.getId()));
+        assertNoTableScan(() -> itemRequestService.getAllItemRequestList(owner.getId(), 20L, 10L));
+        assertNoTableScan(() -> itemRequestRepository.findById(itemRequest.getId()));
+    }
+
+    /**
+     * Выполняет вызов с пустыми контекстом персистентности и кэшем второго уровня, чтобы каждый запрос дошел
+     * до БД, и объясняет все перехваченные при этом SQL-запросы. Параметры в EXPLAIN остаются
+     * неподставленными: H2 выбирает план при подготовке запроса, до привязки значений
+     */
+
+    private void assertNoTableScan(Runnable call) {
+        for (String plan : explain(call)) {
+            assertThat(plan, not(containsString(TABLE_SCAN)));
+        }
+    }
+
+    private List<String> explain(Runnable call) {
+        entityManager.clear();
+        entityManager.getEntityManagerFactory().getCache().evictAll();
+        CapturedStatements.clear();
+        call.run();
+        List<String> statements = CapturedStatements.drain();
+        assertThat(statements, not(empty()));
+        List<String> plans = new ArrayList<>();
+        for (String sql : statements) {
+            plans.add(String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class)));
+        }
+        return plans;
+    }
+
+    /**
+     * Запоминает SQL выборок, которые Hibernate готовит в этом потоке; создается Hibernate по имени класса
+     */
+
+    public static class CapturedStatements implements StatementInspector {
+
+        private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.trim().toLowerCase().startsWith("select")) {
+                STATEMENTS.get().add(sql);
+            }
+            return sql;
+        }
+
+        static void clear() {
+            STATEMENTS.get().clear();
+        }
+
+        static List<String> drain() {
+            List<String> statements = new ArrayList<>(STATEMENTS.get());
+            STATEMENTS.get().clear();
+            return statements;
+        }
+    }
+}
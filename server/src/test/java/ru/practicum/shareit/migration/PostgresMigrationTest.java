@@ -0,0 +1,133 @@
+package ru.practicum.shareit.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Миграции PostgreSQL на настоящем сервере: каждая проверка создает и удаляет отдельную базу. Выполняется,
+ * только если задан SHAREIT_TEST_POSTGRES_URL - адрес сервера без имени базы, например
+ * jdbc:postgresql://localhost:5432/ (пользователь и пароль - SHAREIT_TEST_POSTGRES_USER и _PASSWORD)
+ */
+
+@EnabledIfEnvironmentVariable(named = "SHAREIT_TEST_POSTGRES_URL", matches = ".+")
+public class PostgresMigrationTest {
+
+    private static final String SERVER_URL = System.getenv("SHAREIT_TEST_POSTGRES_URL");
+    private static final String USER = System.getenv().getOrDefault("SHAREIT_TEST_POSTGRES_USER", "shareit");
+    private static final String PASSWORD = System.getenv().getOrDefault("SHAREIT_TEST_POSTGRES_PASSWORD", "");
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 2, 1, 12, 0);
+
+    private final String database = "shareit_migration_" + System.nanoTime();
+
+    private JdbcTemplate server;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        server = new JdbcTemplate(new DriverManagerDataSource(SERVER_URL + "postgres", USER, PASSWORD));
+        server.execute("create database " + database);
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(SERVER_URL + database, USER, PASSWORD));
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.execute("drop database if exists " + database + " with (force)");
+    }
+
+    @Test
+    void migrate_whenApprovedBookingsOverlap_thenLaterOnesRejectedAndConstraintAdded() {
+        flyway("3").migrate();
+        long ownerId = insertUser("owner");
+        long bookerId = insertUser("booker");
+        long drillId = insertItem(ownerId, "Дрель");
+        long sawId = insertItem(ownerId, "Пила");
+        long first = insertBookingBeforeOwnerId(drillId, bookerId, 1, 3, "APPROVED");
+        long overlapsFirst = insertBookingBeforeOwnerId(drillId, bookerId, 2, 4, "APPROVED");
+        long afterFirst = insertBookingBeforeOwnerId(drillId, bookerId, 3, 5, "APPROVED");
+        long empty = insertBookingBeforeOwnerId(drillId, bookerId, 2, 2, "APPROVED");
+        long reversed = insertBookingBeforeOwnerId(drillId, bookerId, 7, 6, "APPROVED");
+        long waiting = insertBookingBeforeOwnerId(drillId, bookerId, 2, 4, "WAITING");
+        long otherItem = insertBookingBeforeOwnerId(sawId, bookerId, 1, 3, "APPROVED");
+
+        flyway(null).migrate();
+
+        assertThat(status(first), equalTo("APPROVED"));
+        assertThat(status(overlapsFirst), equalTo("REJECTED"));
+        assertThat(status(afterFirst), equalTo("APPROVED"));
+        assertThat(status(empty), equalTo("APPROVED"));
+        assertThat(status(reversed), equalTo("APPROVED"));
+        assertThat(status(waiting), equalTo("WAITING"));
+        assertThat(status(otherItem), equalTo("APPROVED"));
+        assertThat(jdbcTemplate.queryForList("select distinct owner_id from bookings", Long.class),
+                contains(ownerId));
+    }
+
+    @Test
+    void migrate_whenApplied_thenOverlappingApprovedBookingRejectedByConstraint() {
+        flyway(null).migrate();
+        long ownerId = insertUser("owner");
+        long bookerId = insertUser("booker");
+        long drillId = insertItem(ownerId, "Дрель");
+        insertBooking(drillId, bookerId, 1, 3, "APPROVED");
+        insertBooking(drillId, bookerId, 2, 4, "WAITING");
+
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class, () ->
+                insertBooking(drillId, bookerId, 2, 4, "APPROVED"));
+
+        assertThat(e.getMostSpecificCause().getMessage(), containsString("bookings_no_approved_overlap"));
+    }
+
+    private Flyway flyway(String target) {
+        return Flyway.configure()
+                .dataSource(SERVER_URL + database, USER, PASSWORD)
+                .locations("classpath:db/migration/common", "classpath:db/migration/postgresql")
+                .target(target != null ? target : "latest")
+                .load();
+    }
+
+    private long insertUser(String name) {
+        return jdbcTemplate.queryForObject("insert into users (user_name, user_email) values (?, ?) " +
+                "returning user_id", Long.class, name, name + "@user.com");
+    }
+
+    private long insertItem(long ownerId, String name) {
+        return jdbcTemplate.queryForObject("insert into items (item_name, item_description, item_ownerid, " +
+                "item_available) values (?, ?, ?, true) returning item_id", Long.class, name, name, ownerId);
+    }
+
+    private long insertBooking(long itemId, long bookerId, int startDay, int endDay, String status) {
+        return jdbcTemplate.queryForObject("insert into bookings (start_date, end_date, item_id, booker_id, " +
+                        "booking_status, owner_id) values (?, ?, ?, ?, ?, " +
+                        "(select item_ownerid from items where item_id = ?)) returning booking_id", Long.class,
+                DAY.plusDays(startDay), DAY.plusDays(endDay), itemId, bookerId, status, itemId);
+    }
+
+    /**
+     * Бронь до V10, в которой еще нет owner_id
+     */
+
+    private long insertBookingBeforeOwnerId(long itemId, long bookerId, int startDay, int endDay, String status) {
+        return jdbcTemplate.queryForObject("insert into bookings (start_date, end_date, item_id, booker_id, " +
+                        "booking_status) values (?, ?, ?, ?, ?) returning booking_id", Long.class,
+                DAY.plusDays(startDay), DAY.plusDays(endDay), itemId, bookerId, status);
+    }
+
+    private String status(long bookingId) {
+        return jdbcTemplate.queryForObject("select booking_status from bookings where booking_id = ?",
+                String.class, bookingId);
+    }
+}
@@ -7,8 +7,10 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.etag.Tagged;
 import ru.practicum.shareit.request.dto.CreatedItemRequestDto;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -23,11 +25,14 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ItemRequestController.class)
 public class ItemRequestControllerTest {
 
+    private static final String ETAG = "\"request-1-1-cbf29ce484222325\"";
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -130,15 +135,32 @@ public class ItemRequestControllerTest {
         Long validUserId = 1L;
         Long validRequestId = 1L;
 
-        when(itemRequestService.getRequestByItemRequestId(validUserId, validRequestId))
-                .thenReturn(itemRequestDto);
+        when(itemRequestService.getRequestByItemRequestId(validUserId, validRequestId, null))
+                .thenReturn(Tagged.of(ETAG, itemRequestDto));
 
         mockMvc.perform(get("/requests/{requestId}", validRequestId)
                         .header("X-Sharer-User-Id", validUserId))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
                 .andExpect(content().json(objectMapper.writeValueAsString(itemRequestDto)));
     }
 
+    @SneakyThrows
+    @Test
+    public void getRequestByItemRequestId_whenIfNoneMatchEqualsETag_thenNotModifiedWithoutBody() {
+        Long validUserId = 1L;
+        Long validRequestId = 1L;
+        when(itemRequestService.getRequestByItemRequestId(validUserId, validRequestId, ETAG))
+                .thenReturn(Tagged.notModified(ETAG));
+
+        mockMvc.perform(get("/requests/{requestId}", validRequestId)
+                        .header("X-Sharer-User-Id", validUserId)
+                        .header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
     @SneakyThrows
     @Test
     public void getRequestByItemRequestId_whenNoUserId_thenReturnBadRequest() {
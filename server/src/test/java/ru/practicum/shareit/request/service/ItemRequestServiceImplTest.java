@@ -13,6 +13,7 @@ import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserExistenceChecker;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
@@ -21,6 +22,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -33,6 +35,9 @@ public class ItemRequestServiceImplTest {
     private ItemRequestRepository itemRequestRepository;
     @Mock
     private UserRepository userRepository;
+
+    @Mock
+    private UserExistenceChecker userExistenceChecker;
     @Mock
     private ItemRequestMapper itemRequestMapper;
     @InjectMocks
@@ -70,7 +75,7 @@ public class ItemRequestServiceImplTest {
     public void addItemRequest_whenUserExists_andValidDto_thenSuccess() {
         long userId = 1L;
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userRepository.getReferenceById(userId)).thenReturn(user);
         when(itemRequestMapper.createdItemRequestDtoToItemRequest(any(CreatedItemRequestDto.class)))
                 .thenReturn(createdDtoItemRequest);
         when(itemRequestRepository.save(any(ItemRequest.class))).thenReturn(itemRequest);
@@ -79,7 +84,7 @@ public class ItemRequestServiceImplTest {
         ItemRequestDto result = itemRequestService.addItemRequest(userId, createdItemRequestDto);
 
         assertEquals(itemRequestDto, result);
-        verify(userRepository, times(1)).findById(userId);
+        verify(userExistenceChecker, times(1)).checkExists(userId);
         verify(itemRequestMapper, times(1))
                 .createdItemRequestDtoToItemRequest(any(CreatedItemRequestDto.class));
         verify(itemRequestRepository, times(1)).save(any(ItemRequest.class));
@@ -91,12 +96,12 @@ public class ItemRequestServiceImplTest {
         long invalidUserId = -1L;
         CreatedItemRequestDto createdDto = new CreatedItemRequestDto();
 
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        doThrow(new NotFoundException("Пользователь не найден")).when(userExistenceChecker).checkExists(invalidUserId);
 
         assertThrows(NotFoundException.class,
                 () -> itemRequestService.addItemRequest(invalidUserId, createdDto));
 
-        verify(userRepository, times(1)).findById(anyLong());
+        verify(itemRequestRepository, never()).save(any(ItemRequest.class));
         verify(itemRequestMapper, never()).createdItemRequestDtoToItemRequest(any());
         verify(itemRequestRepository, never()).save(any());
     }
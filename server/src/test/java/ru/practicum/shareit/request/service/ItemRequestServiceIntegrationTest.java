@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request.service;
 
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,6 +19,7 @@ import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -48,6 +51,9 @@ public class ItemRequestServiceIntegrationTest {
     @Autowired
     private ItemRequestRepository itemRequestRepository;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     User userWithRequests;
     User userWithNoRequests;
 
@@ -184,7 +190,7 @@ public class ItemRequestServiceIntegrationTest {
         long userId = userWithRequests.getId();
         long requestId = itemRequest1.getId();
 
-        ItemRequestDto result = itemRequestService.getRequestByItemRequestId(userId, requestId);
+        ItemRequestDto result = itemRequestService.getRequestByItemRequestId(userId, requestId, null).getBody();
 
         assertThat(result, is(notNullValue()));
         assertThat(result.getId(), is(equalTo(requestId)));
@@ -199,7 +205,7 @@ public class ItemRequestServiceIntegrationTest {
         long requestId = itemRequest1.getId();
 
         assertThrows(NotFoundException.class,
-                () -> itemRequestService.getRequestByItemRequestId(invalidUserId, requestId));
+                () -> itemRequestService.getRequestByItemRequestId(invalidUserId, requestId, null));
     }
 
     @Test
@@ -208,6 +214,41 @@ public class ItemRequestServiceIntegrationTest {
         long invalidRequestId = -1L;
 
         assertThrows(NotFoundException.class,
-                () -> itemRequestService.getRequestByItemRequestId(userId, invalidRequestId));
+                () -> itemRequestService.getRequestByItemRequestId(userId, invalidRequestId, null));
+    }
+
+    @Test
+    void getAllItemRequestList_whenManyRequests_thenStatementCountDoesNotGrow() {
+        long userId = userWithNoRequests.getId();
+        long statementsForFewRequests = countStatementsForAllItemRequestList(userId);
+
+        for (int i = 0; i < 20; i++) {
+            ItemRequest itemRequest = itemRequestRepository.save(ItemRequest.builder()
+                    .description("bulk request " + i)
+                    .created(LocalDateTime.now())
+                    .requestor(userWithRequests)
+                    .build());
+            itemRepository.save(Item.builder()
+                    .name("bulk item " + i)
+                    .description("bulk item description")
+                    .ownerId(userWithNoRequests.getId())
+                    .available(true)
+                    .requestId(itemRequest.getId())
+                    .build());
+        }
+        long statementsForManyRequests = countStatementsForAllItemRequestList(userId);
+
+        assertThat(statementsForManyRequests, equalTo(statementsForFewRequests));
+    }
+
+    private long countStatementsForAllItemRequestList(long userId) {
+        itemRepository.flush();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        List<ItemRequestDto> result = itemRequestService.getAllItemRequestList(userId, null, null);
+        result.stream()
+                .filter(dto -> !dto.getId().equals(itemRequest2.getId()))
+                .forEach(dto -> assertThat(dto.getItems(), is(not(empty()))));
+        return statistics.getPrepareStatementCount();
     }
 }
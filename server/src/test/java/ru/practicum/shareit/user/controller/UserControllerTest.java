@@ -7,11 +7,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.etag.Tagged;
 import ru.practicum.shareit.user.dto.CreatedUserDto;
 import ru.practicum.shareit.user.dto.UpdatedUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.util.Arrays;
@@ -23,6 +27,8 @@ import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -30,6 +36,8 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @WebMvcTest(UserController.class)
 public class UserControllerTest {
 
+    private static final String ETAG = "\"user-1-1-cbf29ce484222325\"";
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -90,19 +98,62 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.name").value(userDtoUpd.getName()));
     }
 
+    @SneakyThrows
+    @Test
+    void updateUser_whenConcurrentUpdateWon_thenResponseStatusConflict() {
+        Long validUserId = 1L;
+        when(userService.updateUser(anyLong(), any(UpdatedUserDto.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(User.class, validUserId));
+
+        mockMvc.perform(patch("/users/{id}", validUserId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updatedUserDto)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Данные изменены параллельным запросом, повторите попытку"));
+    }
+
     @SneakyThrows
     @Test
     void getUserById_whenGetUserById_thenResponseStatusOkWithUserInBody() {
         Long validUserId = 1L;
-        when(userService.getUserById(anyLong()))
-                .thenReturn(userDto);
+        when(userService.getUserById(validUserId, null))
+                .thenReturn(Tagged.of(ETAG, userDto));
 
         mockMvc.perform(get("/users/{id}", validUserId))
                 .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
                 .andExpect(jsonPath("$.id").value(userDto.getId()))
                 .andExpect(jsonPath("$.name").value(userDto.getName()));
     }
 
+    @SneakyThrows
+    @Test
+    void getUserById_whenIfNoneMatchEqualsETag_thenNotModifiedWithoutBody() {
+        Long validUserId = 1L;
+        when(userService.getUserById(validUserId, ETAG))
+                .thenReturn(Tagged.notModified(ETAG));
+
+        mockMvc.perform(get("/users/{id}", validUserId)
+                        .header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @SneakyThrows
+    @Test
+    void getUserById_whenIfNoneMatchOutdated_thenResponseStatusOkWithCurrentETag() {
+        Long validUserId = 1L;
+        when(userService.getUserById(validUserId, "\"user-1-0-0\""))
+                .thenReturn(Tagged.of(ETAG, userDto));
+
+        mockMvc.perform(get("/users/{id}", validUserId)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"user-1-0-0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(jsonPath("$.name").value(userDto.getName()));
+    }
+
     @SneakyThrows
     @Test
     void getUserList_whenGetUserList_thenReturnStatusOkWithUserListInBody() {
@@ -119,7 +170,7 @@ public class UserControllerTest {
 
         List<UserDto> userList = Arrays.asList(userDto1, userDto2);
 
-        when(userService.getUserList())
+        when(userService.getUserList(null, null))
                 .thenReturn(userList);
 
         mockMvc.perform(get("/users")
@@ -5,10 +5,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.etag.Tagged;
 import ru.practicum.shareit.exceptions.EmailAlreadyExistsException;
 import ru.practicum.shareit.exceptions.NotFoundException;
+import ru.practicum.shareit.paging.PageLimit;
 import ru.practicum.shareit.user.dto.CreatedUserDto;
 import ru.practicum.shareit.user.dto.UpdatedUserDto;
 import ru.practicum.shareit.user.dto.UserDto;
@@ -23,6 +27,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.times;
@@ -38,6 +43,9 @@ public class UserServiceImplTest {
     @Mock
     private UserMapper userMapper;
 
+    @Spy
+    private PageLimit pageLimit = new PageLimit(1000);
+
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -86,21 +94,21 @@ public class UserServiceImplTest {
                 .thenReturn(createduser);
         when(userMapper.userToUserDto(any(User.class)))
                 .thenReturn(userDto);
-        when(userRepository.save(any(User.class)))
+        when(userRepository.saveAndFlush(any(User.class)))
                 .thenReturn(user);
 
         UserDto result = userService.createUser(createdUserDto);
 
         assertNotNull(result);
         assertEquals(userDto, result);
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
     }
 
     @Test
     void createUser_whenEmailAlreadyExists_thenThrowsEmailAlreadyExistsException() {
         when(userMapper.createdUserDtoToUser(any(CreatedUserDto.class)))
                 .thenReturn(user);
-        when(userRepository.save(any(User.class)))
+        when(userRepository.saveAndFlush(any(User.class)))
                 .thenThrow(DataIntegrityViolationException.class);
 
         assertThrows(EmailAlreadyExistsException.class, () -> userService.createUser(createdUserDto));
@@ -113,7 +121,7 @@ public class UserServiceImplTest {
                 .thenReturn(Optional.of(user));
         when(userMapper.updatedUserDtoToUser(any(UpdatedUserDto.class)))
                 .thenReturn(updatedUser);
-        when(userRepository.save(any(User.class)))
+        when(userRepository.saveAndFlush(any(User.class)))
                 .thenReturn(updatedUser);
         when(userMapper.userToUserDto(any(User.class)))
                 .thenReturn(userDtoUpd);
@@ -122,7 +130,7 @@ public class UserServiceImplTest {
 
         assertNotNull(result);
         assertEquals(userDtoUpd, result);
-        verify(userRepository).save(any(User.class));
+        verify(userRepository).saveAndFlush(any(User.class));
     }
 
     @Test
@@ -141,7 +149,7 @@ public class UserServiceImplTest {
                 .thenReturn(Optional.of(user));
         when(userMapper.updatedUserDtoToUser(any(UpdatedUserDto.class)))
                 .thenReturn(updatedUser);
-        when(userRepository.save(any(User.class)))
+        when(userRepository.saveAndFlush(any(User.class)))
                 .thenThrow(DataIntegrityViolationException.class);
 
         assertThrows(EmailAlreadyExistsException.class, () -> userService.updateUser(userId, updatedUserDto));
@@ -154,10 +162,25 @@ public class UserServiceImplTest {
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(userMapper.userToUserDto(user)).thenReturn(userDto);
 
-        UserDto result = userService.getUserById(userId);
+        Tagged<UserDto> result = userService.getUserById(userId, null);
 
-        assertNotNull(result);
-        assertEquals(userDto, result);
+        assertNotNull(result.getETag());
+        assertEquals(userDto, result.getBody());
+    }
+
+    @Test
+    void getUserById_whenIfNoneMatchEqualsETag_thenNotModifiedWithoutBuildingDto() {
+        long userId = 1L;
+
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+        String eTag = userService.getUserById(userId, null).getETag();
+
+        Tagged<UserDto> result = userService.getUserById(userId, eTag);
+
+        assertTrue(result.isNotModified());
+        assertEquals(eTag, result.getETag());
+        verify(userRepository, times(2)).findById(userId);
+        verify(userMapper, times(1)).userToUserDto(user);
     }
 
 
@@ -168,7 +191,7 @@ public class UserServiceImplTest {
         when(userRepository.findById(userId))
                 .thenReturn(Optional.empty());
 
-        assertThrows(NotFoundException.class, () -> userService.getUserById(userId));
+        assertThrows(NotFoundException.class, () -> userService.getUserById(userId, null));
     }
 
     @Test
@@ -206,12 +229,12 @@ public class UserServiceImplTest {
         List<User> users = Arrays.asList(user1, user2);
         List<UserDto> userDtos = Arrays.asList(userDto1, userDto2);
 
-        when(userRepository.findAll()).thenReturn(users);
+        when(userRepository.findAllByOrderByIdAsc(PageRequest.of(0, 1000))).thenReturn(users);
         for (int i = 0; i < users.size(); i++) {
             when(userMapper.userToUserDto(users.get(i))).thenReturn(userDtos.get(i));
         }
 
-        List<UserDto> result = userService.getUserList();
+        List<UserDto> result = userService.getUserList(null, null);
 
         assertNotNull(result);
         assertEquals(userDtos.size(), result.size());